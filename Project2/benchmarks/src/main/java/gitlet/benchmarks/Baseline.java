@@ -0,0 +1,74 @@
+package gitlet.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stored metrics to compare new runs with, kept as a properties file of
+ * metric names to values.
+ */
+public class Baseline {
+
+	//latencies this close to the baseline are noise, whatever the threshold
+	private static final double MIN_REGRESSION_MILLIS = 1.0;
+
+	private final Properties metrics;
+
+	public Baseline() {
+		this(new Properties());
+	}
+
+	private Baseline(Properties metrics) {
+		this.metrics = metrics;
+	}
+
+	public static Baseline load(File file) throws IOException {
+		Properties metrics = new Properties();
+		try (InputStream input = new FileInputStream(file)) {
+			metrics.load(input);
+		}
+		return new Baseline(metrics);
+	}
+
+	public void save(File file) throws IOException {
+		try (OutputStream output = new FileOutputStream(file)) {
+			metrics.store(output, "gitlet latency baseline");
+		}
+	}
+
+	public void put(ScenarioResult result) {
+		for (Map.Entry<String, Double> metric : result.getMetrics().entrySet())
+			metrics.setProperty(metric.getKey(), Double.toString(metric.getValue()));
+	}
+
+	/**
+	 * Returns a line for every metric of result that is more than threshold,
+	 * a fraction, above its baseline. Metrics without a baseline pass.
+	 */
+	public List<String> regressions(ScenarioResult result, double threshold) {
+		List<String> regressions = new ArrayList<String>();
+		for (Map.Entry<String, Double> metric : result.getMetrics().entrySet()) {
+			String stored = metrics.getProperty(metric.getKey());
+			if (stored == null)
+				continue;
+			double baseline = Double.parseDouble(stored);
+			double value = metric.getValue();
+			if (value <= baseline * (1 + threshold))
+				continue;
+			boolean latency = metric.getKey().endsWith(".p50") || metric.getKey().endsWith(".p99");
+			if (latency && value - baseline < MIN_REGRESSION_MILLIS)
+				continue;
+			regressions.add(String.format("%s: %.2f, baseline %.2f (+%.0f%%)", metric.getKey(),
+					value, baseline, baseline == 0 ? 100.0 : (value / baseline - 1) * 100));
+		}
+		return regressions;
+	}
+}
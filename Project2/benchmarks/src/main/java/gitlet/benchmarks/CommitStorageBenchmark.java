@@ -0,0 +1,98 @@
+package gitlet.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gitlet.Commit;
+import gitlet.Durability;
+import gitlet.FileSystemWriter;
+
+/**
+ * Writing a commit to the object store and reading a commit back with its
+ * history, from disk and from the writer's cache. Runs without fsync, so it
+ * measures gitlet and not the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommitStorageBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	public int files;
+
+	@Param({ "1", "100" })
+	public int history;
+
+	private Path root;
+	private FileSystemWriter fileWriter;
+	private Commit head;
+	private long saved;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("gitlet-bench");
+		Files.createDirectories(root.resolve(".gitlet/objects"));
+		fileWriter = new FileSystemWriter(root.toFile(), Durability.NONE);
+		head = Histories.line(new Commit(), history, "commit", Histories.files(files));
+		for (Commit commit = head; commit != null; commit = commit.getParent())
+			fileWriter.saveCommit(commit);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	/**
+	 * Saves a new commit on top of the head each time, since saving one that
+	 * exists is a no-op.
+	 */
+	@Benchmark
+	public Commit saveCommit() {
+		Commit commit = new Commit(head, ++saved, "saved", head.getFilePointers());
+		fileWriter.saveCommit(commit);
+		return commit;
+	}
+
+	/**
+	 * Reads the history from disk, through a new writer each time so none
+	 * of it comes from the cache of commits recovered before.
+	 */
+	@Benchmark
+	public Commit recoverCommit() {
+		return new FileSystemWriter(root.toFile(), Durability.NONE).recoverCommit(head.getId());
+	}
+
+	/**
+	 * Recovers through the writer used all along, whose cache holds the
+	 * history after the first call, so only checking the objects is left.
+	 */
+	@Benchmark
+	public Commit recoverCommitCached() {
+		return fileWriter.recoverCommit(head.getId());
+	}
+}
@@ -0,0 +1,44 @@
+package gitlet.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gitlet.Commit;
+
+/**
+ * Hashing a commit's file map, done whenever commits are compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilePointersHashBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int files;
+
+	private Commit commit;
+
+	@Setup
+	public void setUp() {
+		commit = new Commit(new Commit(), 1L, "files", Histories.files(files));
+	}
+
+	@Benchmark
+	public int filePointersHash() {
+		return commit.filePointersHash();
+	}
+}
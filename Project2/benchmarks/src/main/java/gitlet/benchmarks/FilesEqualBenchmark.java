@@ -0,0 +1,73 @@
+package gitlet.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gitlet.Durability;
+import gitlet.FileSystemWriter;
+
+/**
+ * Comparing two files of the same length, which add does for every file
+ * whose modification time matches the commit's. Files that differ only in
+ * the last byte are the worst case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilesEqualBenchmark {
+
+	@Param({ "1024", "65536", "4194304" })
+	public int size;
+
+	private Path root;
+	private FileSystemWriter fileWriter;
+
+	@Setup
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("gitlet-bench");
+		fileWriter = new FileSystemWriter(root.toFile(), Durability.NONE);
+		byte[] content = new byte[size];
+		Arrays.fill(content, (byte) 'g');
+		Files.write(root.resolve("a.txt"), content);
+		Files.write(root.resolve("b.txt"), content);
+		content[size - 1] = 'h';
+		Files.write(root.resolve("c.txt"), content);
+	}
+
+	@TearDown
+	public void tearDown() {
+		for (File file : root.toFile().listFiles())
+			file.delete();
+		root.toFile().delete();
+	}
+
+	@Benchmark
+	public boolean equal() {
+		return fileWriter.filesEqual("a.txt", "b.txt");
+	}
+
+	@Benchmark
+	public boolean differentAtEnd() {
+		return fileWriter.filesEqual("a.txt", "c.txt");
+	}
+}
@@ -0,0 +1,47 @@
+package gitlet.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gitlet.Hasher;
+
+/**
+ * Hashing a string, the way commit ids and file contents are hashed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HasherBenchmark {
+
+	@Param({ "64", "4096", "1048576" })
+	public int length;
+
+	private String value;
+
+	@Setup
+	public void setUp() {
+		char[] chars = new char[length];
+		Arrays.fill(chars, 'g');
+		value = new String(chars);
+	}
+
+	@Benchmark
+	public String getSha256() {
+		return Hasher.getSha256(value);
+	}
+}
@@ -0,0 +1,34 @@
+package gitlet.benchmarks;
+
+import java.util.HashMap;
+
+import gitlet.Commit;
+
+/**
+ * Builds commits in memory for the benchmarks.
+ */
+class Histories {
+
+	/**
+	 * Returns a file map with count files.
+	 */
+	static HashMap<String, String> files(int count) {
+		HashMap<String, String> files = new HashMap<String, String>();
+		for (int i = 0; i < count; i++)
+			files.put("dir" + (i % 64) + "/file" + i + ".txt",
+					".gitlet/objects/" + Integer.toHexString(i * 31 + 7) + "/file" + i + ".txt");
+		return files;
+	}
+
+	/**
+	 * Returns the head of a line of depth commits on top of from, each with
+	 * the files given.
+	 */
+	static Commit line(Commit from, int depth, String name, HashMap<String, String> files) {
+		Commit head = from;
+		long time = from.getTimeStamp() == null ? 0 : from.getTimeStamp();
+		for (int i = 0; i < depth; i++)
+			head = new Commit(head, time + i + 1, name + " " + i, files);
+		return head;
+	}
+}
@@ -0,0 +1,456 @@
+package gitlet.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gitlet.BufferedOutputSink;
+import gitlet.FileSystemWriter;
+import gitlet.FileWriterFactory;
+import gitlet.Gitlet;
+import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.Staging;
+import gitlet.commands.MergeCommand;
+
+/**
+ * Times whole gitlet commands, run through Gitlet.run the way main runs
+ * them, against repositories made by RepoGenerator. For every scenario it
+ * reports the p50 and p99 latency and the bytes read and written per
+ * command, and it can compare them with a stored baseline and fail when
+ * one is worse by more than a threshold.
+ *
+ * Commands run in this JVM, each with a new FileSystemWriter, so nothing
+ * is cached between them as nothing would be between processes, but JVM
+ * startup isn't counted. Commands that ask for confirmation are answered
+ * yes.
+ *
+ * Run as java -cp benchmarks.jar gitlet.benchmarks.LatencyBenchmark
+ * [--scenarios init,add,...] [--runs N] [--warmup N] [--add-files N]
+ * [--commits N] [--files N] [--branches N] [--changed FRACTION]
+ * [--baseline FILE] [--save-baseline FILE] [--threshold FRACTION]
+ * [--work DIRECTORY]. It exits with 1 if anything regressed or a command
+ * failed; a scenario with failed commands is left out of a saved baseline.
+ */
+public class LatencyBenchmark {
+
+	public static final String[] SCENARIOS = { "init", "add", "commit", "log", "global-log",
+			"checkout", "merge", "rebase" };
+
+	private static final PrintStream QUIET = new PrintStream(OutputStream.nullOutputStream());
+
+	private final RepoShape shape;
+	private final File work;
+	private int runs = 20;
+	private int warmup = 3;
+	private int addFiles = 10000;
+	private int failures;
+
+	public LatencyBenchmark(RepoShape shape, File work) {
+		this.shape = shape;
+		this.work = work;
+	}
+
+	public void setRuns(int runs) {
+		this.runs = runs;
+	}
+
+	public void setWarmup(int warmup) {
+		this.warmup = warmup;
+	}
+
+	/**
+	 * How many files the add scenario adds, one command each.
+	 */
+	public void setAddFiles(int addFiles) {
+		this.addFiles = addFiles;
+	}
+
+	/**
+	 * Runs a scenario in a directory of its own under the work directory.
+	 * The result only holds the commands that succeeded. Throws an
+	 * IllegalArgumentException if there is no such scenario.
+	 */
+	public ScenarioResult run(String name) throws IOException {
+		Scenario scenario = scenario(name);
+		scenario.root = new File(work, name);
+		scenario.setUp();
+		failures = 0;
+
+		ScenarioResult result = new ScenarioResult(name);
+		int measured = scenario.runs();
+		for (int run = 0; run < warmup + measured; run++) {
+			scenario.before(run);
+			String[] command = scenario.command(run);
+			ProcessIo before = ProcessIo.now();
+			long start = System.nanoTime();
+			boolean succeeded = gitlet(scenario.root, command);
+			long elapsed = System.nanoTime() - start;
+			ProcessIo after = ProcessIo.now();
+			//a failed command usually stopped early, its time says nothing
+			if (run >= warmup) {
+				if (succeeded)
+					result.add(elapsed, before, after);
+				else
+					failures++;
+			}
+			scenario.after(run);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns how many measured commands of the last scenario failed.
+	 */
+	public int getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Runs a command against the repository in root, with the output thrown
+	 * away.
+	 */
+	private static boolean gitlet(File root, String... args) {
+		IFileWriter previousWriter = FileWriterFactory.bind(new FileSystemWriter(root));
+		IOutputSink previousSink = OutputSinkFactory.bind(new BufferedOutputSink());
+		InputStream in = System.in;
+		PrintStream out = System.out;
+		PrintStream err = System.err;
+		System.setIn(new ByteArrayInputStream("yes\n".getBytes(StandardCharsets.UTF_8)));
+		System.setOut(QUIET);
+		System.setErr(QUIET);
+		try {
+			return Gitlet.run(args);
+		} finally {
+			System.setIn(in);
+			System.setOut(out);
+			System.setErr(err);
+			FileWriterFactory.bind(previousWriter);
+			OutputSinkFactory.bind(previousSink);
+		}
+	}
+
+	private static void require(boolean succeeded, String... args) {
+		if (!succeeded)
+			throw new IllegalStateException("Setting up failed: gitlet " + String.join(" ", args));
+	}
+
+	/**
+	 * One command measured over and over, with untimed steps around each run
+	 * to put the repository back.
+	 */
+	private abstract class Scenario {
+		File root;
+
+		void setUp() throws IOException {
+			generate();
+		}
+
+		int runs() {
+			return runs;
+		}
+
+		void before(int run) throws IOException {
+		}
+
+		abstract String[] command(int run);
+
+		void after(int run) throws IOException {
+		}
+
+		void generate() {
+			root.mkdirs();
+			new RepoGenerator(new FileSystemWriter(root), shape).generate();
+		}
+
+		void setUpCommand(String... args) {
+			require(gitlet(root, args), args);
+		}
+
+		String branchHead(String branch) {
+			return new FileSystemWriter(root).getBranchHead(branch);
+		}
+
+		/**
+		 * Undoes a merge or rebase: drops a conflicted merge and moves the
+		 * current branch back to head.
+		 */
+		void resetTo(String head) throws IOException {
+			FileSystemWriter fileWriter = new FileSystemWriter(root);
+			Files.deleteIfExists(new File(root, MergeCommand.MERGE_HEAD).toPath());
+			fileWriter.saveStaging(new Staging());
+			setUpCommand("reset", head);
+		}
+	}
+
+	private Scenario scenario(String name) {
+		switch (name) {
+		case "init":
+			return new Scenario() {
+				File repos;
+
+				@Override
+				void setUp() {
+					repos = root;
+				}
+
+				@Override
+				void before(int run) {
+					root = new File(repos, Integer.toString(run));
+					root.mkdirs();
+				}
+
+				@Override
+				String[] command(int run) {
+					return new String[] { "init" };
+				}
+			};
+		case "add":
+			return new Scenario() {
+				@Override
+				void setUp() throws IOException {
+					generate();
+					for (int i = 0; i < warmup + addFiles; i++) {
+						File file = new File(root, "added/f" + i + ".txt");
+						file.getParentFile().mkdirs();
+						Files.write(file.toPath(), ("added " + i + "\n").getBytes(StandardCharsets.UTF_8));
+					}
+				}
+
+				@Override
+				int runs() {
+					return addFiles;
+				}
+
+				@Override
+				String[] command(int run) {
+					return new String[] { "add", "added/f" + run + ".txt" };
+				}
+			};
+		case "commit":
+			return new Scenario() {
+				String[] paths;
+
+				@Override
+				void setUp() {
+					generate();
+					paths = RepoGenerator.paths(shape.getFiles());
+				}
+
+				@Override
+				void before(int run) throws IOException {
+					//change ten tracked files and stage them
+					for (int i = 0; i < 10; i++) {
+						String path = paths[(run * 10 + i) % paths.length];
+						Files.write(new File(root, path).toPath(),
+								("change " + run + "\n").getBytes(StandardCharsets.UTF_8),
+								StandardOpenOption.APPEND);
+						setUpCommand("add", path);
+					}
+				}
+
+				@Override
+				String[] command(int run) {
+					return new String[] { "commit", "benchmark commit " + run };
+				}
+			};
+		case "log":
+		case "global-log":
+			return new Scenario() {
+				@Override
+				String[] command(int run) {
+					return new String[] { name };
+				}
+			};
+		case "checkout":
+			return new Scenario() {
+				@Override
+				String[] command(int run) {
+					return new String[] { "checkout", run % 2 == 0 ? "branch1" : "master" };
+				}
+			};
+		case "merge":
+			return new Scenario() {
+				String head;
+
+				@Override
+				void before(int run) {
+					head = branchHead("master");
+				}
+
+				@Override
+				String[] command(int run) {
+					return new String[] { "merge", "branch1" };
+				}
+
+				@Override
+				void after(int run) throws IOException {
+					resetTo(head);
+				}
+			};
+		case "rebase":
+			return new Scenario() {
+				String head;
+
+				@Override
+				void setUp() {
+					generate();
+					setUpCommand("checkout", "branch1");
+				}
+
+				@Override
+				void before(int run) {
+					head = branchHead("branch1");
+				}
+
+				@Override
+				String[] command(int run) {
+					return new String[] { "rebase", "master" };
+				}
+
+				@Override
+				void after(int run) throws IOException {
+					resetTo(head);
+				}
+			};
+		default:
+			throw new IllegalArgumentException("Unknown scenario: " + name);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		RepoShape shape = new RepoShape();
+		shape.setCommits(1000);
+		shape.setFiles(2000);
+		shape.setBranches(2);
+		shape.setChangedFraction(0.001);
+		List<String> scenarios = new ArrayList<String>(Arrays.asList(SCENARIOS));
+		File baselineFile = null;
+		File saveBaselineFile = null;
+		double threshold = 0.2;
+		File work = null;
+		Integer runs = null;
+		Integer warmup = null;
+		Integer addFiles = null;
+		if (args.length % 2 != 0)
+			usage();
+
+		try {
+			for (int i = 0; i < args.length; i += 2) {
+				String value = args[i + 1];
+				switch (args[i]) {
+				case "--scenarios":
+					scenarios = Arrays.asList(value.split(","));
+					break;
+				case "--commits":
+					shape.setCommits(Integer.parseInt(value));
+					break;
+				case "--files":
+					shape.setFiles(Integer.parseInt(value));
+					break;
+				case "--branches":
+					shape.setBranches(Integer.parseInt(value));
+					break;
+				case "--changed":
+					shape.setChangedFraction(Double.parseDouble(value));
+					break;
+				case "--seed":
+					shape.setSeed(Long.parseLong(value));
+					break;
+				case "--baseline":
+					baselineFile = new File(value);
+					break;
+				case "--save-baseline":
+					saveBaselineFile = new File(value);
+					break;
+				case "--threshold":
+					threshold = Double.parseDouble(value);
+					break;
+				case "--work":
+					work = new File(value);
+					break;
+				case "--runs":
+					runs = Integer.parseInt(value);
+					break;
+				case "--warmup":
+					warmup = Integer.parseInt(value);
+					break;
+				case "--add-files":
+					addFiles = Integer.parseInt(value);
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					usage();
+				}
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("Not a number: " + e.getMessage());
+			usage();
+		}
+		//checkout, merge and rebase need a branch besides master
+		if (shape.getBranches() < 1)
+			shape.setBranches(1);
+		if (work == null)
+			work = Files.createTempDirectory("gitlet-latency").toFile();
+
+		LatencyBenchmark benchmark = new LatencyBenchmark(shape, work);
+		if (runs != null)
+			benchmark.setRuns(runs);
+		if (warmup != null)
+			benchmark.setWarmup(warmup);
+		if (addFiles != null)
+			benchmark.setAddFiles(addFiles);
+
+		Baseline baseline = baselineFile == null ? null : Baseline.load(baselineFile);
+		Baseline measured = new Baseline();
+		List<String> regressions = new ArrayList<String>();
+		List<String> failed = new ArrayList<String>();
+		System.out.println("Repositories: " + shape + ", in " + work);
+		System.out.println(String.format("%-12s %6s %10s %10s %12s %12s %8s", "scenario", "runs",
+				"p50 ms", "p99 ms", "read/run", "written/run", "failed"));
+		for (String name : scenarios) {
+			ScenarioResult result = benchmark.run(name.trim());
+			System.out.println(String.format("%-12s %6d %10.2f %10.2f %12d %12d %8d",
+					result.getScenario(), result.getRuns(), result.percentileMillis(0.50),
+					result.percentileMillis(0.99), result.getReadPerRun(),
+					result.getWrittenPerRun(), benchmark.getFailures()));
+			if (benchmark.getFailures() > 0)
+				failed.add(result.getScenario());
+			else
+				measured.put(result);
+			if (baseline != null)
+				regressions.addAll(baseline.regressions(result, threshold));
+		}
+
+		if (saveBaselineFile != null)
+			measured.save(saveBaselineFile);
+		if (baseline != null) {
+			for (String regression : regressions)
+				System.out.println("Regression: " + regression);
+			System.out.println(regressions.isEmpty() ? "No regressions over "
+					+ Math.round(threshold * 100) + "%." : regressions.size() + " regressions.");
+		}
+		if (!failed.isEmpty())
+			System.out.println("Commands failed in " + String.join(", ", failed)
+					+ (saveBaselineFile == null ? "." : ", left out of the baseline."));
+		System.exit(regressions.isEmpty() && failed.isEmpty() ? 0 : 1);
+	}
+
+	private static void usage() {
+		System.err.println("Usage: LatencyBenchmark [--scenarios " + String.join(",", SCENARIOS)
+				+ "] [--runs N] [--warmup N] [--add-files N] [--commits N] [--files N] "
+				+ "[--branches N] [--changed FRACTION] [--seed N] [--baseline FILE] "
+				+ "[--save-baseline FILE] [--threshold FRACTION] [--work DIRECTORY]");
+		System.exit(2);
+	}
+}
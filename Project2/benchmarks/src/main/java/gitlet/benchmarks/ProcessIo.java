@@ -0,0 +1,56 @@
+package gitlet.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The bytes this process has read and written so far, from /proc/self/io.
+ * These are the rchar and wchar counters, which count every read and write
+ * call whether or not it reached the disk, so a warm page cache doesn't
+ * hide what a command asked for.
+ */
+public class ProcessIo {
+
+	private static final Path IO = Paths.get("/proc/self/io");
+
+	private final long read;
+	private final long written;
+
+	private ProcessIo(long read, long written) {
+		this.read = read;
+		this.written = written;
+	}
+
+	/**
+	 * Returns the counters now, or null where /proc/self/io can't be read,
+	 * as on anything but Linux.
+	 */
+	public static ProcessIo now() {
+		if (!Files.isReadable(IO))
+			return null;
+		long read = -1;
+		long written = -1;
+		try {
+			for (String line : new String(Files.readAllBytes(IO), StandardCharsets.US_ASCII).split("\n")) {
+				if (line.startsWith("rchar:"))
+					read = Long.parseLong(line.substring(6).trim());
+				else if (line.startsWith("wchar:"))
+					written = Long.parseLong(line.substring(6).trim());
+			}
+		} catch (IOException | NumberFormatException e) {
+			return null;
+		}
+		return read < 0 || written < 0 ? null : new ProcessIo(read, written);
+	}
+
+	public long getRead() {
+		return read;
+	}
+
+	public long getWritten() {
+		return written;
+	}
+}
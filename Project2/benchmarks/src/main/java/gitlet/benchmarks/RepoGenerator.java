@@ -0,0 +1,202 @@
+package gitlet.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import gitlet.Commit;
+import gitlet.Durability;
+import gitlet.FileMap;
+import gitlet.FileSystemWriter;
+import gitlet.IFileWriter;
+import gitlet.Staging;
+
+/**
+ * Builds repositories of a given shape for scale testing, writing commits,
+ * objects and refs straight through an IFileWriter instead of running a
+ * command per file and per commit. The result is what init, add and commit
+ * would have made: master is checked out and its files are in the working
+ * directory, unchanged.
+ *
+ * Every commit is kept in memory while generating, since a commit's id
+ * depends on its parent. Commits share the files they didn't change, so
+ * memory grows with the files plus the changes.
+ *
+ * Run as java -cp benchmarks.jar gitlet.benchmarks.RepoGenerator DIRECTORY
+ * [--commits N] [--files N] [--branches N] [--min-size BYTES]
+ * [--max-size BYTES] [--changed FRACTION] [--seed N].
+ */
+public class RepoGenerator {
+
+	//fixed so the same shape always gives the same ids
+	private static final long FIRST_TIMESTAMP = 1400000000000L;
+
+	private final IFileWriter fileWriter;
+	private final RepoShape shape;
+
+	public RepoGenerator(IFileWriter fileWriter, RepoShape shape) {
+		this.fileWriter = fileWriter;
+		this.shape = shape;
+	}
+
+	/**
+	 * Generates the repository and returns the head of each branch, master
+	 * first. Throws an IllegalStateException if there is a repository
+	 * already.
+	 */
+	public Map<String, String> generate() {
+		if (fileWriter.exists(".gitlet"))
+			throw new IllegalStateException("A gitlet version control system already exists");
+		Random random = new Random(shape.getSeed());
+		String[] paths = paths(shape.getFiles());
+
+		fileWriter.createDirectory(".gitlet/objects");
+		fileWriter.createDirectory(".gitlet/refs/heads");
+		long time = FIRST_TIMESTAMP;
+		Commit initial = new Commit(null, time, "initial commit", null);
+		fileWriter.saveCommit(initial);
+
+		//the first commit adds every file
+		Map<String, Commit> heads = new LinkedHashMap<String, Commit>();
+		heads.put("master", commit(initial, ++time, "add " + paths.length + " files",
+				FileMap.EMPTY, paths));
+
+		List<String> branches = new ArrayList<String>();
+		branches.add("master");
+		int changes = Math.max(1, (int) Math.round(shape.getChangedFraction() * paths.length));
+		int forkEvery = shape.getCommits() / (shape.getBranches() + 1);
+		for (int i = 1; i < shape.getCommits(); i++) {
+			//the next branch forks off master's head at evenly spaced points
+			if (branches.size() <= shape.getBranches() && i >= forkEvery * branches.size()) {
+				String branch = "branch" + branches.size();
+				heads.put(branch, heads.get("master"));
+				branches.add(branch);
+			}
+			String branch = branches.get(i % branches.size());
+			Commit parent = heads.get(branch);
+			String[] changed = new String[changes];
+			for (int j = 0; j < changes; j++)
+				changed[j] = paths[random.nextInt(paths.length)];
+			heads.put(branch, commit(parent, ++time, branch + " commit " + i,
+					parent.getFilePointers(), changed));
+		}
+
+		Map<String, String> ids = new LinkedHashMap<String, String>();
+		for (Map.Entry<String, Commit> head : heads.entrySet()) {
+			fileWriter.createFile(".gitlet/refs/heads/" + head.getKey(), head.getValue().getId());
+			ids.put(head.getKey(), head.getValue().getId());
+		}
+		fileWriter.createFile(".gitlet/HEAD", "ref: .gitlet/refs/heads/master");
+		fileWriter.saveStaging(new Staging());
+
+		//check out master the way checkout does, keeping the objects' times
+		for (Map.Entry<String, String> file : heads.get("master").getFilePointers().entrySet())
+			fileWriter.copyFile(".gitlet/objects/" + file.getValue() + "/" + file.getKey(),
+					file.getKey());
+		fileWriter.sync();
+		return ids;
+	}
+
+	/**
+	 * Saves a commit on parent that writes new content for the changed
+	 * paths, on top of the file pointers given.
+	 */
+	private Commit commit(Commit parent, long time, String message,
+			Map<String, String> filePointers, String[] changed) {
+		Commit commit = new Commit(parent, time, message, filePointers);
+		String id = commit.getId();
+		FileMap files = commit.getFilePointers();
+		for (String path : changed) {
+			files = files.with(path, id);
+			fileWriter.createFile(".gitlet/objects/" + id + "/" + path, content(path, id));
+		}
+		commit = commit.withFilePointers(files);
+		fileWriter.saveCommit(commit);
+		return commit;
+	}
+
+	/**
+	 * Returns the content of path as committed by the commit with the given
+	 * id, which only depends on those and the seed.
+	 */
+	private String content(String path, String id) {
+		Random random = new Random(shape.getSeed() ^ path.hashCode() * 31L ^ id.hashCode());
+		int size = size(random);
+		String line = path + " " + id + "\n";
+		StringBuilder content = new StringBuilder(size);
+		while (content.length() + line.length() <= size)
+			content.append(line);
+		while (content.length() < size)
+			content.append((char) ('a' + random.nextInt(26)));
+		return content.toString();
+	}
+
+	private int size(Random random) {
+		int min = Math.max(1, shape.getMinFileSize());
+		int max = Math.max(min, shape.getMaxFileSize());
+		double exponent = Math.log(min) + random.nextDouble() * (Math.log(max) - Math.log(min));
+		return (int) Math.min(max, Math.round(Math.exp(exponent)));
+	}
+
+	/**
+	 * Returns count paths spread over directories of at most 256 files.
+	 */
+	static String[] paths(int count) {
+		String[] paths = new String[count];
+		for (int i = 0; i < count; i++)
+			paths[i] = "src/d" + (i / 256) + "/f" + i + ".txt";
+		return paths;
+	}
+
+	public static void main(String[] args) {
+		if (args.length == 0 || args.length % 2 == 0) {
+			System.err.println("Usage: RepoGenerator DIRECTORY [--commits N] [--files N] "
+					+ "[--branches N] [--min-size BYTES] [--max-size BYTES] "
+					+ "[--changed FRACTION] [--seed N]");
+			System.exit(1);
+		}
+		RepoShape shape = new RepoShape();
+		for (int i = 1; i < args.length; i += 2) {
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--commits":
+				shape.setCommits(Integer.parseInt(value));
+				break;
+			case "--files":
+				shape.setFiles(Integer.parseInt(value));
+				break;
+			case "--branches":
+				shape.setBranches(Integer.parseInt(value));
+				break;
+			case "--min-size":
+				shape.setMinFileSize(Integer.parseInt(value));
+				break;
+			case "--max-size":
+				shape.setMaxFileSize(Integer.parseInt(value));
+				break;
+			case "--changed":
+				shape.setChangedFraction(Double.parseDouble(value));
+				break;
+			case "--seed":
+				shape.setSeed(Long.parseLong(value));
+				break;
+			default:
+				System.err.println("Unknown option: " + args[i]);
+				System.exit(1);
+			}
+		}
+
+		File root = new File(args[0]);
+		root.mkdirs();
+		long start = System.nanoTime();
+		Map<String, String> heads = new RepoGenerator(
+				new FileSystemWriter(root, Durability.NONE), shape).generate();
+		System.out.println("Generated " + shape + " in "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+		for (Map.Entry<String, String> head : heads.entrySet())
+			System.out.println(head.getKey() + " " + head.getValue());
+	}
+}
@@ -0,0 +1,100 @@
+package gitlet.benchmarks;
+
+/**
+ * What a generated repository looks like. The defaults make a small
+ * repository; the setters take it to any scale.
+ */
+public class RepoShape {
+
+	private int commits = 100;
+	private int files = 1000;
+	private int branches = 0;
+	private int minFileSize = 64;
+	private int maxFileSize = 4096;
+	private double changedFraction = 0.01;
+	private long seed = 42;
+
+	/**
+	 * The number of commits made after the initial one, over all branches.
+	 */
+	public int getCommits() {
+		return commits;
+	}
+
+	public void setCommits(int commits) {
+		this.commits = commits;
+	}
+
+	/**
+	 * The number of tracked files, all added by the first commit.
+	 */
+	public int getFiles() {
+		return files;
+	}
+
+	public void setFiles(int files) {
+		this.files = files;
+	}
+
+	/**
+	 * The number of branches besides master. They fork off master at evenly
+	 * spaced points and take turns with it for the commits made after that.
+	 */
+	public int getBranches() {
+		return branches;
+	}
+
+	public void setBranches(int branches) {
+		this.branches = branches;
+	}
+
+	/**
+	 * File sizes are spread log-uniformly between the smallest and the
+	 * largest, so most files are small and a few are big.
+	 */
+	public int getMinFileSize() {
+		return minFileSize;
+	}
+
+	public void setMinFileSize(int minFileSize) {
+		this.minFileSize = minFileSize;
+	}
+
+	public int getMaxFileSize() {
+		return maxFileSize;
+	}
+
+	public void setMaxFileSize(int maxFileSize) {
+		this.maxFileSize = maxFileSize;
+	}
+
+	/**
+	 * The fraction of the tracked files each commit changes; every commit
+	 * changes at least one.
+	 */
+	public double getChangedFraction() {
+		return changedFraction;
+	}
+
+	public void setChangedFraction(double changedFraction) {
+		this.changedFraction = changedFraction;
+	}
+
+	/**
+	 * The same shape and seed always give the same repository, commit ids
+	 * included.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	@Override
+	public String toString() {
+		return commits + " commits, " + files + " files, " + branches + " branches, "
+				+ minFileSize + "-" + maxFileSize + " bytes, " + changedFraction + " changed";
+	}
+}
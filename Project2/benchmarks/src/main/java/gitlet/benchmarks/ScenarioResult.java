@@ -0,0 +1,88 @@
+package gitlet.benchmarks;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The measurements of every run of one scenario: how long each command took
+ * and how many bytes it read and wrote.
+ */
+public class ScenarioResult {
+
+	private final String scenario;
+	private long[] nanos = new long[16];
+	private long read;
+	private long written;
+	private boolean ioMeasured = true;
+	private int runs;
+
+	public ScenarioResult(String scenario) {
+		this.scenario = scenario;
+	}
+
+	/**
+	 * Records one run. before and after are the I/O counters around it,
+	 * null if they couldn't be read.
+	 */
+	public void add(long elapsedNanos, ProcessIo before, ProcessIo after) {
+		if (runs == nanos.length)
+			nanos = Arrays.copyOf(nanos, runs * 2);
+		nanos[runs++] = elapsedNanos;
+		if (before == null || after == null) {
+			ioMeasured = false;
+			return;
+		}
+		read += after.getRead() - before.getRead();
+		written += after.getWritten() - before.getWritten();
+	}
+
+	public String getScenario() {
+		return scenario;
+	}
+
+	public int getRuns() {
+		return runs;
+	}
+
+	/**
+	 * Returns the latency below which the given fraction of the runs fall,
+	 * in milliseconds, by the nearest-rank method.
+	 */
+	public double percentileMillis(double fraction) {
+		if (runs == 0)
+			return 0;
+		long[] sorted = Arrays.copyOf(nanos, runs);
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(fraction * runs);
+		return sorted[Math.max(0, Math.min(runs, rank) - 1)] / 1e6;
+	}
+
+	/**
+	 * Returns the bytes read per run, or -1 if they weren't measured.
+	 */
+	public long getReadPerRun() {
+		return ioMeasured && runs > 0 ? read / runs : -1;
+	}
+
+	public long getWrittenPerRun() {
+		return ioMeasured && runs > 0 ? written / runs : -1;
+	}
+
+	/**
+	 * Returns the metrics by name, the way they are kept in a baseline:
+	 * SCENARIO.p50 and SCENARIO.p99 in milliseconds, SCENARIO.read and
+	 * SCENARIO.written in bytes per run. Bytes that weren't measured are
+	 * left out.
+	 */
+	public Map<String, Double> getMetrics() {
+		Map<String, Double> metrics = new LinkedHashMap<String, Double>();
+		metrics.put(scenario + ".p50", percentileMillis(0.50));
+		metrics.put(scenario + ".p99", percentileMillis(0.99));
+		if (ioMeasured) {
+			metrics.put(scenario + ".read", (double) getReadPerRun());
+			metrics.put(scenario + ".written", (double) getWrittenPerRun());
+		}
+		return metrics;
+	}
+}
@@ -0,0 +1,53 @@
+package gitlet.benchmarks;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gitlet.Commit;
+
+/**
+ * Finding the split point of two branches that share history commits and
+ * then diverge by diverged commits each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitPointBenchmark {
+
+	@Param({ "10", "1000" })
+	public int history;
+
+	@Param({ "1", "100", "1000" })
+	public int diverged;
+
+	private Commit master;
+	private Commit branch;
+
+	@Setup
+	public void setUp() {
+		HashMap<String, String> files = Histories.files(10);
+		Commit split = Histories.line(new Commit(), history, "shared", files);
+		master = Histories.line(split, diverged, "master", files);
+		branch = Histories.line(split, diverged, "branch", files);
+	}
+
+	@Benchmark
+	public String findSplitPoint() {
+		return master.findSplitPoint(branch);
+	}
+}
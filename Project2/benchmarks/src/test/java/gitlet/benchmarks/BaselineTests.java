@@ -0,0 +1,68 @@
+package gitlet.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BaselineTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ScenarioResult result(double... millis) {
+		ScenarioResult result = new ScenarioResult("log");
+		for (double m : millis)
+			result.add((long) (m * 1000000), null, null);
+		return result;
+	}
+
+	@Test
+	public void percentileMillis_usesNearestRank() {
+		//Arrange
+		ScenarioResult sut = result(5, 1, 4, 2, 3, 6, 7, 8, 9, 100);
+
+		//Assert
+		assertEquals(5.0, sut.percentileMillis(0.50), 0.0);
+		assertEquals(100.0, sut.percentileMillis(0.99), 0.0);
+		assertEquals(-1, sut.getReadPerRun());
+	}
+
+	@Test
+	public void regressions_reportsMetricsOverTheThreshold() throws IOException {
+		//Arrange
+		Baseline stored = new Baseline();
+		stored.put(result(10, 10, 10));
+		File file = folder.newFile("baseline.properties");
+		stored.save(file);
+		Baseline sut = Baseline.load(file);
+
+		//Act
+		List<String> within = sut.regressions(result(11, 11, 11), 0.2);
+		List<String> over = sut.regressions(result(20, 20, 20), 0.2);
+
+		//Assert
+		assertTrue(within.isEmpty());
+		assertEquals(2, over.size());
+		assertTrue(over.get(0), over.get(0).startsWith("log.p50: 20.00, baseline 10.00"));
+	}
+
+	@Test
+	public void regressions_ignoresSubMillisecondNoise() {
+		//Arrange
+		Baseline sut = new Baseline();
+		sut.put(result(1, 1, 1));
+
+		//Act
+		List<String> regressions = sut.regressions(result(1.5, 1.5, 1.5), 0.2);
+
+		//Assert
+		assertTrue(regressions.isEmpty());
+	}
+}
@@ -0,0 +1,108 @@
+package gitlet.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gitlet.BufferedOutputSink;
+import gitlet.CommandResult;
+import gitlet.Commit;
+import gitlet.Durability;
+import gitlet.FileSystemWriter;
+import gitlet.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RepoGeneratorTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private RepoShape shape() {
+		RepoShape shape = new RepoShape();
+		shape.setCommits(30);
+		shape.setFiles(50);
+		shape.setBranches(2);
+		shape.setChangedFraction(0.1);
+		return shape;
+	}
+
+	private Map<String, String> generate(File root) {
+		return new RepoGenerator(new FileSystemWriter(root, Durability.NONE), shape()).generate();
+	}
+
+	@Test
+	public void generate_makesTheShapeAsked() throws IOException {
+		//Arrange
+		File root = folder.newFolder("repo");
+
+		//Act
+		Map<String, String> heads = generate(root);
+
+		//Assert
+		Repository repo = Repository.open(root, new BufferedOutputSink());
+		assertEquals(Arrays.asList("branch1", "branch2", "master"), repo.getBranches());
+		assertEquals("master", repo.getCurrentBranch());
+		assertEquals(heads.get("master"), repo.getHead());
+		Commit head = repo.getCommit(repo.getHead());
+		assertEquals(50, head.getFilePointers().size());
+		int commits = 0;
+		for (String branch : heads.keySet())
+			for (Commit commit = repo.getCommit(heads.get(branch)); commit != null; commit = commit.getParent())
+				commits++;
+		assertTrue("every branch reaches the initial commit", commits > 30);
+		assertEquals("30 commits on top of the initial one", 31, repo.getCommitIds().size());
+	}
+
+	@Test
+	public void generate_checksOutMaster() throws IOException {
+		//Arrange
+		File root = folder.newFolder("repo");
+
+		//Act
+		generate(root);
+
+		//Assert
+		Repository repo = Repository.open(root, new BufferedOutputSink());
+		Commit head = repo.getCommit(repo.getHead());
+		for (String file : RepoGenerator.paths(50)) {
+			File object = new File(root, ".gitlet/objects/" + head.getFilePointers().get(file) + "/" + file);
+			File working = new File(root, file);
+			assertEquals(repo.readFile(head.getId(), file),
+					new String(Files.readAllBytes(working.toPath()), StandardCharsets.UTF_8));
+			assertEquals("add sees it unchanged", object.lastModified(), working.lastModified());
+		}
+	}
+
+	@Test
+	public void generate_isRepeatable() throws IOException {
+		//Act
+		Map<String, String> first = generate(folder.newFolder("first"));
+		Map<String, String> second = generate(folder.newFolder("second"));
+
+		//Assert
+		assertEquals(first, second);
+	}
+
+	@Test
+	public void generate_commitsOnBranchesCanBeMerged() throws IOException {
+		//Arrange
+		File root = folder.newFolder("repo");
+		generate(root);
+		Repository repo = Repository.open(root, new BufferedOutputSink());
+
+		//Act
+		CommandResult result = repo.merge("branch2");
+
+		//Assert
+		assertTrue(result.isSucceeded());
+		assertEquals(50, repo.getCommit(repo.getHead()).getFilePointers().size());
+	}
+}
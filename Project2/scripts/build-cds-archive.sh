@@ -0,0 +1,48 @@
+#!/bin/sh
+# Builds an AppCDS archive of the classes a gitlet run loads, so later JVMs
+# map them from the archive instead of loading and verifying them again.
+# CDS only archives classes from jars, so the classes are packaged into
+# gitlet.jar first. scripts/gitlet uses both when they exist; rerun this
+# whenever the classes change.
+#   GITLET_CP   the compiled classes, bin/ by default
+#   GITLET_JAR  the jar to write, gitlet.jar by default
+#   GITLET_CDS  the archive to write, gitlet.jsa by default
+set -e
+HERE=$(cd "$(dirname "$0")" && pwd)
+CP=$(cd "${GITLET_CP:-$HERE/../bin}" && pwd)
+JAR="${GITLET_JAR:-$HERE/../gitlet.jar}"
+ARCHIVE="${GITLET_CDS:-$HERE/../gitlet.jsa}"
+
+jar cf "$JAR" -C "$CP" gitlet
+JAR=$(cd "$(dirname "$JAR")" && pwd)/$(basename "$JAR")
+
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+cd "$WORK"
+java -cp "$JAR" gitlet.Gitlet init > /dev/null
+echo hi > foo
+echo yo > bar
+
+# the archive holds the classes loaded by one JVM, so the training run goes
+# through the client and a batch that uses the common commands
+cat > commands <<'COMMANDS'
+add foo
+add bar
+commit "first"
+status
+log
+global-log
+find first
+branch dev
+checkout dev
+rm bar
+commit "remove bar"
+checkout master
+merge dev
+log -- foo
+reset dev
+rm-branch dev
+status
+COMMANDS
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$JAR" gitlet.daemon.DaemonClient batch commands > /dev/null
+echo "Wrote $JAR and $ARCHIVE"
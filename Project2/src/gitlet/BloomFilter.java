@@ -0,0 +1,70 @@
+package gitlet;
+
+import java.io.Serializable;
+
+/**
+ * A fixed size Bloom filter over strings. The hash is computed from the
+ * characters of the value (FNV-1a), so filters written to disk stay valid
+ * between runs.
+ */
+@SuppressWarnings("serial")
+public class BloomFilter implements Serializable {
+
+	private static final int BITS_PER_ENTRY = 10;
+	private static final int NUM_HASHES = 7;
+
+	private final long[] bits;
+	private final int numHashes;
+
+	public BloomFilter(int expectedEntries) {
+		int numBits = Math.max(64, expectedEntries * BITS_PER_ENTRY);
+		this.bits = new long[(numBits + 63) / 64];
+		this.numHashes = NUM_HASHES;
+	}
+
+	public BloomFilter(long[] bits, int numHashes) {
+		this.bits = bits;
+		this.numHashes = numHashes;
+	}
+
+	public void add(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		long numBits = (long) bits.length * 64;
+		for (int i = 0; i < numHashes; i++) {
+			long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % numBits;
+			bits[(int) (bit >>> 6)] |= 1L << (bit & 63);
+		}
+	}
+
+	public boolean mightContain(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		long numBits = (long) bits.length * 64;
+		for (int i = 0; i < numHashes; i++) {
+			long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % numBits;
+			if ((bits[(int) (bit >>> 6)] & (1L << (bit & 63))) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	public long[] getBits() {
+		return bits;
+	}
+
+	public int getNumHashes() {
+		return numHashes;
+	}
+
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,66 @@
+package gitlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Keeps everything printed in memory, for callers that run commands in
+ * process and want the messages as text. Nobody is there to answer, so
+ * there is never anything to read.
+ */
+public class BufferedOutputSink implements IOutputSink {
+
+	private final ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+	private final PrintStream out;
+	private final PrintStream err;
+
+	public BufferedOutputSink() {
+		try {
+			out = new PrintStream(outBytes, true, "UTF-8");
+			err = new PrintStream(errBytes, true, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public PrintStream getOut() {
+		return out;
+	}
+
+	@Override
+	public PrintStream getErr() {
+		return err;
+	}
+
+	@Override
+	public String readLine() {
+		return null;
+	}
+
+	public String getOutText() {
+		return text(outBytes);
+	}
+
+	public String getErrText() {
+		return text(errBytes);
+	}
+
+	/**
+	 * Forgets everything printed so far.
+	 */
+	public void clear() {
+		outBytes.reset();
+		errBytes.reset();
+	}
+
+	private static String text(ByteArrayOutputStream bytes) {
+		try {
+			return bytes.toString("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
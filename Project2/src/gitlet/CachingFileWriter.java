@@ -0,0 +1,527 @@
+package gitlet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps commits, refs, the staging area and the commit graph in memory
+ * between commands, for a process that runs many commands against the same
+ * repository. Commits never change once written, so they are cached by id.
+ * Everything else is cached together with the file's modification time and
+ * size, and is read again when another process changed the file.
+ *
+ * The caches can be used from several threads; keeping commands on the same
+ * repository from interleaving is up to the caller.
+ *
+ * Readers that must not see a command half done use getSnapshot. The
+ * snapshot is published when a writer releases the repository lock, and
+ * while a writer holds it readers get the snapshot from before it started,
+ * so they never wait for the lock. A lock that stays around for longer than
+ * any command runs is taken as left behind and stops holding readers back.
+ */
+public class CachingFileWriter implements IFileWriter {
+
+	public static final int MAX_COMMITS = 4096;
+
+	private static final String HEAD = ".gitlet/HEAD";
+	private static final String STAGING = ".gitlet/objects/staging";
+	private static final String COMMIT_GRAPH = ".gitlet/commit-graph";
+	private static final String REFS = ".gitlet/refs/heads/";
+	private static final String REPOSITORY_LOCK = ".gitlet/repository.lock";
+	private static final long STALE_LOCK_MILLIS = 10 * 60 * 1000;
+	private static final int MAX_SNAPSHOT_READS = 3;
+	private static final Logger fLogger = Logger.getLogger(Commit.class
+			.getPackage().getName());
+
+	private final IFileWriter delegate;
+	private final Map<String, Commit> commits;
+	private final Map<String, Stamped<String>> texts;
+	private volatile Stamped<Staging> staging;
+	private volatile Stamped<CommitGraph> commitGraph;
+	private final AtomicReference<Stamped<Snapshot>> snapshot = new AtomicReference<Stamped<Snapshot>>();
+	private final AtomicLong versions = new AtomicLong();
+	//odd while a writer in this process holds the repository lock
+	private final AtomicLong writes = new AtomicLong();
+	private int lockDepth;
+	//the stale repository lock reported last
+	private volatile Stamp staleLock;
+
+	public CachingFileWriter(IFileWriter delegate) {
+		this.delegate = delegate;
+		this.commits = Collections.synchronizedMap(new LinkedHashMap<String, Commit>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Commit> eldest) {
+				return size() > MAX_COMMITS;
+			}
+		});
+		this.texts = new ConcurrentHashMap<String, Stamped<String>>();
+	}
+
+	public IFileWriter getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Drops everything cached, the next reads go to the delegate.
+	 */
+	public void clear() {
+		commits.clear();
+		texts.clear();
+		staging = null;
+		commitGraph = null;
+	}
+
+	@Override
+	public Commit recoverCommit(String id) {
+		Commit commit = commits.get(id);
+		if (commit != null) {
+			PerfStats.count(PerfStats.Counter.CACHE_HITS, 1);
+			return commit;
+		}
+
+		PerfStats.count(PerfStats.Counter.CACHE_MISSES, 1);
+		commit = delegate.recoverCommit(id);
+		if (commit != null)
+			cacheWithAncestors(commit);
+		return commit;
+	}
+
+	/**
+	 * Recovering a commit reads its whole history, keep the ancestors too so
+	 * a later lookup of one of them is a hit.
+	 */
+	private void cacheWithAncestors(Commit commit) {
+		List<Commit> pending = new ArrayList<Commit>();
+		pending.add(commit);
+		while (!pending.isEmpty() && commits.size() < MAX_COMMITS) {
+			Commit next = pending.remove(pending.size() - 1);
+			if (commits.containsKey(next.getId()))
+				continue;
+			commits.put(next.getId(), next);
+			pending.addAll(next.getParents());
+		}
+	}
+
+	@Override
+	public CommitObject readCommitObject(String id) {
+		//a change set is smaller than the files of a cached commit, so it
+		//is read rather than built from the cache
+		return delegate.readCommitObject(id);
+	}
+
+	@Override
+	public void saveCommit(Commit commit) {
+		delegate.saveCommit(commit);
+		commits.put(commit.getId(), commit);
+		commitGraph = null;
+	}
+
+	@Override
+	public CommitGraph recoverCommitGraph() {
+		Stamp stamp = stamp(COMMIT_GRAPH);
+		if (commitGraph != null && commitGraph.matches(stamp)) {
+			PerfStats.count(PerfStats.Counter.CACHE_HITS, 1);
+			return commitGraph.value;
+		}
+
+		PerfStats.count(PerfStats.Counter.CACHE_MISSES, 1);
+		CommitGraph graph = delegate.recoverCommitGraph();
+		commitGraph = stamp == null ? null : new Stamped<CommitGraph>(graph, stamp);
+		return graph;
+	}
+
+	@Override
+	public Staging recoverStaging() {
+		Stamp stamp = stamp(STAGING);
+		PerfStats.count(staging == null || !staging.matches(stamp) ? PerfStats.Counter.CACHE_MISSES
+				: PerfStats.Counter.CACHE_HITS, 1);
+		if (staging == null || !staging.matches(stamp)) {
+			Staging recovered = delegate.recoverStaging();
+			if (recovered == null || stamp == null)
+				return recovered;
+			staging = new Stamped<Staging>(recovered, stamp);
+		}
+
+		//commands change the staging area they recovered, hand out a copy
+		return copy(staging.value);
+	}
+
+	private static Staging copy(Staging staging) {
+		Staging copy = new Staging();
+		copy.setFilesToAdd(new ArrayList<String>(staging.getFilesToAdd()));
+		copy.setFilesToRm(new ArrayList<String>(staging.getFilesToRm()));
+		return copy;
+	}
+
+	@Override
+	public void saveStaging(Staging staging) {
+		delegate.saveStaging(staging);
+		//keep what was written, so the next command doesn't read it back
+		Stamp stamp = stamp(STAGING);
+		this.staging = stamp == null ? null : new Stamped<Staging>(copy(staging), stamp);
+	}
+
+	@Override
+	public byte[] readBytes(String fileName) {
+		return delegate.readBytes(fileName);
+	}
+
+	@Override
+	public String readFile(String fileName) {
+		Stamp stamp = stamp(fileName);
+		Stamped<String> cached = texts.get(fileName);
+		if (cached != null && cached.matches(stamp)) {
+			PerfStats.count(PerfStats.Counter.CACHE_HITS, 1);
+			return cached.value;
+		}
+
+		PerfStats.count(PerfStats.Counter.CACHE_MISSES, 1);
+		String text = delegate.readFile(fileName);
+		if (stamp != null)
+			texts.put(fileName, new Stamped<String>(text, stamp));
+		else
+			texts.remove(fileName);
+		return text;
+	}
+
+	@Override
+	public String getCurrentBranchRef() {
+		return readFile(HEAD).replace("ref: ", "");
+	}
+
+	@Override
+	public String getCurrentHeadPointer() {
+		return readFile(getCurrentBranchRef());
+	}
+
+	@Override
+	public String getBranchHead(String branch) {
+		return readFile(".gitlet/refs/heads/" + branch);
+	}
+
+	@Override
+	public String getCurrentBranch() {
+		return getCurrentBranchRef().replace(".gitlet/refs/heads/", "");
+	}
+
+	@Override
+	public void createFile(String fileName, String fileText) {
+		delegate.createFile(fileName, fileText);
+		Stamp stamp = stamp(fileName);
+		if (stamp != null)
+			texts.put(fileName, new Stamped<String>(fileText, stamp));
+		else
+			texts.remove(fileName);
+	}
+
+	@Override
+	public void makeBranchHead(String branch) {
+		delegate.makeBranchHead(branch);
+		texts.remove(HEAD);
+	}
+
+	@Override
+	public void deleteBranch(String branch) {
+		delegate.deleteBranch(branch);
+		texts.remove(".gitlet/refs/heads/" + branch);
+	}
+
+	@Override
+	public void deleteFile(String name) {
+		delegate.deleteFile(name);
+		texts.remove(name);
+	}
+
+	@Override
+	public void copyFile(String filePath, String destPath) {
+		delegate.copyFile(filePath, destPath);
+		texts.remove(destPath);
+	}
+
+	@Override
+	public void createDirectory(String dirName) {
+		delegate.createDirectory(dirName);
+	}
+
+	@Override
+	public boolean exists(String name) {
+		return delegate.exists(name);
+	}
+
+	@Override
+	public boolean canWrite(String name) {
+		return delegate.canWrite(name);
+	}
+
+	@Override
+	public boolean isDirectory(String name) {
+		return delegate.isDirectory(name);
+	}
+
+	@Override
+	public TimeIndex recoverTimeIndex(String branch) {
+		return delegate.recoverTimeIndex(branch);
+	}
+
+	@Override
+	public synchronized void lockRepository() {
+		delegate.lockRepository();
+		if (lockDepth++ == 0) {
+			//readers use this one until the writer is done
+			Stamped<Snapshot> current = snapshot.get();
+			if (current == null || !current.matches(snapshotStamp()))
+				snapshot.set(readSnapshot());
+			writes.incrementAndGet();
+		}
+	}
+
+	@Override
+	public synchronized void unlockRepository() {
+		if (lockDepth == 0)
+			return;
+		try {
+			if (--lockDepth == 0) {
+				snapshot.set(readSnapshot());
+				writes.incrementAndGet();
+			}
+		} finally {
+			delegate.unlockRepository();
+		}
+	}
+
+	/**
+	 * Returns the refs and staging area as of the last completed write, or
+	 * null if there is no repository. Never waits for a writer.
+	 */
+	public Snapshot getSnapshot() {
+		for (int attempt = 1; ; attempt++) {
+			long before = writes.get();
+			Stamped<Snapshot> current = snapshot.get();
+			if (current != null) {
+				//a writer in this process or another one is in the middle of
+				//a command, what is on disk may be half of it
+				if ((before & 1) != 0 || isLocked())
+					return current.value;
+				if (current.matches(snapshotStamp()))
+					return current.value;
+			}
+			if (!delegate.isDirectory(".gitlet"))
+				return null;
+
+			//like a seqlock, the read only counts if no writer took the lock
+			//meanwhile and nothing it read changed under it
+			Stamped<Snapshot> read = readSnapshot();
+			if (writes.get() == before && !isLocked() && read.matches(snapshotStamp())) {
+				snapshot.compareAndSet(current, read);
+				return read.value;
+			}
+			if (current != null)
+				return current.value;
+			//nothing complete to fall back to yet
+			if (attempt == MAX_SNAPSHOT_READS)
+				return read.value;
+		}
+	}
+
+	/**
+	 * Returns true if another writer holds the repository lock. A lock older
+	 * than the gitlet.staleLock setting, in milliseconds, was most likely
+	 * left by a writer that was killed; it is reported once and ignored, so
+	 * readers don't stay on the snapshot from before it for good.
+	 */
+	private boolean isLocked() {
+		if (!delegate.exists(REPOSITORY_LOCK))
+			return false;
+		Stamp lock = stamp(REPOSITORY_LOCK);
+		if (lock == null || lock.modified == null)
+			return true;
+		long age = System.currentTimeMillis() - lock.modified.toMillis();
+		if (age < Long.getLong("gitlet.staleLock", STALE_LOCK_MILLIS))
+			return true;
+		if (!lock.sameAs(staleLock)) {
+			staleLock = lock;
+			fLogger.log(Level.WARNING, REPOSITORY_LOCK + " was taken " + age / 1000
+					+ " s ago and looks stale; reading the repository as it is. "
+					+ "If no gitlet process is running, remove the file.");
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the refs and staging area. The stamp is taken first, so a change
+	 * made while reading shows up as a stale snapshot.
+	 */
+	private Stamped<Snapshot> readSnapshot() {
+		Stamp stamp = snapshotStamp();
+		String currentBranch = delegate.getCurrentBranch();
+		Map<String, String> heads = new HashMap<String, String>();
+		for (String branch : branches())
+			heads.put(branch, delegate.getBranchHead(branch));
+		Staging recovered = delegate.exists(STAGING) ? delegate.recoverStaging() : null;
+		return new Stamped<Snapshot>(new Snapshot(versions.incrementAndGet(), currentBranch,
+				heads, recovered), stamp);
+	}
+
+	private String[] branches() {
+		String[] branches = delegate.getAllBranches();
+		if (branches == null)
+			return new String[0];
+		Arrays.sort(branches);
+		return branches;
+	}
+
+	/**
+	 * Combines the stamps of HEAD, the staging area and every ref.
+	 */
+	private Stamp snapshotStamp() {
+		List<Stamp> parts = new ArrayList<Stamp>();
+		parts.add(stamp(HEAD));
+		parts.add(stamp(STAGING));
+		for (String branch : branches())
+			parts.add(stamp(REFS + branch));
+		return new Stamp(null, parts.size(), parts);
+	}
+
+	@Override
+	public void sync() {
+		delegate.sync();
+	}
+
+	@Override
+	public void beginTransaction() {
+		delegate.beginTransaction();
+	}
+
+	@Override
+	public void commitTransaction() {
+		delegate.commitTransaction();
+	}
+
+	/**
+	 * What the transaction wrote is cached, and the files on disk never
+	 * changed, so the stamps can't tell; forget it all.
+	 */
+	@Override
+	public void abortTransaction() {
+		delegate.abortTransaction();
+		texts.clear();
+		staging = null;
+	}
+
+	@Override
+	public void saveTimeIndex(String branch, TimeIndex index) {
+		delegate.saveTimeIndex(branch, index);
+	}
+
+	@Override
+	public String getWorkingDirectory() {
+		return delegate.getWorkingDirectory();
+	}
+
+	@Override
+	public String[] getAllBranches() {
+		return delegate.getAllBranches();
+	}
+
+	@Override
+	public long lastModified(String name) {
+		return delegate.lastModified(name);
+	}
+
+	@Override
+	public boolean filesEqual(String file1, String file2) {
+		return delegate.filesEqual(file1, file2);
+	}
+
+	@Override
+	public String[] getAllCommitIds() {
+		return delegate.getAllCommitIds();
+	}
+
+	@Override
+	public String[] listFiles(String directory) {
+		return delegate.listFiles(directory);
+	}
+
+	@Override
+	public String[] listFiles(String directory, boolean recursive) {
+		return delegate.listFiles(directory, recursive);
+	}
+
+	/**
+	 * Returns the modification time, size and file key of a file, or null if
+	 * it doesn't exist. Metadata is replaced by renaming a new file over the
+	 * old one, so the key tells writes apart that the clock can't.
+	 */
+	private Stamp stamp(String fileName) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(
+					Paths.get(delegate.getWorkingDirectory()).resolve(fileName),
+					BasicFileAttributes.class);
+			return new Stamp(attributes.lastModifiedTime(), attributes.size(),
+					attributes.fileKey());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static class Stamp {
+		private final FileTime modified;
+		private final long size;
+		private final Object key;
+
+		private Stamp(FileTime modified, long size, Object key) {
+			this.modified = modified;
+			this.size = size;
+			this.key = key;
+		}
+
+		private boolean sameAs(Stamp other) {
+			return other != null && size == other.size
+					&& Objects.equals(modified, other.modified)
+					&& Objects.equals(key, other.key);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Stamp && sameAs((Stamp) o);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(modified, size, key);
+		}
+	}
+
+	private static class Stamped<T> {
+		private final T value;
+		private final Stamp stamp;
+
+		private Stamped(T value, Stamp stamp) {
+			this.value = value;
+			this.stamp = stamp;
+		}
+
+		private boolean matches(Stamp other) {
+			return stamp.sameAs(other);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package gitlet;
+
+/**
+ * Outcome of a command run through a Repository.
+ */
+public class CommandResult {
+
+	private final boolean succeeded;
+	private final String head;
+
+	public CommandResult(boolean succeeded, String head) {
+		this.succeeded = succeeded;
+		this.head = head;
+	}
+
+	/**
+	 * False if the command refused to run or failed; the reason was printed
+	 * to the repository's output sink.
+	 */
+	public boolean isSucceeded() {
+		return succeeded;
+	}
+
+	/**
+	 * The id of the current branch's head after the command, or null if the
+	 * repository has no head.
+	 */
+	public String getHead() {
+		return head;
+	}
+}
@@ -3,7 +3,13 @@ package gitlet;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.logging.Logger;
 
 @SuppressWarnings("serial")
@@ -11,51 +17,112 @@ public class Commit implements Serializable {
 
 	private String id;
 	private String shortId;
-	private Commit parent;
+	private List<Commit> parents;
+	private int generation;
 	private Long timeStamp;
 	private String message;
 
-	private HashMap<String, String> filePointers;
+	private FileMap filePointers;
 
 	public Commit() {
-		this(null, 0L, "", null);
+		this((Commit) null, 0L, "", null);
 	};
 
 	public Commit(Commit parent, Long timeStamp, String message,
-			HashMap<String, String> filePointers) {
+			Map<String, String> filePointers) {
+		this(parent == null ? new ArrayList<Commit>() : Arrays.asList(parent),
+				timeStamp, message, filePointers);
+	}
+
+	/**
+	 * Creates a commit with any number of parents. The first parent is the
+	 * one the commit was made on, the others are the branches merged into it.
+	 */
+	public static Commit withParents(List<Commit> parents, Long timeStamp,
+			String message, Map<String, String> filePointers) {
+		return new Commit(parents, timeStamp, message, filePointers);
+	}
 
-		this.parent = parent;
+	private Commit(List<Commit> parents, Long timeStamp, String message,
+			Map<String, String> filePointers) {
+
+		this.parents = new ArrayList<Commit>(parents);
 		this.timeStamp = timeStamp;
 		this.message = message;
-		this.filePointers = filePointers;
+		//a file map is shared as is, it can't change
+		this.filePointers = filePointers == null ? null : FileMap.of(filePointers);
 
 		String text = "";
 
 		String parentText = "";
 		String filePointersText = "";
+		Commit parent = getParent();
 		if (parent != null) {
 			parentText = Integer.toString(parent.hashCode());
 			filePointersText = Integer.toString(parent.filePointersHash());
 		}
+		//merged parents are appended, so single parent ids don't change
+		for (int i = 1; i < this.parents.size(); i++)
+			parentText += Integer.toString(this.parents.get(i).hashCode());
 
 		text = filePointersText + message + timeStamp.toString() + parentText;
 
 		this.id = Hasher.getSha256(text);
 		this.shortId = id.substring(0, 10);
+
+		//a commit's generation is always higher than its ancestors'
+		this.generation = 1;
+		for (Commit p : this.parents)
+			this.generation = Math.max(this.generation, p.generation + 1);
 	}
 	
+	/**
+	 * Returns the id of the lowest common ancestor of this commit and other.
+	 * Both histories are walked together from the newest generation down,
+	 * marking which side reaches each commit; the first commit reached from
+	 * both sides is the split point. Nothing older than it is visited.
+	 */
 	public String findSplitPoint(Commit other){
 		
 		if(other == null)
 			return null;
 		
-		if(this.equals(other))
-			return this.id;
+		final int fromThis = 1;
+		final int fromOther = 2;
+		HashMap<String, Integer> flags = new HashMap<String, Integer>();
+		PriorityQueue<Commit> queue = new PriorityQueue<Commit>(11, new Comparator<Commit>() {
+			@Override
+			public int compare(Commit a, Commit b) {
+				return Integer.compare(b.generation, a.generation);
+			}
+		});
 		
-		if(this.timeStamp >= other.timeStamp)
-			return other.findSplitPoint(this.parent);
-		else
-			return this.findSplitPoint(other.parent);
+		flags.put(this.id, fromThis);
+		queue.add(this);
+		if(flags.containsKey(other.id)){
+			return other.id;
+		}
+		flags.put(other.id, fromOther);
+		queue.add(other);
+		
+		while(!queue.isEmpty()){
+			Commit commit = queue.poll();
+			int flag = flags.get(commit.id);
+			//every descendant was polled before, so the flags are complete
+			if(flag == (fromThis | fromOther))
+				return commit.id;
+			
+			for(Commit parent : commit.parents){
+				Integer parentFlag = flags.get(parent.id);
+				if(parentFlag == null){
+					flags.put(parent.id, flag);
+					queue.add(parent);
+				} else {
+					flags.put(parent.id, parentFlag | flag);
+				}
+			}
+		}
+		return null;
 	}
 
 	public String getId() {
@@ -66,8 +133,27 @@ public class Commit implements Serializable {
 		return shortId;
 	}
 
+	/**
+	 * Returns the first parent, or null for the initial commit.
+	 */
 	public Commit getParent() {
-		return parent;
+		return parents.isEmpty() ? null : parents.get(0);
+	}
+
+	public List<Commit> getParents() {
+		return parents;
+	}
+
+	/**
+	 * Returns one for the initial commit, otherwise one more than the
+	 * highest generation of the parents.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	public boolean isMerge() {
+		return parents.size() > 1;
 	}
 
 	public Long getTimeStamp() {
@@ -78,10 +164,22 @@ public class Commit implements Serializable {
 		return message;
 	}
 
-	public HashMap<String, String> getFilePointers() {
+	/**
+	 * Returns the files of the commit, or null for a commit without any.
+	 */
+	public FileMap getFilePointers() {
 		return filePointers;
 	}
 
+	/**
+	 * Returns this commit with other files. A commit's id doesn't depend on
+	 * its own files, so the copy has the same id, and files it stores can
+	 * point at it.
+	 */
+	public Commit withFilePointers(Map<String, String> filePointers) {
+		return new Commit(parents, timeStamp, message, filePointers);
+	}
+
 	@Override
 	public boolean equals(Object o){
 		if(o instanceof Commit){
@@ -93,6 +191,7 @@ public class Commit implements Serializable {
 	
 	@Override
 	public int hashCode() {
+		Commit parent = getParent();
 		int fpHash = parent == null ? 0 : parent.filePointersHash();
 		int idHash = id == null ? 0 : id.hashCode();
 		int mgHash = message == null ? 0 : message.hashCode();
@@ -105,12 +204,8 @@ public class Commit implements Serializable {
 		if(this.filePointers == null)
 			return 0;
 		
-		int hash = 0;
-		for(String key : this.filePointers.keySet()){
-			hash ^= key.hashCode() << 1;
-			hash ^= this.filePointers.get(key).hashCode();
-		}
-		return hash;
+		//kept up to date by the map as files are put and removed
+		return this.filePointers.filePointersHash();
 	}
 
 }
@@ -0,0 +1,152 @@
+package gitlet;
+
+import gitlet.diff.TreeDiff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lightweight index over the commit history. Each entry holds the parent id,
+ * the timestamp and a Bloom filter of the paths changed relative to the
+ * parent, so history can be walked without deserializing commit objects.
+ */
+public class CommitGraph {
+
+	/* commits changing more paths than this get no filter and always match */
+	public static final int MAX_CHANGED_PATHS = 512;
+
+	private final Map<String, Entry> entries;
+
+	public CommitGraph() {
+		entries = new HashMap<String, Entry>();
+	}
+
+	public void add(Entry entry) {
+		entries.put(entry.getId(), entry);
+	}
+
+	public Entry getEntry(String id) {
+		return entries.get(id);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Builds the graph entry for a commit, computing the changed paths
+	 * against its parent.
+	 */
+	public static Entry entryFor(Commit commit) {
+		List<String> changed = changedPaths(commit);
+		BloomFilter filter = null;
+		if (changed.size() <= MAX_CHANGED_PATHS) {
+			filter = new BloomFilter(changed.size() * 2);
+			for (String path : changed) {
+				filter.add(path);
+				//add the leading directories too, so a directory can be queried
+				int slash = path.lastIndexOf('/');
+				while (slash > 0) {
+					path = path.substring(0, slash);
+					filter.add(path);
+					slash = path.lastIndexOf('/');
+				}
+			}
+		}
+		String[] parentIds = new String[commit.getParents().size()];
+		for (int i = 0; i < parentIds.length; i++)
+			parentIds[i] = commit.getParents().get(i).getId();
+		return new Entry(commit.getId(), parentIds, commit.getTimeStamp(), filter);
+	}
+
+	/**
+	 * Returns the paths whose file pointer differs between the commit and its
+	 * first parent, including paths that were removed, in path order.
+	 */
+	public static List<String> changedPaths(Commit commit) {
+		final List<String> changed = new ArrayList<String>();
+		FileMap parentFP = commit.getParent() == null ? null
+				: commit.getParent().getFilePointers();
+		//the diff skips what the maps share, sorting the few changes is cheaper
+		//than sorting both trees
+		FileMap.diff(parentFP, commit.getFilePointers(), new TreeDiff.Visitor() {
+			@Override
+			public void added(String path, String pointer) {
+				changed.add(path);
+			}
+
+			@Override
+			public void removed(String path, String pointer) {
+				changed.add(path);
+			}
+
+			@Override
+			public void modified(String path, String oldPointer, String newPointer) {
+				changed.add(path);
+			}
+		});
+		Collections.sort(changed);
+		return changed;
+	}
+
+	/**
+	 * Returns true if the commit changed the given path, or any file below it
+	 * when the path is a directory.
+	 */
+	public static boolean touches(Commit commit, String path) {
+		for (String changed : changedPaths(commit)) {
+			if (changed.equals(path) || changed.startsWith(path + "/"))
+				return true;
+		}
+		return false;
+	}
+
+	public static class Entry {
+		private final String id;
+		private final String[] parentIds;
+		private final long timeStamp;
+		private final BloomFilter changedPaths;
+
+		public Entry(String id, String[] parentIds, long timeStamp,
+				BloomFilter changedPaths) {
+			this.id = id;
+			this.parentIds = parentIds;
+			this.timeStamp = timeStamp;
+			this.changedPaths = changedPaths;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Returns the first parent's id, or null for the initial commit.
+		 */
+		public String getParentId() {
+			return parentIds.length == 0 ? null : parentIds[0];
+		}
+
+		public String[] getParentIds() {
+			return parentIds;
+		}
+
+		public long getTimeStamp() {
+			return timeStamp;
+		}
+
+		public BloomFilter getChangedPaths() {
+			return changedPaths;
+		}
+
+		/**
+		 * False means the commit definitely did not change the path; true
+		 * means it may have, and the commit has to be loaded to be sure.
+		 */
+		public boolean mightHaveChanged(String path) {
+			return changedPaths == null || changedPaths.mightContain(path);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package gitlet;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * A single commit object as it is stored, without its parents. It holds
+ * either all the files of the commit, for a snapshot, or the paths removed
+ * and the files added or changed since its first parent. Reading one costs
+ * one object, where recovering a commit builds its whole history.
+ */
+public class CommitObject {
+
+	private final String id;
+	private final String parentId;
+	private final String[] mergedIds;
+	private final Long timeStamp;
+	private final String message;
+	private final Map<String, String> files;
+	private final String[] removed;
+	private final Map<String, String> changed;
+
+	private CommitObject(String id, String parentId, String[] mergedIds, Long timeStamp,
+			String message, Map<String, String> files, String[] removed,
+			Map<String, String> changed) {
+		this.id = id;
+		this.parentId = parentId;
+		this.mergedIds = mergedIds;
+		this.timeStamp = timeStamp;
+		this.message = message;
+		this.files = files;
+		this.removed = removed;
+		this.changed = changed;
+	}
+
+	/**
+	 * A commit that stores all its files, which may be null for a commit
+	 * without any.
+	 */
+	public static CommitObject snapshot(String id, String parentId, String[] mergedIds,
+			Long timeStamp, String message, Map<String, String> files) {
+		return new CommitObject(id, parentId, mergedIds, timeStamp, message, files, null, null);
+	}
+
+	/**
+	 * A commit that stores what changed since its first parent.
+	 */
+	public static CommitObject changeSet(String id, String parentId, String[] mergedIds,
+			Long timeStamp, String message, String[] removed, Map<String, String> changed) {
+		return new CommitObject(id, parentId, mergedIds, timeStamp, message, null,
+				removed, changed);
+	}
+
+	/**
+	 * Stores a commit that is already in memory as a snapshot.
+	 */
+	public static CommitObject of(Commit commit) {
+		String[] mergedIds = new String[Math.max(0, commit.getParents().size() - 1)];
+		for (int i = 0; i < mergedIds.length; i++)
+			mergedIds[i] = commit.getParents().get(i + 1).getId();
+		return snapshot(commit.getId(),
+				commit.getParent() == null ? null : commit.getParent().getId(), mergedIds,
+				commit.getTimeStamp(), commit.getMessage(),
+				commit.getFilePointers());
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the id of the first parent, or null for the initial commit.
+	 */
+	public String getParentId() {
+		return parentId;
+	}
+
+	public String[] getMergedIds() {
+		return mergedIds;
+	}
+
+	public Long getTimeStamp() {
+		return timeStamp;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public boolean isSnapshot() {
+		return removed == null;
+	}
+
+	/**
+	 * Returns all the files of a snapshot, or null for a change set or a
+	 * commit without files.
+	 */
+	public Map<String, String> getFiles() {
+		return files;
+	}
+
+	/**
+	 * Returns the paths a change set removed, or null for a snapshot.
+	 */
+	public String[] getRemoved() {
+		return removed;
+	}
+
+	/**
+	 * Returns the files a change set added or changed, or null for a
+	 * snapshot.
+	 */
+	public Map<String, String> getChanged() {
+		return changed;
+	}
+
+	/**
+	 * Returns the files of a commit without recovering its history: the
+	 * first parents are read back to the nearest snapshot, and their change
+	 * sets applied forward from there. That is at most SNAPSHOT_INTERVAL
+	 * objects for commits saved by a FileSystemWriter.
+	 */
+	public static FileMap recoverFiles(IFileWriter fileWriter, String id) {
+		Deque<CommitObject> changeSets = new ArrayDeque<CommitObject>();
+		FileMap files = null;
+		for (String next = id; next != null; ) {
+			CommitObject object = fileWriter.readCommitObject(next);
+			if (object.isSnapshot()) {
+				files = object.filesOn(null);
+				break;
+			}
+			changeSets.push(object);
+			next = object.getParentId();
+		}
+		while (!changeSets.isEmpty())
+			files = changeSets.pop().filesOn(files);
+		return files;
+	}
+
+	/**
+	 * Returns the files of this commit given the files of its first parent,
+	 * null for a commit without files.
+	 */
+	public FileMap filesOn(FileMap parentFiles) {
+		if (isSnapshot())
+			return files == null ? null : FileMap.of(files);
+		FileMap result = parentFiles == null ? FileMap.EMPTY : parentFiles;
+		for (String path : removed)
+			result = result.without(path);
+		for (Map.Entry<String, String> file : changed.entrySet())
+			result = result.with(file.getKey(), file.getValue());
+		return result;
+	}
+}
@@ -0,0 +1,45 @@
+package gitlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Prints to whatever System.out and System.err are at the time of the call,
+ * and reads answers from whatever System.in is.
+ */
+public class ConsoleOutputSink implements IOutputSink {
+
+	@Override
+	public PrintStream getOut() {
+		return System.out;
+	}
+
+	@Override
+	public PrintStream getErr() {
+		return System.err;
+	}
+
+	/**
+	 * Reads a byte at a time and never closes System.in, so nothing past the
+	 * line is taken from the next prompt or command.
+	 */
+	@Override
+	public String readLine() {
+		InputStream in = System.in;
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		try {
+			int b;
+			while ((b = in.read()) >= 0 && b != '\n')
+				line.write(b);
+			if (b < 0 && line.size() == 0)
+				return null;
+		} catch (IOException e) {
+			return null;
+		}
+		String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+		return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+	}
+}
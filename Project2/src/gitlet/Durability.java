@@ -0,0 +1,44 @@
+package gitlet;
+
+/**
+ * How hard FileSystemWriter tries to get repository metadata onto disk
+ * before a command reports success. Set with -Dgitlet.durability or the
+ * GITLET_DURABILITY environment variable; the default is BATCH.
+ */
+public enum Durability {
+	/**
+	 * Never fsync, leave it to the operating system. Metadata is still
+	 * replaced by renames, so a crash loses recent commands but doesn't
+	 * leave a torn file.
+	 */
+	NONE,
+	/**
+	 * fsync the files a command wrote in one go: objects before the ref or
+	 * staging update that points at them, the rest when the command ends.
+	 */
+	BATCH,
+	/**
+	 * fsync every file and its directory as soon as it is written.
+	 */
+	FULL;
+
+	public static Durability fromSettings() {
+		String setting = System.getProperty("gitlet.durability");
+		if (setting == null)
+			setting = System.getenv("GITLET_DURABILITY");
+		return parse(setting, BATCH);
+	}
+
+	/**
+	 * Returns the durability named by setting, ignoring case, or fallback
+	 * if setting is null or names none.
+	 */
+	public static Durability parse(String setting, Durability fallback) {
+		if (setting == null)
+			return fallback;
+		for (Durability durability : values())
+			if (durability.name().equalsIgnoreCase(setting.trim()))
+				return durability;
+		return fallback;
+	}
+}
@@ -0,0 +1,541 @@
+package gitlet;
+
+import gitlet.diff.TreeDiff;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A commit's file map, path to the id of the commit its version is stored
+ * with. Paths and pointers are kept as ids from the map's PathTable, so
+ * the commits of a repository share one copy of each string. A map made
+ * from another keeps its table; the empty map gets a new table on its
+ * first file. Maps with different tables still compare and diff correctly,
+ * the ids of one are just translated first.
+ *
+ * The map is immutable. with and without return a new map that shares all
+ * but the changed path's branch with the old one, so a commit made from its
+ * parent's map costs O(changes) instead of a copy of every file. It is a
+ * hash array mapped trie on the path ids: each level picks one of 32
+ * children with the next five bits of the id. Ids are unique, so paths
+ * never collide. Nodes are kept canonical, so two maps with the same files
+ * have the same shape, and subtrees two maps share are skipped when they
+ * are compared or diffed.
+ *
+ * The map keeps the hash commit ids are computed from, so filePointersHash
+ * doesn't walk the files. Changing it through the Map methods throws
+ * UnsupportedOperationException.
+ */
+public class FileMap extends AbstractMap<String, String> implements Serializable {
+
+	private static final long serialVersionUID = 2L;
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	//ids are at most 31 bits, so no trie is deeper than this
+	private static final int MAX_DEPTH = 7;
+
+	private static final Node EMPTY_NODE = new Node(0, 0, new int[0], new int[0], new Node[0]);
+
+	public static final FileMap EMPTY = new FileMap(EMPTY_NODE, 0, 0, null);
+
+	private transient Node root;
+	private transient int size;
+	private transient int filePointersHash;
+	//null until the first file goes in
+	private transient PathTable table;
+	private transient Set<Map.Entry<String, String>> entries;
+
+	private FileMap(Node root, int size, int filePointersHash, PathTable table) {
+		this.root = root;
+		this.size = size;
+		this.filePointersHash = filePointersHash;
+		this.table = table;
+	}
+
+	/**
+	 * Returns an empty map whose files get their ids from table.
+	 */
+	public static FileMap empty(PathTable table) {
+		return new FileMap(EMPTY_NODE, 0, 0, table);
+	}
+
+	/**
+	 * Returns files as a file map, which is files itself if it is one.
+	 */
+	public static FileMap of(Map<String, String> files) {
+		if (files instanceof FileMap)
+			return (FileMap) files;
+		return copy(files, EMPTY);
+	}
+
+	/**
+	 * Returns files as a file map with ids from table, which is files itself
+	 * if it is one already.
+	 */
+	public static FileMap of(Map<String, String> files, PathTable table) {
+		if (files instanceof FileMap && ((FileMap) files).hasTable(table))
+			return (FileMap) files;
+		return copy(files, empty(table));
+	}
+
+	private static FileMap copy(Map<String, String> files, FileMap map) {
+		for (Map.Entry<String, String> file : files.entrySet())
+			map = map.with(file.getKey(), file.getValue());
+		return map;
+	}
+
+	//an empty map has no ids, so it fits any table
+	private boolean hasTable(PathTable table) {
+		return size == 0 || this.table == table;
+	}
+
+	/**
+	 * Returns a map with path pointing at pointer, or this map if it already
+	 * does.
+	 */
+	public FileMap with(String path, String pointer) {
+		if (path == null || pointer == null)
+			throw new NullPointerException("File maps hold no nulls");
+		PathTable ids = table == null ? new PathTable() : table;
+		int key = ids.pathId(path);
+		int value = ids.pointerId(pointer);
+		int old = root.get(key, 0);
+		if (old == value)
+			return this;
+		int hash = filePointersHash ^ contribution(ids, key, value);
+		if (old >= 0)
+			hash ^= contribution(ids, key, old);
+		return new FileMap(root.with(key, value, 0), old < 0 ? size + 1 : size, hash, ids);
+	}
+
+	/**
+	 * Returns a map without path, or this map if it doesn't have it.
+	 */
+	public FileMap without(String path) {
+		int key = table == null ? -1 : table.findPath(path);
+		int old = key < 0 ? -1 : root.get(key, 0);
+		if (old < 0)
+			return this;
+		return new FileMap(root.without(key, 0), size - 1,
+				filePointersHash ^ contribution(table, key, old), table);
+	}
+
+	/**
+	 * The XOR over all files of the path's hash shifted left by one and the
+	 * pointer's hash.
+	 */
+	public int filePointersHash() {
+		return filePointersHash;
+	}
+
+	private static int contribution(PathTable table, int key, int value) {
+		return (table.path(key).hashCode() << 1) ^ table.pointer(value).hashCode();
+	}
+
+	private int valueOf(Object key) {
+		if (!(key instanceof String) || table == null)
+			return -1;
+		int id = table.findPath((String) key);
+		return id < 0 ? -1 : root.get(id, 0);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return valueOf(key) >= 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		int value = valueOf(key);
+		return value < 0 ? null : table.pointer(value);
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super String> action) {
+		root.forEach(table, action);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof FileMap))
+			return super.equals(o);
+		FileMap other = (FileMap) o;
+		if (other.size != size || other.filePointersHash != filePointersHash)
+			return false;
+		if (!hasTable(other.table))
+			return super.equals(o);
+		return root.sameAs(other.root);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	/**
+	 * Reports what changed going from one map to the other, skipping the
+	 * subtrees they share. Either may be null for a commit without files.
+	 * Unlike TreeDiff, the differences don't come in path order.
+	 */
+	public static void diff(FileMap from, FileMap to, TreeDiff.Visitor visitor) {
+		if (from == null)
+			from = EMPTY;
+		if (to == null)
+			to = EMPTY;
+		//ids only compare within a table
+		if (from.size > 0 && !to.hasTable(from.table))
+			to = of(to, from.table);
+		PathTable table = from.size > 0 ? from.table : to.table;
+		diff(from.root, to.root, 0, table, visitor);
+	}
+
+	private static void diff(Node from, Node to, int shift, PathTable table, TreeDiff.Visitor visitor) {
+		if (from == to)
+			return;
+		int all = from.dataMap | from.nodeMap | to.dataMap | to.nodeMap;
+		while (all != 0) {
+			int bit = all & -all;
+			all ^= bit;
+			if ((from.dataMap & bit) != 0) {
+				int i = from.dataIndex(bit);
+				int key = from.keys[i];
+				int value = from.values[i];
+				if ((to.dataMap & bit) != 0) {
+					int j = to.dataIndex(bit);
+					if (to.keys[j] == key) {
+						if (to.values[j] != value)
+							modified(table, key, value, to.values[j], visitor);
+					} else {
+						removed(table, key, value, visitor);
+						added(table, to.keys[j], to.values[j], visitor);
+					}
+				} else if ((to.nodeMap & bit) != 0) {
+					Node subtree = to.nodes[to.nodeIndex(bit)];
+					if (subtree.get(key, shift + BITS) < 0)
+						removed(table, key, value, visitor);
+					subtree.diffAgainst(key, value, table, visitor, false);
+				} else {
+					removed(table, key, value, visitor);
+				}
+			} else if ((from.nodeMap & bit) != 0) {
+				Node subtree = from.nodes[from.nodeIndex(bit)];
+				if ((to.nodeMap & bit) != 0) {
+					diff(subtree, to.nodes[to.nodeIndex(bit)], shift + BITS, table, visitor);
+				} else if ((to.dataMap & bit) != 0) {
+					int j = to.dataIndex(bit);
+					if (subtree.get(to.keys[j], shift + BITS) < 0)
+						added(table, to.keys[j], to.values[j], visitor);
+					subtree.diffAgainst(to.keys[j], to.values[j], table, visitor, true);
+				} else {
+					subtree.diffAgainst(-1, -1, table, visitor, true);
+				}
+			} else if ((to.dataMap & bit) != 0) {
+				int j = to.dataIndex(bit);
+				added(table, to.keys[j], to.values[j], visitor);
+			} else {
+				to.nodes[to.nodeIndex(bit)].diffAgainst(-1, -1, table, visitor, false);
+			}
+		}
+	}
+
+	private static void added(PathTable table, int key, int value, TreeDiff.Visitor visitor) {
+		visitor.added(table.path(key), table.pointer(value));
+	}
+
+	private static void removed(PathTable table, int key, int value, TreeDiff.Visitor visitor) {
+		visitor.removed(table.path(key), table.pointer(value));
+	}
+
+	private static void modified(PathTable table, int key, int from, int to, TreeDiff.Visitor visitor) {
+		visitor.modified(table.path(key), table.pointer(from), table.pointer(to));
+	}
+
+	/**
+	 * One level of the trie. Files whose ids are alone in their slot at this
+	 * level sit in keys and values, the other slots hold subtrees; dataMap
+	 * and nodeMap say which of the 32 slots are which. A node below the root
+	 * always has more than one file, so the shape only depends on the files.
+	 */
+	private static final class Node {
+		final int dataMap;
+		final int nodeMap;
+		final int[] keys;
+		final int[] values;
+		final Node[] nodes;
+
+		Node(int dataMap, int nodeMap, int[] keys, int[] values, Node[] nodes) {
+			this.dataMap = dataMap;
+			this.nodeMap = nodeMap;
+			this.keys = keys;
+			this.values = values;
+			this.nodes = nodes;
+		}
+
+		static int bit(int key, int shift) {
+			return 1 << ((key >>> shift) & MASK);
+		}
+
+		int dataIndex(int bit) {
+			return Integer.bitCount(dataMap & (bit - 1));
+		}
+
+		int nodeIndex(int bit) {
+			return Integer.bitCount(nodeMap & (bit - 1));
+		}
+
+		boolean isSingle() {
+			return nodeMap == 0 && keys.length == 1;
+		}
+
+		/**
+		 * Returns the pointer id of key, or -1.
+		 */
+		int get(int key, int shift) {
+			Node node = this;
+			while (true) {
+				int bit = bit(key, shift);
+				if ((node.dataMap & bit) != 0) {
+					int i = node.dataIndex(bit);
+					return node.keys[i] == key ? node.values[i] : -1;
+				}
+				if ((node.nodeMap & bit) == 0)
+					return -1;
+				node = node.nodes[node.nodeIndex(bit)];
+				shift += BITS;
+			}
+		}
+
+		Node with(int key, int value, int shift) {
+			int bit = bit(key, shift);
+			if ((dataMap & bit) != 0) {
+				int i = dataIndex(bit);
+				if (keys[i] == key) {
+					int[] newValues = values.clone();
+					newValues[i] = value;
+					return new Node(dataMap, nodeMap, keys, newValues, nodes);
+				}
+				//two files share the slot now, push both down a level
+				Node pair = pair(keys[i], values[i], key, value, shift + BITS);
+				int j = nodeIndex(bit);
+				return new Node(dataMap ^ bit, nodeMap | bit, remove(keys, i), remove(values, i),
+						insert(nodes, j, pair));
+			}
+			if ((nodeMap & bit) != 0) {
+				int j = nodeIndex(bit);
+				Node[] newNodes = nodes.clone();
+				newNodes[j] = nodes[j].with(key, value, shift + BITS);
+				return new Node(dataMap, nodeMap, keys, values, newNodes);
+			}
+			int i = dataIndex(bit);
+			return new Node(dataMap | bit, nodeMap, insert(keys, i, key), insert(values, i, value), nodes);
+		}
+
+		static Node pair(int key1, int value1, int key2, int value2, int shift) {
+			int bit1 = bit(key1, shift);
+			int bit2 = bit(key2, shift);
+			if (bit1 == bit2)
+				return new Node(0, bit1, new int[0], new int[0],
+						new Node[] { pair(key1, value1, key2, value2, shift + BITS) });
+			if (Integer.compareUnsigned(bit1, bit2) < 0)
+				return new Node(bit1 | bit2, 0, new int[] { key1, key2 }, new int[] { value1, value2 }, new Node[0]);
+			return new Node(bit1 | bit2, 0, new int[] { key2, key1 }, new int[] { value2, value1 }, new Node[0]);
+		}
+
+		/**
+		 * Returns the node without key, which must be in it.
+		 */
+		Node without(int key, int shift) {
+			int bit = bit(key, shift);
+			if ((dataMap & bit) != 0) {
+				int i = dataIndex(bit);
+				return new Node(dataMap ^ bit, nodeMap, remove(keys, i), remove(values, i), nodes);
+			}
+			int j = nodeIndex(bit);
+			Node child = nodes[j].without(key, shift + BITS);
+			if (child.isSingle()) {
+				//a lone file moves back up into this node's data
+				int i = dataIndex(bit);
+				return new Node(dataMap | bit, nodeMap ^ bit, insert(keys, i, child.keys[0]),
+						insert(values, i, child.values[0]), remove(nodes, j));
+			}
+			Node[] newNodes = nodes.clone();
+			newNodes[j] = child;
+			return new Node(dataMap, nodeMap, keys, values, newNodes);
+		}
+
+		boolean sameAs(Node other) {
+			if (other == this)
+				return true;
+			if (other.dataMap != dataMap || other.nodeMap != nodeMap)
+				return false;
+			for (int i = 0; i < keys.length; i++)
+				if (other.keys[i] != keys[i] || other.values[i] != values[i])
+					return false;
+			for (int j = 0; j < nodes.length; j++)
+				if (!nodes[j].sameAs(other.nodes[j]))
+					return false;
+			return true;
+		}
+
+		/**
+		 * Reports every file of this subtree as added, or as removed if
+		 * removed is true, except for key, which is reported as modified if
+		 * its pointer isn't value. Pass -1 to report every file.
+		 */
+		void diffAgainst(int key, int value, PathTable table, TreeDiff.Visitor visitor, boolean removed) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] == key) {
+					if (values[i] != value) {
+						if (removed)
+							modified(table, key, values[i], value, visitor);
+						else
+							modified(table, key, value, values[i], visitor);
+					}
+				} else if (removed) {
+					FileMap.removed(table, keys[i], values[i], visitor);
+				} else {
+					added(table, keys[i], values[i], visitor);
+				}
+			}
+			for (Node node : nodes)
+				node.diffAgainst(key, value, table, visitor, removed);
+		}
+
+		void forEach(PathTable table, BiConsumer<? super String, ? super String> action) {
+			for (int i = 0; i < keys.length; i++)
+				action.accept(table.path(keys[i]), table.pointer(values[i]));
+			for (Node node : nodes)
+				node.forEach(table, action);
+		}
+
+		static int[] insert(int[] array, int i, int value) {
+			int[] result = new int[array.length + 1];
+			System.arraycopy(array, 0, result, 0, i);
+			result[i] = value;
+			System.arraycopy(array, i, result, i + 1, array.length - i);
+			return result;
+		}
+
+		static int[] remove(int[] array, int i) {
+			int[] result = new int[array.length - 1];
+			System.arraycopy(array, 0, result, 0, i);
+			System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+			return result;
+		}
+
+		static Node[] insert(Node[] array, int i, Node value) {
+			Node[] result = new Node[array.length + 1];
+			System.arraycopy(array, 0, result, 0, i);
+			result[i] = value;
+			System.arraycopy(array, i, result, i + 1, array.length - i);
+			return result;
+		}
+
+		static Node[] remove(Node[] array, int i) {
+			Node[] result = new Node[array.length - 1];
+			System.arraycopy(array, 0, result, 0, i);
+			System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+			return result;
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		if (entries == null) {
+			entries = new AbstractSet<Map.Entry<String, String>>() {
+				@Override
+				public Iterator<Map.Entry<String, String>> iterator() {
+					return new Entries();
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+		return entries;
+	}
+
+	/**
+	 * Walks the trie depth first, a node's own files before its subtrees.
+	 */
+	private class Entries implements Iterator<Map.Entry<String, String>> {
+		private final Node[] path = new Node[MAX_DEPTH + 1];
+		private final int[] nextData = new int[MAX_DEPTH + 1];
+		private final int[] nextNode = new int[MAX_DEPTH + 1];
+		private int depth;
+
+		Entries() {
+			path[0] = root;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (true) {
+				Node node = path[depth];
+				if (nextData[depth] < node.keys.length)
+					return true;
+				if (nextNode[depth] < node.nodes.length) {
+					path[depth + 1] = node.nodes[nextNode[depth]++];
+					depth++;
+					nextData[depth] = 0;
+					nextNode[depth] = 0;
+				} else if (depth == 0) {
+					return false;
+				} else {
+					depth--;
+				}
+			}
+		}
+
+		@Override
+		public Map.Entry<String, String> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Node node = path[depth];
+			int i = nextData[depth]++;
+			return new AbstractMap.SimpleImmutableEntry<String, String>(
+					table.path(node.keys[i]), table.pointer(node.values[i]));
+		}
+	}
+
+	//ids only mean something in this process, serialize the strings
+	private void writeObject(ObjectOutputStream output) throws IOException {
+		output.defaultWriteObject();
+		output.writeInt(size);
+		for (Map.Entry<String, String> file : entrySet()) {
+			output.writeUTF(file.getKey());
+			output.writeUTF(file.getValue());
+		}
+	}
+
+	private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+		input.defaultReadObject();
+		int count = input.readInt();
+		FileMap read = EMPTY;
+		for (int i = 0; i < count; i++)
+			read = read.with(input.readUTF(), input.readUTF());
+		root = read.root;
+		size = read.size;
+		filePointersHash = read.filePointersHash;
+		table = read.table;
+	}
+}
@@ -1,11 +1,21 @@
 package gitlet;
 
+import gitlet.diff.TreeDiff;
+import gitlet.jfr.CommitDecodeEvent;
+import gitlet.jfr.FileCopyEvent;
+import gitlet.jfr.ObjectReadEvent;
+import gitlet.jfr.ObjectWriteEvent;
+
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -14,20 +24,112 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class FileSystemWriter implements IFileWriter {
 
+	private static final long REF_LOCK_TIMEOUT_MILLIS = 2000;
+	//how long a command waits for another one to finish changing the
+	//repository, -Dgitlet.lockTimeout=MILLIS to change it
+	private static final long REPOSITORY_LOCK_TIMEOUT_MILLIS = 10000;
+	private static final String REPOSITORY_LOCK = ".gitlet/repository";
+	private static final String REFS = ".gitlet/refs/heads/";
+	//every this many commits along the first parents a commit stores all its
+	//files, the ones in between store what changed since their first parent
+	static final int SNAPSHOT_INTERVAL = 64;
+	private static final int MAX_RECONSTRUCTED = 4096;
+
+	private final File root;
+	private final Durability durability;
+	//files and directories written since the last sync, in BATCH mode
+	private final Set<File> unsynced = new LinkedHashSet<File>();
+	private long syncs;
+	private LockFile repositoryLock;
+	private int repositoryLockDepth;
+	//ref and staging writes of the running transaction by path, null for
+	//a deleted ref; null when no transaction is running
+	private volatile Map<String, byte[]> transaction;
+	//ids for the paths and pointers of every commit this writer reads, it
+	//goes away with the writer and the commits
+	private final PathTable paths = new PathTable();
+	//commits recovered before, with the time and size of their object file.
+	//Recovering a commit stops at the first cached ancestor, so its change
+	//set is applied to a parent that is already built
+	private final Map<String, Reconstructed> reconstructed = Collections.synchronizedMap(
+			new LinkedHashMap<String, Reconstructed>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Reconstructed> eldest) {
+					return size() > MAX_RECONSTRUCTED;
+				}
+			});
+
+	/**
+	 * Resolves paths against the process's working directory.
+	 */
+	public FileSystemWriter() {
+		this(null);
+	}
+
+	/**
+	 * Resolves relative paths against root, so a repository can be used
+	 * without changing the working directory.
+	 */
+	public FileSystemWriter(File root) {
+		this(root, Durability.fromSettings());
+	}
+
+	public FileSystemWriter(File root, Durability durability) {
+		this.root = root == null ? null : root.getAbsoluteFile();
+		this.durability = durability;
+	}
+
+	private File file(String name) {
+		File f = new File(name);
+		if (root == null || f.isAbsolute())
+			return f;
+		return new File(root, name);
+	}
+
 	@Override
 	public void createFile(String fileName, String fileText) {
-		File f = new File(fileName);
+		File f = file(fileName);
+		if (f.getParentFile() != null && !f.getParentFile().exists())
+			f.getParentFile().mkdirs();
+		//refs are replaced whole through a lock file, so a concurrent reader
+		//never sees half a ref and two writers can't interleave
+		if (fileName.startsWith(".gitlet/")) {
+			write(fileName, fileText.getBytes(StandardCharsets.UTF_8));
+			return;
+		}
 		if (!f.exists()) {
 			try {
 				f.createNewFile();
@@ -40,20 +142,275 @@ public class FileSystemWriter implements IFileWriter {
 
 	@Override
 	public void createDirectory(String dirName) {
-		File f = new File(dirName);
+		File f = file(dirName);
 		if (!f.exists()) {
 			f.mkdirs();
 		}
 	}
 
+	/**
+	 * Replaces a ref or the staging file, or keeps the new content for the
+	 * end of the running transaction.
+	 */
+	private void write(String name, byte[] content) {
+		PerfStats.count(PerfStats.Counter.BYTES_WRITTEN, content.length);
+		Map<String, byte[]> pending = transaction;
+		if (pending != null)
+			pending.put(name, content);
+		else
+			replace(file(name), content);
+	}
+
+	private void replace(File f, byte[] content) {
+		try (LockFile lock = LockFile.acquire(f.toPath(), REF_LOCK_TIMEOUT_MILLIS)) {
+			lock.getOutputStream().write(content);
+			if (durability == Durability.FULL)
+				lock.sync();
+			//the objects a ref or the staging area points at have to be on
+			//disk before it does
+			if (durability == Durability.BATCH)
+				sync();
+			lock.commit();
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+		written(f);
+	}
+
+	/**
+	 * Replaces a file of a journal that is on disk already; the journal
+	 * orders it after the objects, so it only needs syncing at the end.
+	 */
+	private void replaceUnsynced(File f, byte[] content) {
+		try (LockFile lock = LockFile.acquire(f.toPath(), REF_LOCK_TIMEOUT_MILLIS)) {
+			lock.getOutputStream().write(content);
+			lock.commit();
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+		syncLater(f);
+		syncLater(f.getParentFile());
+	}
+
+	private void syncLater(File f) {
+		if (durability == Durability.NONE)
+			return;
+		synchronized (unsynced) {
+			unsynced.add(f);
+		}
+	}
+
+	/**
+	 * Writes a file under .gitlet through a temporary file that is renamed
+	 * over it, so a crash never leaves half of it behind.
+	 */
+	private void writeAtomically(File f, byte[] content) throws IOException {
+		Path temp = Files.createTempFile(f.getParentFile().toPath(), "." + f.getName(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.wrap(content);
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+				if (durability == Durability.FULL)
+					channel.force(true);
+			}
+			moveIntoPlace(temp, f);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private void moveIntoPlace(Path temp, File f) throws IOException {
+		try {
+			Files.move(temp, f.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		written(f);
+	}
+
+	/**
+	 * Called once f is in place. FULL has synced its content already and
+	 * syncs the directory entry now, BATCH leaves both for the next sync.
+	 */
+	private void written(File f) {
+		if (durability == Durability.FULL) {
+			force(f.getParentFile());
+		} else if (durability == Durability.BATCH) {
+			syncLater(f);
+			syncLater(f.getParentFile());
+		}
+	}
+
+	@Override
+	public void sync() {
+		List<File> pending;
+		synchronized (unsynced) {
+			pending = new ArrayList<File>(unsynced);
+			unsynced.clear();
+		}
+		for (File f : pending)
+			force(f);
+	}
+
+	private void force(File f) {
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			channel.force(true);
+			synchronized (unsynced) {
+				syncs++;
+			}
+		} catch (IOException e) {
+			//not every platform can open a directory to sync it
+			fLogger.log(Level.FINE, "Cannot sync " + f, e);
+		}
+	}
+
+	/**
+	 * Returns how many files and directories were synced so far.
+	 */
+	public long getSyncCount() {
+		synchronized (unsynced) {
+			return syncs;
+		}
+	}
+
+	public Durability getDurability() {
+		return durability;
+	}
+
+	@Override
+	public synchronized void lockRepository() {
+		if (repositoryLockDepth == 0) {
+			try {
+				repositoryLock = LockFile.acquire(file(REPOSITORY_LOCK).toPath(),
+						Long.getLong("gitlet.lockTimeout", REPOSITORY_LOCK_TIMEOUT_MILLIS));
+			} catch (IOException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			try {
+				recover();
+			} catch (RuntimeException e) {
+				closeRepositoryLock();
+				throw e;
+			}
+		}
+		repositoryLockDepth++;
+	}
+
+	@Override
+	public synchronized void unlockRepository() {
+		if (repositoryLockDepth == 0)
+			return;
+		if (--repositoryLockDepth == 0)
+			closeRepositoryLock();
+	}
+
+	private void closeRepositoryLock() {
+		try {
+			repositoryLock.close();
+		} catch (IOException e) {
+			fLogger.log(Level.WARNING, "Could not release the repository lock.", e);
+		}
+		repositoryLock = null;
+	}
+
+	@Override
+	public void beginTransaction() {
+		if (transaction != null)
+			throw new IllegalStateException("A transaction is already running");
+		transaction = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>());
+	}
+
+	/**
+	 * Writes the journal, which is the point where the transaction has
+	 * happened, then applies its writes and removes the journal. The objects
+	 * written during the transaction are synced together with the journal,
+	 * the refs it moves are synced before the journal goes.
+	 */
+	@Override
+	public void commitTransaction() {
+		Map<String, byte[]> writes = transaction;
+		transaction = null;
+		if (writes == null || writes.isEmpty())
+			return;
+
+		Map<String, byte[]> copy;
+		synchronized (writes) {
+			copy = new LinkedHashMap<String, byte[]>(writes);
+		}
+		try {
+			sync();
+			writeAtomically(file(Journal.FILE), Journal.encode(copy));
+			sync();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write " + Journal.FILE + ": " + e.getMessage(), e);
+		}
+		apply(copy);
+	}
+
+	@Override
+	public void abortTransaction() {
+		transaction = null;
+	}
+
+	/**
+	 * Applies the writes of a journal and removes it.
+	 */
+	private void apply(Map<String, byte[]> writes) {
+		for (Map.Entry<String, byte[]> write : writes.entrySet()) {
+			File f = file(write.getKey());
+			if (write.getValue() == null) {
+				f.delete();
+				syncLater(f.getParentFile());
+			} else {
+				if (f.getParentFile() != null && !f.getParentFile().exists())
+					f.getParentFile().mkdirs();
+				replaceUnsynced(f, write.getValue());
+			}
+		}
+		sync();
+		file(Journal.FILE).delete();
+	}
+
+	/**
+	 * Finishes the transaction of a command that died: a complete journal
+	 * is applied again, a torn one is thrown away, since nothing it holds
+	 * was applied yet. Needs the repository lock.
+	 */
+	private void recover() {
+		File journal = file(Journal.FILE);
+		if (!journal.exists())
+			return;
+
+		Map<String, byte[]> writes = null;
+		try {
+			writes = Journal.decode(Files.readAllBytes(journal.toPath()));
+		} catch (IOException e) {
+			fLogger.log(Level.WARNING, "Cannot read " + Journal.FILE, e);
+		}
+		if (writes == null) {
+			fLogger.log(Level.WARNING, "Rolling back an incomplete transaction.");
+			journal.delete();
+			return;
+		}
+
+		fLogger.log(Level.FINE, "Rolling forward an interrupted transaction.");
+		//we hold the repository lock, lock files of the refs are leftovers
+		for (String name : writes.keySet())
+			file(name + LockFile.SUFFIX).delete();
+		apply(writes);
+	}
+
 	/**
 	 * Replaces all text in the existing file with the given text.
 	 */
 	private void writeFile(String fileName, String fileText) {
-		FileWriter fw = null;
+		Writer fw = null;
 		try {
-			File f = new File(fileName);
-			fw = new FileWriter(f, false);
+			File f = file(fileName);
+			fw = new OutputStreamWriter(new FileOutputStream(f, false),
+					StandardCharsets.UTF_8);
 			fw.write(fileText);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -68,93 +425,194 @@ public class FileSystemWriter implements IFileWriter {
 
 	@Override
 	public boolean exists(String name) {
-		// TODO Auto-generated method stub
-		return new File(name).exists();
+		Map<String, byte[]> pending = transaction;
+		if (pending != null && pending.containsKey(name))
+			return pending.get(name) != null;
+		return file(name).exists();
 	}
 
 	@Override
 	public boolean canWrite(String name) {
 		// TODO Auto-generated method stub
-		return new File(name).canWrite();
+		return file(name).canWrite();
 	}
 
 	@Override
 	public boolean isDirectory(String name) {
 		// TODO Auto-generated method stub
-		return new File(name).isDirectory();
+		return file(name).isDirectory();
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Commit recoverCommit(String id) {
-		// System.out.println("Reading: " + id);
+		return recoverCommit(id, new HashMap<String, Commit>());
+	}
+
+	/**
+	 * Recovers a commit and its ancestors. A commit reachable through more
+	 * than one merge parent is only read once, recovered holds the commits
+	 * read so far.
+	 *
+	 * The first parents are read down to the nearest commit already built,
+	 * or the initial commit, and then built oldest first, so each change set
+	 * is applied forward to the files of the commit before it and a long
+	 * history doesn't need a deep stack.
+	 */
+	private Commit recoverCommit(String id, HashMap<String, Commit> recoveredCommits) {
+		Deque<CommitObject> unbuilt = new ArrayDeque<CommitObject>();
+		Commit built = null;
+		for (String next = id; next != null; ) {
+			built = built(next, recoveredCommits);
+			if (built != null)
+				break;
+			CommitObject object = readCommitObject(next);
+			if (object == null)
+				return null;
+			unbuilt.push(object);
+			next = object.getParentId();
+		}
+
+		while (!unbuilt.isEmpty()) {
+			CommitObject object = unbuilt.pop();
+			List<Commit> parents = new ArrayList<Commit>();
+			if (built != null)
+				parents.add(built);
+			FileMap parentFiles = built == null || built.getFilePointers() == null
+					? FileMap.empty(paths) : built.getFilePointers();
+			for (String mergedId : object.getMergedIds())
+				parents.add(recoverCommit(mergedId, recoveredCommits));
+
+			built = Commit.withParents(parents, object.getTimeStamp(),
+					object.getMessage(), object.filesOn(parentFiles));
+			recoveredCommits.put(object.getId(), built);
+			reconstructed.put(object.getId(), new Reconstructed(built, objectFile(object.getId())));
+		}
+		return built;
+	}
+
+	/**
+	 * Returns the commit if it was recovered before and its object is
+	 * unchanged, null otherwise.
+	 */
+	private Commit built(String id, HashMap<String, Commit> recoveredCommits) {
+		Commit commit = recoveredCommits.get(id);
+		if (commit != null)
+			return commit;
+		Reconstructed cached = reconstructed.get(id);
+		if (cached == null || !cached.matches(objectFile(id)))
+			return null;
+		recoveredCommits.put(id, cached.commit);
+		return cached.commit;
+	}
+
+	private File objectFile(String id) {
+		return file(".gitlet/objects/" + id + "/" + id);
+	}
 
+	/**
+	 * Reads one commit object, without its parents.
+	 *
+	 * A commit stores either all its files, as a HashMap, or the paths it
+	 * removed as a String[] followed by a HashMap of the files it added or
+	 * changed, relative to its first parent.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public CommitObject readCommitObject(String id) {
 		// if its the default object id, just return a new object;
 		// if (id.equals(new Commit().getId()))
 		// return new Commit();
 
 		String objDir = ".gitlet/objects/" + id;
-		File d = new File(objDir);
+		File d = file(objDir);
 		if (!d.exists()) {
 			throw new IllegalArgumentException("commit not found!");
 			// return null;
 		}
 
-		String filename = objDir + "/" + id;
-		Commit recovered = null;
-		Commit parent = null;
-		Long timeStamp;
-		String message;
-		HashMap<String, String> filePointers;
-		File f = new File(filename);
-		if (f.exists()) {
-			try (InputStream file = new FileInputStream(filename);
-					InputStream buffer = new BufferedInputStream(file);
-					ObjectInput input = new ObjectInputStream(buffer);) {
-				// deserialize the List
-				String parentId = (String) input.readObject();
-				if (!parentId.equals("null")) {
-					parent = recoverCommit(parentId);
-				}
+		File f = file(objDir + "/" + id);
+		if (!f.exists()) {
+			System.out.println("Id: " + id + " not found!");
+			return null;
+		}
 
-				input.readObject(); // this is the id, we already have it...
-				message = (String) input.readObject();
-				timeStamp = (Long) input.readObject();
-				filePointers = (HashMap<String, String>) input.readObject();
+		//read first, so reading and decoding are timed apart
+		byte[] content;
+		PerfStats.Phase reading = PerfStats.begin(PerfStats.Phase.IO);
+		ObjectReadEvent read = new ObjectReadEvent();
+		read.begin();
+		try {
+			content = Files.readAllBytes(f.toPath());
+		} catch (IOException ex) {
+			fLogger.log(Level.SEVERE, "Cannot perform input.", ex);
+			return null;
+		} finally {
+			PerfStats.end(reading);
+		}
+		if (read.shouldCommit()) {
+			read.id = id;
+			read.bytes = content.length;
+			read.commit();
+		}
+		PerfStats.count(PerfStats.Counter.OBJECTS_READ, 1);
+		PerfStats.count(PerfStats.Counter.BYTES_READ, content.length);
+		PerfStats.Phase phase = PerfStats.begin(PerfStats.Phase.DECODE);
+		CommitDecodeEvent decode = new CommitDecodeEvent();
+		decode.begin();
+		try (ObjectInput input = new ObjectInputStream(new ByteArrayInputStream(content));) {
+			String parentId = (String) input.readObject();
+			if (parentId.equals("null"))
+				parentId = null;
 
-				recovered = new Commit(parent, timeStamp, message, filePointers);
-			} catch (ClassNotFoundException ex) {
-				fLogger.log(Level.SEVERE,
-						"Cannot perform input. Class not found.", ex);
+			input.readObject(); // this is the id, we already have it...
+			String message = (String) input.readObject();
+			Long timeStamp = (Long) input.readObject();
+			Object files = input.readObject();
+			HashMap<String, String> changed = files instanceof String[]
+					? (HashMap<String, String>) input.readObject() : null;
 
-			} catch (IOException ex) {
-				fLogger.log(Level.SEVERE, "Cannot perform input.", ex);
+			//merge parents were added later, older commits end here
+			String[] mergedIds = new String[0];
+			try {
+				mergedIds = (String[]) input.readObject();
+			} catch (EOFException ex) {
 			}
 
-			return recovered;
+			if (files instanceof String[])
+				return CommitObject.changeSet(id, parentId, mergedIds, timeStamp, message,
+						(String[]) files, changed);
+			return CommitObject.snapshot(id, parentId, mergedIds, timeStamp, message,
+					files == null ? null : FileMap.of((HashMap<String, String>) files, paths));
+		} catch (ClassNotFoundException ex) {
+			fLogger.log(Level.SEVERE,
+					"Cannot perform input. Class not found.", ex);
 
-		} else {
-			System.out.println("Id: " + id + " not found!");
-			return null;
+		} catch (IOException ex) {
+			fLogger.log(Level.SEVERE, "Cannot perform input.", ex);
+		} finally {
+			PerfStats.end(phase);
+			if (decode.shouldCommit()) {
+				decode.id = id;
+				decode.bytes = content.length;
+				decode.commit();
+			}
 		}
+		return null;
 	}
 
 	@Override
 	public void saveCommit(Commit commit) {
 		String directory = ".gitlet/objects/" + commit.getId();
 		String filename = directory + "/" + commit.getId();
-		File d = new File(directory);
-		File f = new File(filename);
+		File d = file(directory);
+		File f = file(filename);
 		if (!f.exists()) {
 			if (!d.exists())
 				d.mkdir();
-			try (
-			// to seperate this class from the filesyste, the call to
-			// FileOutputStream has to be replaced with something more
-			// abstract...
-			OutputStream file = new FileOutputStream(filename);
-					OutputStream buffer = new BufferedOutputStream(file);
-					ObjectOutput output = new ObjectOutputStream(buffer);) {
+			ObjectWriteEvent event = new ObjectWriteEvent();
+			event.begin();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutput output = new ObjectOutputStream(bytes);) {
 				// System.out.println("Writing: " + this.id);
 				if (commit.getParent() != null) {
 					output.writeObject(commit.getParent().getId());
@@ -165,16 +623,226 @@ public class FileSystemWriter implements IFileWriter {
 				output.writeObject(commit.getId());
 				output.writeObject(commit.getMessage());
 				output.writeObject(commit.getTimeStamp());
-				output.writeObject(commit.getFilePointers());
+				writeFilePointers(output, commit);
+
+				String[] mergedIds = new String[commit.getParents().size() - 1 < 0 ? 0
+						: commit.getParents().size() - 1];
+				for (int i = 0; i < mergedIds.length; i++)
+					mergedIds[i] = commit.getParents().get(i + 1).getId();
+				output.writeObject(mergedIds);
 			} catch (IOException e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
+			try {
+				writeAtomically(f, bytes.toByteArray());
+			} catch (IOException e) {
+				fLogger.log(Level.SEVERE, "Cannot write commit.", e);
+			}
+			if (event.shouldCommit()) {
+				event.id = commit.getId();
+				event.bytes = bytes.size();
+				event.commit();
+			}
+			PerfStats.count(PerfStats.Counter.OBJECTS_WRITTEN, 1);
+			PerfStats.count(PerfStats.Counter.BYTES_WRITTEN, bytes.size());
+			appendToCommitGraph(CommitGraph.entryFor(commit));
 		} else {
 			System.out.println("Id: " + commit.getId() + " already exists!");
 		}
 	}
 
+	/**
+	 * Writes all the files of the commit as a HashMap, as commits always
+	 * were, if it has no parent or its generation is the first past a
+	 * multiple of SNAPSHOT_INTERVAL. Otherwise writes only what changed
+	 * since the first parent, so a commit takes space for its changes
+	 * instead of for every file.
+	 */
+	private void writeFilePointers(ObjectOutput output, Commit commit) throws IOException {
+		Commit parent = commit.getParent();
+		if (commit.getFilePointers() == null || parent == null || isSnapshot(commit)) {
+			output.writeObject(commit.getFilePointers() == null ? null
+					: new HashMap<String, String>(commit.getFilePointers()));
+			return;
+		}
+		final List<String> removed = new ArrayList<String>();
+		final HashMap<String, String> changed = new HashMap<String, String>();
+		FileMap.diff(parent.getFilePointers(), commit.getFilePointers(), new TreeDiff.Visitor() {
+			@Override
+			public void added(String path, String pointer) {
+				changed.put(path, pointer);
+			}
+
+			@Override
+			public void removed(String path, String pointer) {
+				removed.add(path);
+			}
+
+			@Override
+			public void modified(String path, String oldPointer, String newPointer) {
+				changed.put(path, newPointer);
+			}
+		});
+		output.writeObject(removed.toArray(new String[removed.size()]));
+		output.writeObject(changed);
+	}
+
+	/**
+	 * The generation grows by at least one along the first parents, so a
+	 * chain of change sets never gets longer than SNAPSHOT_INTERVAL. For a
+	 * history without merges the generation is one more than the number of
+	 * first parents.
+	 */
+	private static boolean isSnapshot(Commit commit) {
+		int generation = commit.getGeneration() - 1;
+		int parentGeneration = commit.getParent().getGeneration() - 1;
+		return generation / SNAPSHOT_INTERVAL != parentGeneration / SNAPSHOT_INTERVAL;
+	}
+
+	/**
+	 * A recovered commit and the time and size of its object file when it
+	 * was read, in case the repository was replaced since.
+	 */
+	private static class Reconstructed {
+		private final Commit commit;
+		private final long modified;
+		private final long size;
+
+		Reconstructed(Commit commit, File file) {
+			this.commit = commit;
+			this.modified = file.lastModified();
+			this.size = file.length();
+		}
+
+		boolean matches(File file) {
+			return file.lastModified() == modified && file.length() == size;
+		}
+	}
+
+	/**
+	 * Appends a record to .gitlet/commit-graph. The file is append only, so
+	 * saving a commit never rewrites the records of older commits.
+	 */
+	private void appendToCommitGraph(CommitGraph.Entry entry) {
+		if (!file(".gitlet").isDirectory())
+			return;
+
+		try (OutputStream file = new FileOutputStream(file(COMMIT_GRAPH), true);
+				DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(file));) {
+			output.writeUTF(entry.getId());
+			//parents are space separated, the first one is the first parent
+			StringBuilder parentIds = new StringBuilder();
+			for (String parentId : entry.getParentIds()) {
+				if (parentIds.length() > 0)
+					parentIds.append(' ');
+				parentIds.append(parentId);
+			}
+			output.writeUTF(parentIds.toString());
+			output.writeLong(entry.getTimeStamp());
+			BloomFilter filter = entry.getChangedPaths();
+			if (filter == null) {
+				output.writeInt(0);
+				output.writeInt(0);
+			} else {
+				output.writeInt(filter.getNumHashes());
+				output.writeInt(filter.getBits().length);
+				for (long word : filter.getBits())
+					output.writeLong(word);
+			}
+		} catch (IOException e) {
+			fLogger.log(Level.SEVERE, "Cannot write commit graph.", e);
+			return;
+		}
+		//appended in place, a torn record at the end is skipped when reading
+		if (durability == Durability.FULL)
+			force(file(COMMIT_GRAPH));
+		written(file(COMMIT_GRAPH));
+	}
+
+	@Override
+	public CommitGraph recoverCommitGraph() {
+		CommitGraph graph = new CommitGraph();
+		File f = file(COMMIT_GRAPH);
+		if (!f.exists())
+			return graph;
+
+		try (InputStream file = new FileInputStream(f);
+				DataInputStream input = new DataInputStream(
+						new BufferedInputStream(file));) {
+			while (true) {
+				String id;
+				try {
+					id = input.readUTF();
+				} catch (EOFException e) {
+					break;
+				}
+				String parentId = input.readUTF();
+				long timeStamp = input.readLong();
+				int numHashes = input.readInt();
+				long[] bits = new long[input.readInt()];
+				for (int i = 0; i < bits.length; i++)
+					bits[i] = input.readLong();
+
+				BloomFilter filter = numHashes == 0 ? null : new BloomFilter(
+						bits, numHashes);
+				String[] parentIds = parentId.isEmpty() ? new String[0]
+						: parentId.split(" ");
+				graph.add(new CommitGraph.Entry(id, parentIds, timeStamp, filter));
+			}
+		} catch (IOException ex) {
+			//a torn record at the end only costs us the filter for that commit
+			fLogger.log(Level.WARNING, "Cannot read commit graph.", ex);
+		}
+		return graph;
+	}
+
+	@Override
+	public TimeIndex recoverTimeIndex(String branch) {
+		File f = file(TIME_INDEX_DIR + branch);
+		if (!f.exists())
+			return null;
+
+		try (InputStream file = new FileInputStream(f);
+				DataInputStream input = new DataInputStream(
+						new BufferedInputStream(file));) {
+			String headId = input.readUTF();
+			int size = input.readInt();
+			long[] timeStamps = new long[size];
+			String[] ids = new String[size];
+			for (int i = 0; i < size; i++) {
+				timeStamps[i] = input.readLong();
+				ids[i] = input.readUTF();
+			}
+			return new TimeIndex(headId, timeStamps, ids);
+		} catch (IOException ex) {
+			//the index can always be rebuilt from the history
+			fLogger.log(Level.WARNING, "Cannot read time index.", ex);
+			return null;
+		}
+	}
+
+	@Override
+	public void saveTimeIndex(String branch, TimeIndex index) {
+		createDirectory(TIME_INDEX_DIR);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(bytes);) {
+			output.writeUTF(index.getHeadId());
+			output.writeInt(index.size());
+			for (int i = 0; i < index.size(); i++) {
+				output.writeLong(index.getTimeStamps()[i]);
+				output.writeUTF(index.getIds()[i]);
+			}
+			//read-only commands save the index too and must not wait; if
+			//someone else is saving it, theirs is as good as ours
+			LockFile.write(file(TIME_INDEX_DIR + branch).toPath(), bytes.toByteArray(), 0);
+		} catch (IOException e) {
+			fLogger.log(Level.FINE, "Time index not saved.", e);
+		}
+	}
+
 	@Override
 	public String getCurrentBranchRef() {
 		String ref = getText(".gitlet/HEAD").replace("ref: ", "");
@@ -187,9 +855,32 @@ public class FileSystemWriter implements IFileWriter {
 		return head;
 	}
 
+	@Override
+	public String readFile(String fileName) {
+		return getText(fileName);
+	}
+
+	@Override
+	public byte[] readBytes(String fileName) {
+		try {
+			byte[] bytes = Files.readAllBytes(file(fileName).toPath());
+			PerfStats.count(PerfStats.Counter.BYTES_READ, bytes.length);
+			return bytes;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return new byte[0];
+		}
+	}
+
 	private String getText(String fileName) {
+		Map<String, byte[]> pending = transaction;
+		if (pending != null && pending.containsKey(fileName)) {
+			byte[] content = pending.get(fileName);
+			return content == null ? "" : new String(content, StandardCharsets.UTF_8);
+		}
 		try {
-			byte[] encoded = Files.readAllBytes(Paths.get(fileName));
+			byte[] encoded = Files.readAllBytes(file(fileName).toPath());
+			PerfStats.count(PerfStats.Counter.BYTES_READ, encoded.length);
 			return new String(encoded, StandardCharsets.UTF_8);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -199,9 +890,12 @@ public class FileSystemWriter implements IFileWriter {
 
 	@Override
 	public String getWorkingDirectory() {
-		return System.getProperty("user.dir");
+		return root == null ? System.getProperty("user.dir") : root.getPath();
 	}
 
+	private static final String COMMIT_GRAPH = ".gitlet/commit-graph";
+	private static final String TIME_INDEX_DIR = ".gitlet/time-index/";
+
 	private static final Logger fLogger = Logger.getLogger(Commit.class
 			.getPackage().getName());
 
@@ -209,15 +903,15 @@ public class FileSystemWriter implements IFileWriter {
 	public void saveStaging(Staging staging) {
 		String filename = ".gitlet/objects/staging";
 
-		try (OutputStream file = new FileOutputStream(filename);
-				OutputStream buffer = new BufferedOutputStream(file);
-				ObjectOutput output = new ObjectOutputStream(buffer);) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutput output = new ObjectOutputStream(bytes);) {
 			output.writeObject(staging.getFilesToAdd());
 			output.writeObject(staging.getFilesToRm());
 		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
+		write(filename, bytes.toByteArray());
 	}
 
 	@SuppressWarnings("unchecked")
@@ -225,7 +919,7 @@ public class FileSystemWriter implements IFileWriter {
 	public Staging recoverStaging() {
 
 		// String objDir = ".gitlet/objects/staging";
-		// File d = new File(objDir);
+		// File d = file(objDir);
 		// if(!d.exists()){
 		// throw new IllegalArgumentException("Gitlet not initialized!");
 		// }
@@ -233,14 +927,24 @@ public class FileSystemWriter implements IFileWriter {
 		String filename = ".gitlet/objects/staging";
 		Staging recovered = null;
 
-		File f = new File(filename);
-		if (f.exists()) {
-			try (InputStream file = new FileInputStream(filename);
+		Map<String, byte[]> pending = transaction;
+		byte[] written = pending == null ? null : pending.get(filename);
+		File f = file(filename);
+		if (written != null || f.exists()) {
+			try (InputStream file = written != null ? new ByteArrayInputStream(written)
+					: new FileInputStream(file(filename));
 					InputStream buffer = new BufferedInputStream(file);
 					ObjectInput input = new ObjectInputStream(buffer);) {
 
-				List<String> filesToAdd = (List<String>) input.readObject();
-				List<String> filesToRm = (List<String>) input.readObject();
+				PerfStats.Phase phase = PerfStats.begin(PerfStats.Phase.DECODE);
+				List<String> filesToAdd;
+				List<String> filesToRm;
+				try {
+					filesToAdd = (List<String>) input.readObject();
+					filesToRm = (List<String>) input.readObject();
+				} finally {
+					PerfStats.end(phase);
+				}
 
 				recovered = new Staging();
 				recovered.setFilesToAdd(filesToAdd);
@@ -263,33 +967,81 @@ public class FileSystemWriter implements IFileWriter {
 
 	@Override
 	public String[] getAllBranches() {
-		return new File(".gitlet/refs/heads").list();
+		String[] branches = file(".gitlet/refs/heads").list(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return !LockFile.isLockFile(name);
+			}
+		});
+		Map<String, byte[]> pending = transaction;
+		if (pending == null || branches == null)
+			return branches;
+
+		Set<String> names = new LinkedHashSet<String>(Arrays.asList(branches));
+		synchronized (pending) {
+			for (Map.Entry<String, byte[]> write : pending.entrySet()) {
+				if (!write.getKey().startsWith(REFS))
+					continue;
+				String name = write.getKey().substring(REFS.length());
+				if (write.getValue() == null)
+					names.remove(name);
+				else
+					names.add(name);
+			}
+		}
+		return names.toArray(new String[names.size()]);
 	}
 
 	@Override
 	public long lastModified(String name) {
-		return new File(name).lastModified();
+		return file(name).lastModified();
 	}
 
 	@Override
 	public void copyFile(String filePath, String destPath) {
 
-		File dest = new File(destPath);
-		File source = new File(filePath);
+		File dest = file(destPath);
+		File source = file(filePath);
 		
 		//check if destination directory exists and create if it doesn't
-		if(destPath.lastIndexOf("/") > -1){
-			File destDir = new File(destPath.substring(0, destPath.lastIndexOf("/")));
-			if(!destDir.exists())
-				destDir.mkdirs();
-		}
+		File destDir = dest.getParentFile();
+		if(destDir != null && !destDir.exists())
+			destDir.mkdirs();
 
+		if (PerfStats.current() != null)
+			PerfStats.count(PerfStats.Counter.BYTES_COPIED, source.length());
+		FileCopyEvent event = new FileCopyEvent();
+		event.begin();
 		try {
+			if (destPath.startsWith(".gitlet/")) {
+				copyAtomically(source, dest);
+				return;
+			}
 			Files.copy(source.toPath(), dest.toPath(),
 					StandardCopyOption.COPY_ATTRIBUTES,
 					StandardCopyOption.REPLACE_EXISTING);
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			if (event.shouldCommit()) {
+				event.source = filePath;
+				event.destination = destPath;
+				event.bytes = source.length();
+				event.commit();
+			}
+		}
+	}
+
+	private void copyAtomically(File source, File dest) throws IOException {
+		Path temp = Files.createTempFile(dest.getParentFile().toPath(), "." + dest.getName(), ".tmp");
+		try {
+			Files.copy(source.toPath(), temp, StandardCopyOption.COPY_ATTRIBUTES,
+					StandardCopyOption.REPLACE_EXISTING);
+			if (durability == Durability.FULL)
+				force(temp.toFile());
+			moveIntoPlace(temp, dest);
+		} finally {
+			Files.deleteIfExists(temp);
 		}
 	}
 
@@ -315,8 +1067,8 @@ public class FileSystemWriter implements IFileWriter {
 	@Override
 	public boolean filesEqual(String a, String b) {
 
-		File file1 = new File(a);
-		File file2 = new File(b);
+		File file1 = file(a);
+		File file2 = file(b);
 
 		if (file1.length() != file2.length()) {
 			return false;
@@ -345,13 +1097,13 @@ public class FileSystemWriter implements IFileWriter {
 
 	@Override
 	public String[] getAllCommitIds() {
-		File objects = new File(".gitlet/objects");
+		File objects = file(".gitlet/objects");
 		
 		//get everything gut the "staging" file
 		FilenameFilter filter = new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
-            	if("staging".equals(name))
+            	if("staging".equals(name) || LockFile.isLockFile(name))
             		return false;
             	return true;
             }
@@ -359,10 +1111,84 @@ public class FileSystemWriter implements IFileWriter {
 		return objects.list(filter);
 	}
 
+	@Override
+	public String[] listFiles(String directory) {
+		return listFiles(directory, true);
+	}
+
+	@Override
+	public String[] listFiles(String directory, boolean recursive) {
+		String prefix = ".".equals(directory) ? "" : directory + "/";
+		List<String> files = ForkJoinPool.commonPool().invoke(
+				new ListFiles(file(directory).toPath(), prefix, recursive));
+		Collections.sort(files);
+		return files.toArray(new String[files.size()]);
+	}
+
+	/**
+	 * Lists one directory and forks a task for each directory in it, so a
+	 * big tree is walked on every core. Symbolic links aren't followed.
+	 */
+	@SuppressWarnings("serial")
+	private static class ListFiles extends RecursiveTask<List<String>> {
+		private final Path directory;
+		private final String prefix;
+		private final boolean recursive;
+
+		ListFiles(Path directory, String prefix, boolean recursive) {
+			this.directory = directory;
+			this.prefix = prefix;
+			this.recursive = recursive;
+		}
+
+		@Override
+		protected List<String> compute() {
+			List<String> files = new ArrayList<String>();
+			List<ListFiles> subdirectories = new ArrayList<ListFiles>();
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+				for (Path entry : entries) {
+					String name = prefix + entry.getFileName();
+					BasicFileAttributes attributes = Files.readAttributes(entry,
+							BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					if (attributes.isDirectory()) {
+						if (!recursive || name.equals(".gitlet"))
+							continue;
+						ListFiles subdirectory = new ListFiles(entry, name + "/", true);
+						subdirectory.fork();
+						subdirectories.add(subdirectory);
+					} else if (attributes.isRegularFile()) {
+						files.add(name);
+					}
+				}
+			} catch (IOException e) {
+				fLogger.log(Level.WARNING, "Cannot list " + directory, e);
+			}
+			for (ListFiles subdirectory : subdirectories)
+				files.addAll(subdirectory.join());
+			return files;
+		}
+	}
+
 	@Override
 	public void deleteBranch(String branch) {
-		File f = new File(".gitlet/refs/heads/" + branch);
+		Map<String, byte[]> pending = transaction;
+		if (pending != null) {
+			pending.put(REFS + branch, null);
+			return;
+		}
+		File f = file(REFS + branch);
 		f.delete();
 	}
 
+	@Override
+	public void deleteFile(String name) {
+		//like refs, files under .gitlet go away with the transaction
+		Map<String, byte[]> pending = transaction;
+		if (pending != null && name.startsWith(".gitlet/")) {
+			pending.put(name, null);
+			return;
+		}
+		file(name).delete();
+	}
+
 }
@@ -1,19 +1,70 @@
 package gitlet;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands commands their writer. A thread can bind the writer of the
+ * repository it works on, other threads keep using the process wide one,
+ * so one process can run commands on many repositories at once.
+ */
 public class FileWriterFactory {
-	private static IFileWriter _instance;
+	private static volatile IFileWriter _instance;
+	private static final ThreadLocal<IFileWriter> bound = new ThreadLocal<IFileWriter>();
+	private static final ConcurrentMap<String, CachingFileWriter> byRoot = new ConcurrentHashMap<String, CachingFileWriter>();
 	
 	public static IFileWriter getWriter(){
+		IFileWriter writer = bound.get();
+		if(writer != null)
+			return writer;
 		if(_instance == null)
 			_instance = new FileSystemWriter();
 		return _instance;
 	}
 	
+	/**
+	 * Returns the writer for the repository in root. There is one per root,
+	 * created on first use and shared by every caller after.
+	 */
+	public static CachingFileWriter getWriter(File root){
+		String key;
+		try {
+			key = root.getCanonicalPath();
+		} catch (IOException e) {
+			key = root.getAbsolutePath();
+		}
+		CachingFileWriter writer = byRoot.get(key);
+		if(writer == null){
+			CachingFileWriter created = new CachingFileWriter(new FileSystemWriter(new File(key)));
+			writer = byRoot.putIfAbsent(key, created);
+			if(writer == null)
+				writer = created;
+		}
+		return writer;
+	}
+	
+	/**
+	 * Makes getWriter return instance on this thread, or go back to the
+	 * process wide writer if instance is null. Returns the writer that was
+	 * bound before, so callers can restore it.
+	 */
+	public static IFileWriter bind(IFileWriter instance){
+		IFileWriter previous = bound.get();
+		if(instance == null)
+			bound.remove();
+		else
+			bound.set(instance);
+		return previous;
+	}
+	
 	public static void setWriter(IFileWriter instance){
 		_instance = instance;
 	}
 	
 	public static void useDefault(){
 		_instance = new FileSystemWriter();
+		bound.remove();
 	}
 }
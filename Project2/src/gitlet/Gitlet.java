@@ -1,16 +1,49 @@
 package gitlet;
 
 import gitlet.commands.CommandParser;
+import gitlet.commands.CommandRunner;
 import gitlet.commands.ICommand;
 import gitlet.commands.factories.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.Arrays;
 
 public class Gitlet {
 
 	public static void main(String[] args) {
+		run(args);
+	}
+	
+	/**
+	 * Runs one command against the repository in the working directory,
+	 * reading and printing through the output sink. Returns
+	 * false if the command was unknown, declined or failed.
+	 */
+	public static boolean run(String[] args) {
+		
+		//--stats before the subcommand prints where the time went
+		String stats = PerfStats.fromSettings();
+		if(args.length > 0 && ("--stats".equals(args[0]) || "--stats=json".equals(args[0]))){
+			stats = "--stats".equals(args[0]) ? "summary" : "json";
+			args = Arrays.copyOfRange(args, 1, args.length);
+		}
+		if(stats == null)
+			return runCommand(args);
+		
+		PerfStats perf = new PerfStats(args.length == 0 ? "" : args[0]);
+		PerfStats previousStats = PerfStats.bind(perf);
+		IFileWriter previousWriter = FileWriterFactory.bind(
+				new InstrumentedFileWriter(FileWriterFactory.getWriter(), perf));
+		try{
+			return runCommand(args);
+		} finally {
+			FileWriterFactory.bind(previousWriter);
+			PerfStats.bind(previousStats);
+			perf.finish();
+			OutputSinkFactory.getSink().getErr().println("json".equals(stats) ? perf.toJson() : perf.toSummary());
+		}
+	}
+	
+	private static boolean runCommand(String[] args) {
 		
 		//.gitlet/HEAD holds reference to the current branch
 		//.gitlet/refs/heads/ folder with a file for each branch
@@ -18,60 +51,63 @@ public class Gitlet {
 		//    and mirrors files added to that commit
 		//.gitlet/objects/staging is binary file holding the staging information
 
+		IOutputSink output = OutputSinkFactory.getSink();
+		
 		//if args is null, output on StdErr, return;
 		if(args.length == 0){
-			System.err.println("Need a subcommand");
-			return;
+			output.getErr().println("Need a subcommand");
+			return false;
 		}
 		
-		List<ICommandFactory> availableCommands = getAvailableCommands();
-		
-		
-		CommandParser parser = new CommandParser(availableCommands);
+		CommandParser parser = new CommandParser(getCommandRegistry());
 		ICommand command = parser.parseCommand(args);
 		
 		
 		//if command == null, then the user did not specify a valid command
 		if(null == command){
-			System.err.println("Unknown command: " + args[0]);
+			output.getErr().println("Unknown command: " + args[0]);
+			return false;
 		} else {
 			boolean canExecute = true;
 			if(command.isDangerous()){
-				System.out.println("Warning: The command you entered may alter the files "
+				output.getOut().println("Warning: The command you entered may alter the files "
 						+ "in your working directory. Uncommitted changes may be lost. "
 						+ "Are you sure you want to continue? (yes/no)");
-				Scanner stdin = new Scanner(System.in);
-				String answer = stdin.nextLine();
-				if(!"yes".equals(answer))
+				if(!"yes".equals(output.readLine()))
 					canExecute = false;
-				stdin.close();
 			}
 			
 			if(canExecute)
-				command.execute();
+				return CommandRunner.execute(command);
+			return false;
 		}
-		
-		
 	}
 
-	static List<ICommandFactory> getAvailableCommands(){
-		List<ICommandFactory> commands = new ArrayList<ICommandFactory>();
+	/**
+	 * Returns the registry of every command. The factories are only created
+	 * when their command is run.
+	 */
+	public static CommandRegistry getCommandRegistry(){
+		CommandRegistry commands = new CommandRegistry();
 		
-		commands.add(new InitCommandFactory());
-		commands.add(new AddCommandFactory());
-		commands.add(new RmCommandFactory());
-		commands.add(new StatusCommandFactory());
-		commands.add(new BranchCommandFactory());
-		commands.add(new CommitCommandFactory());
-		commands.add(new LogCommandFactory());
-		commands.add(new CheckoutCommandFactory());
-		commands.add(new GlobalLogCommandFactory());
-		commands.add(new FindCommandFactory());
-		commands.add(new RmBranchCommandFactory());
-		commands.add(new ResetCommandFactory());
-		commands.add(new MergeCommandFactory());
-		commands.add(new RebaseCommandFactory());
-		commands.add(new InteractiveRebaseCommandFactory());
+		commands.register("init", "gitlet.commands.factories.InitCommandFactory");
+		commands.register("add", "gitlet.commands.factories.AddCommandFactory");
+		commands.register("rm", "gitlet.commands.factories.RmCommandFactory");
+		commands.register("status", "gitlet.commands.factories.StatusCommandFactory");
+		commands.register("branch", "gitlet.commands.factories.BranchCommandFactory");
+		commands.register("commit", "gitlet.commands.factories.CommitCommandFactory");
+		commands.register("log", "gitlet.commands.factories.LogCommandFactory");
+		commands.register("checkout", "gitlet.commands.factories.CheckoutCommandFactory");
+		commands.register("global-log", "gitlet.commands.factories.GlobalLogCommandFactory");
+		commands.register("find", "gitlet.commands.factories.FindCommandFactory");
+		commands.register("rm-branch", "gitlet.commands.factories.RmBranchCommandFactory");
+		commands.register("reset", "gitlet.commands.factories.ResetCommandFactory");
+		commands.register("merge", "gitlet.commands.factories.MergeCommandFactory");
+		commands.register("rebase", "gitlet.commands.factories.RebaseCommandFactory");
+		commands.register("i-rebase", "gitlet.commands.factories.InteractiveRebaseCommandFactory");
+		commands.register("daemon", "gitlet.commands.factories.DaemonCommandFactory");
+		commands.register("batch", "gitlet.commands.factories.BatchCommandFactory");
+		commands.register("serve", "gitlet.commands.factories.ServeCommandFactory");
 		
 		return commands;
 	}
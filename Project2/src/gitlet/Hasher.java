@@ -1,15 +1,25 @@
 package gitlet;
 
+import gitlet.jfr.HashEvent;
+
 import java.security.MessageDigest;
 
 public class Hasher {
 	public static String getSha256(String value) {
+		PerfStats.Phase phase = PerfStats.begin(PerfStats.Phase.HASH);
+		HashEvent event = new HashEvent();
+		event.begin();
 		try {
 			MessageDigest md = MessageDigest.getInstance("SHA-256");
-			md.update(value.getBytes());
+			byte[] bytes = value.getBytes();
+			md.update(bytes);
+			event.bytes = bytes.length;
 			return bytesToHex(md.digest());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
+		} finally {
+			event.commit();
+			PerfStats.end(phase);
 		}
 	}
 
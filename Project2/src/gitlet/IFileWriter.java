@@ -3,12 +3,28 @@ package gitlet;
 
 public interface IFileWriter {
 	void createFile(String fileName, String fileText);
+	String readFile(String fileName);
+	
+	/**
+	 * Returns the file's bytes as they are, for content that may not be
+	 * UTF-8 text.
+	 */
+	byte[] readBytes(String fileName);
 	void createDirectory(String dirName);
 	boolean exists(String name);
 	boolean canWrite(String name);
 	boolean isDirectory(String name);
 	void saveCommit(Commit commit);
 	Commit recoverCommit(String id);
+	
+	/**
+	 * Reads the object of a single commit without recovering its parents,
+	 * for when the commit itself is all that is needed.
+	 */
+	CommitObject readCommitObject(String id);
+	CommitGraph recoverCommitGraph();
+	TimeIndex recoverTimeIndex(String branch);
+	void saveTimeIndex(String branch, TimeIndex index);
 	String getWorkingDirectory();
 	String getCurrentBranchRef();
 	String getCurrentHeadPointer();
@@ -22,5 +38,42 @@ public interface IFileWriter {
 	String getCurrentBranch();
 	boolean filesEqual(String file1, String file2);
 	String[] getAllCommitIds();
+	
+	/**
+	 * Returns the files below directory, or below the whole working
+	 * directory for ".", as paths relative to the working directory in
+	 * sorted order. The repository's own .gitlet directory is left out.
+	 */
+	String[] listFiles(String directory);
+	
+	/**
+	 * Like listFiles(directory), but only the files directly in directory
+	 * unless recursive.
+	 */
+	String[] listFiles(String directory, boolean recursive);
 	void deleteBranch(String branch);
+	void deleteFile(String name);
+	
+	/**
+	 * Takes the repository-wide write lock, waiting a bounded time for
+	 * another process to let go of it. Throws an IllegalStateException if it
+	 * is still held after that. Nested calls need as many unlocks.
+	 */
+	void lockRepository();
+	void unlockRepository();
+	
+	/**
+	 * Makes what was written so far durable, as far as the writer's
+	 * durability setting asks for. Called when a command is done.
+	 */
+	void sync();
+	
+	/**
+	 * Until the transaction is committed, writes to refs, HEAD and the
+	 * staging area are only seen by this writer. Committing journals them
+	 * first, so they all happen or none does even if the process dies.
+	 */
+	void beginTransaction();
+	void commitTransaction();
+	void abortTransaction();
 }
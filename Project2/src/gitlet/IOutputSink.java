@@ -0,0 +1,19 @@
+package gitlet;
+
+import java.io.PrintStream;
+
+/**
+ * Where commands print their messages: getOut for what the user asked for,
+ * getErr for diagnostics. Commands that ask the user something read the
+ * answer from here too.
+ */
+public interface IOutputSink {
+	PrintStream getOut();
+	PrintStream getErr();
+	
+	/**
+	 * Reads one line of the user's answer without its line break, or null
+	 * if there is nothing more to read.
+	 */
+	String readLine();
+}
@@ -0,0 +1,433 @@
+package gitlet;
+
+import gitlet.PerfStats.Phase;
+
+/**
+ * Counts and times every call a command makes to its file writer, into
+ * the command's PerfStats. Time inside the writer is charged to the I/O
+ * phase, or the sync phase for locking, journaling and fsync; the writer
+ * below moves it to other phases where it decodes or hashes.
+ */
+public class InstrumentedFileWriter implements IFileWriter {
+
+	private final IFileWriter delegate;
+	private final PerfStats stats;
+	private final Thread thread;
+
+	/**
+	 * Instruments the calls made from the thread creating the writer. Calls
+	 * from other threads, like add's parallel checks, go straight through;
+	 * the command's thread is timed while it waits for them.
+	 */
+	public InstrumentedFileWriter(IFileWriter delegate, PerfStats stats) {
+		this.delegate = delegate;
+		this.stats = stats;
+		this.thread = Thread.currentThread();
+	}
+
+	public IFileWriter getDelegate() {
+		return delegate;
+	}
+
+	//returns null on other threads, done then does nothing
+	private Phase enter(Phase phase) {
+		return Thread.currentThread() == thread ? stats.enter(phase) : null;
+	}
+
+	private void done(String method, Phase previous, long start) {
+		if (previous == null)
+			return;
+		stats.enter(previous);
+		stats.call(method, System.nanoTime() - start);
+	}
+
+	@Override
+	public void createFile(String fileName, String fileText) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.createFile(fileName, fileText);
+		} finally {
+			done("createFile", previous, start);
+		}
+	}
+
+	@Override
+	public String readFile(String fileName) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.readFile(fileName);
+		} finally {
+			done("readFile", previous, start);
+		}
+	}
+
+	@Override
+	public byte[] readBytes(String fileName) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.readBytes(fileName);
+		} finally {
+			done("readBytes", previous, start);
+		}
+	}
+
+	@Override
+	public void createDirectory(String dirName) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.createDirectory(dirName);
+		} finally {
+			done("createDirectory", previous, start);
+		}
+	}
+
+	@Override
+	public boolean exists(String name) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.exists(name);
+		} finally {
+			done("exists", previous, start);
+		}
+	}
+
+	@Override
+	public boolean canWrite(String name) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.canWrite(name);
+		} finally {
+			done("canWrite", previous, start);
+		}
+	}
+
+	@Override
+	public boolean isDirectory(String name) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.isDirectory(name);
+		} finally {
+			done("isDirectory", previous, start);
+		}
+	}
+
+	@Override
+	public void saveCommit(Commit commit) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.saveCommit(commit);
+		} finally {
+			done("saveCommit", previous, start);
+		}
+	}
+
+	@Override
+	public Commit recoverCommit(String id) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.recoverCommit(id);
+		} finally {
+			done("recoverCommit", previous, start);
+		}
+	}
+
+	@Override
+	public CommitObject readCommitObject(String id) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.readCommitObject(id);
+		} finally {
+			done("readCommitObject", previous, start);
+		}
+	}
+
+	@Override
+	public CommitGraph recoverCommitGraph() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.recoverCommitGraph();
+		} finally {
+			done("recoverCommitGraph", previous, start);
+		}
+	}
+
+	@Override
+	public TimeIndex recoverTimeIndex(String branch) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.recoverTimeIndex(branch);
+		} finally {
+			done("recoverTimeIndex", previous, start);
+		}
+	}
+
+	@Override
+	public void saveTimeIndex(String branch, TimeIndex index) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.saveTimeIndex(branch, index);
+		} finally {
+			done("saveTimeIndex", previous, start);
+		}
+	}
+
+	@Override
+	public String getWorkingDirectory() {
+		return delegate.getWorkingDirectory();
+	}
+
+	@Override
+	public String getCurrentBranchRef() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.getCurrentBranchRef();
+		} finally {
+			done("getCurrentBranchRef", previous, start);
+		}
+	}
+
+	@Override
+	public String getCurrentHeadPointer() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.getCurrentHeadPointer();
+		} finally {
+			done("getCurrentHeadPointer", previous, start);
+		}
+	}
+
+	@Override
+	public String getBranchHead(String branch) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.getBranchHead(branch);
+		} finally {
+			done("getBranchHead", previous, start);
+		}
+	}
+
+	@Override
+	public void makeBranchHead(String branch) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.makeBranchHead(branch);
+		} finally {
+			done("makeBranchHead", previous, start);
+		}
+	}
+
+	@Override
+	public Staging recoverStaging() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.recoverStaging();
+		} finally {
+			done("recoverStaging", previous, start);
+		}
+	}
+
+	@Override
+	public void saveStaging(Staging staging) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.saveStaging(staging);
+		} finally {
+			done("saveStaging", previous, start);
+		}
+	}
+
+	@Override
+	public String[] getAllBranches() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.getAllBranches();
+		} finally {
+			done("getAllBranches", previous, start);
+		}
+	}
+
+	@Override
+	public long lastModified(String name) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.lastModified(name);
+		} finally {
+			done("lastModified", previous, start);
+		}
+	}
+
+	@Override
+	public void copyFile(String filePath, String destPath) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.copyFile(filePath, destPath);
+		} finally {
+			done("copyFile", previous, start);
+		}
+	}
+
+	@Override
+	public String getCurrentBranch() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.getCurrentBranch();
+		} finally {
+			done("getCurrentBranch", previous, start);
+		}
+	}
+
+	@Override
+	public boolean filesEqual(String file1, String file2) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.filesEqual(file1, file2);
+		} finally {
+			done("filesEqual", previous, start);
+		}
+	}
+
+	@Override
+	public String[] getAllCommitIds() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.getAllCommitIds();
+		} finally {
+			done("getAllCommitIds", previous, start);
+		}
+	}
+
+	@Override
+	public String[] listFiles(String directory) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.listFiles(directory);
+		} finally {
+			done("listFiles", previous, start);
+		}
+	}
+
+	@Override
+	public String[] listFiles(String directory, boolean recursive) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			return delegate.listFiles(directory, recursive);
+		} finally {
+			done("listFiles", previous, start);
+		}
+	}
+
+	@Override
+	public void deleteBranch(String branch) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.deleteBranch(branch);
+		} finally {
+			done("deleteBranch", previous, start);
+		}
+	}
+
+	@Override
+	public void deleteFile(String name) {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.IO);
+		try {
+			delegate.deleteFile(name);
+		} finally {
+			done("deleteFile", previous, start);
+		}
+	}
+
+	@Override
+	public void lockRepository() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.SYNC);
+		try {
+			delegate.lockRepository();
+		} finally {
+			done("lockRepository", previous, start);
+		}
+	}
+
+	@Override
+	public void unlockRepository() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.SYNC);
+		try {
+			delegate.unlockRepository();
+		} finally {
+			done("unlockRepository", previous, start);
+		}
+	}
+
+	@Override
+	public void sync() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.SYNC);
+		try {
+			delegate.sync();
+		} finally {
+			done("sync", previous, start);
+		}
+	}
+
+	@Override
+	public void beginTransaction() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.SYNC);
+		try {
+			delegate.beginTransaction();
+		} finally {
+			done("beginTransaction", previous, start);
+		}
+	}
+
+	@Override
+	public void commitTransaction() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.SYNC);
+		try {
+			delegate.commitTransaction();
+		} finally {
+			done("commitTransaction", previous, start);
+		}
+	}
+
+	@Override
+	public void abortTransaction() {
+		long start = System.nanoTime();
+		Phase previous = enter(Phase.SYNC);
+		try {
+			delegate.abortTransaction();
+		} finally {
+			done("abortTransaction", previous, start);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package gitlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The ref and staging writes of one command, written to .gitlet/journal
+ * before any of them is applied. Once the journal is on disk the command
+ * has happened: recovery applies the writes again if it finds the journal,
+ * and throws away a journal that was torn before it was complete.
+ *
+ * The format is the magic string, the number of writes, each write as
+ * its path, whether it deletes the file, and the new content, and a CRC32
+ * of everything before it.
+ */
+public class Journal {
+
+	public static final String FILE = ".gitlet/journal";
+
+	private static final String MAGIC = "gitlet-journal 1";
+
+	/**
+	 * Encodes writes by path, a null content deletes the file.
+	 */
+	public static byte[] encode(Map<String, byte[]> writes) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			output.writeUTF(MAGIC);
+			output.writeInt(writes.size());
+			for (Map.Entry<String, byte[]> write : writes.entrySet()) {
+				output.writeUTF(write.getKey());
+				output.writeBoolean(write.getValue() == null);
+				if (write.getValue() != null) {
+					output.writeInt(write.getValue().length);
+					output.write(write.getValue());
+				}
+			}
+			output.flush();
+			CRC32 crc = new CRC32();
+			crc.update(bytes.toByteArray());
+			output.writeLong(crc.getValue());
+		} catch (IOException e) {
+			//a ByteArrayOutputStream doesn't throw
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Returns the writes in journal, in order, or null if it is incomplete or
+	 * damaged.
+	 */
+	public static Map<String, byte[]> decode(byte[] journal) {
+		if (journal.length < 8)
+			return null;
+		CRC32 crc = new CRC32();
+		crc.update(journal, 0, journal.length - 8);
+		try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(journal))) {
+			if (!MAGIC.equals(input.readUTF()))
+				return null;
+			Map<String, byte[]> writes = new LinkedHashMap<String, byte[]>();
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				String path = input.readUTF();
+				byte[] content = null;
+				if (!input.readBoolean()) {
+					int length = input.readInt();
+					if (length < 0 || length > input.available())
+						return null;
+					content = new byte[length];
+					input.readFully(content);
+				}
+				writes.put(path, content);
+			}
+			if (input.readLong() != crc.getValue() || input.read() >= 0)
+				return null;
+			return writes;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package gitlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A lock on a file, held by creating TARGET.lock exclusively. Whoever holds
+ * it writes the new content into the lock file and renames it over the
+ * target, so readers never lock and see either the old or the new file.
+ *
+ * Another process holding the lock is waited out with growing, jittered
+ * sleeps for a bounded time. A lock file left behind by a process that
+ * died has to be removed by hand.
+ */
+public class LockFile implements AutoCloseable {
+
+	public static final String SUFFIX = ".lock";
+
+	private static final long FIRST_BACKOFF_MILLIS = 2;
+	private static final long MAX_BACKOFF_MILLIS = 200;
+
+	private final Path target;
+	private final Path lock;
+	private final FileChannel channel;
+	private final OutputStream content;
+	private boolean held;
+
+	private LockFile(Path target, Path lock, FileChannel channel) {
+		this.target = target;
+		this.lock = lock;
+		this.channel = channel;
+		this.content = Channels.newOutputStream(channel);
+		this.held = true;
+	}
+
+	/**
+	 * Locks target, waiting up to timeoutMillis for another holder to let
+	 * go. Throws an IOException if the lock is still held after that.
+	 */
+	public static LockFile acquire(Path target, long timeoutMillis) throws IOException {
+		Path lock = target.resolveSibling(target.getFileName() + SUFFIX);
+		long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+		long backoff = FIRST_BACKOFF_MILLIS;
+
+		while (true) {
+			try {
+				FileChannel channel = FileChannel.open(lock, StandardOpenOption.CREATE_NEW,
+						StandardOpenOption.WRITE);
+				return new LockFile(target, lock, channel);
+			} catch (FileAlreadyExistsException e) {
+				long left = deadline - System.nanoTime();
+				if (left <= 0)
+					throw new IOException("Unable to create '" + lock + "': File exists. "
+							+ "Another gitlet process seems to be running in this repository; "
+							+ "if not, remove the file and try again.");
+				long wait = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+				sleep(Math.min((left + 999999L) / 1000000L, wait));
+				backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+			}
+		}
+	}
+
+	/**
+	 * Replaces target with content, atomically, and releases the lock.
+	 */
+	public static void write(Path target, byte[] content, long timeoutMillis) throws IOException {
+		try (LockFile lock = acquire(target, timeoutMillis)) {
+			lock.getOutputStream().write(content);
+			lock.commit();
+		}
+	}
+
+	public static boolean isLockFile(String name) {
+		return name.endsWith(SUFFIX);
+	}
+
+	/**
+	 * Where the new content of the target goes.
+	 */
+	public OutputStream getOutputStream() {
+		return content;
+	}
+
+	public Path getTarget() {
+		return target;
+	}
+
+	/**
+	 * Forces what was written so far to disk.
+	 */
+	public void sync() throws IOException {
+		channel.force(true);
+	}
+
+	/**
+	 * Renames the lock file over the target, which releases the lock.
+	 */
+	public void commit() throws IOException {
+		content.close();
+		try {
+			Files.move(lock, target, StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(lock, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		held = false;
+	}
+
+	/**
+	 * Releases the lock without touching the target if it wasn't committed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!held)
+			return;
+		held = false;
+		try {
+			content.close();
+		} finally {
+			Files.deleteIfExists(lock);
+		}
+	}
+
+	private static void sleep(long millis) throws IOException {
+		try {
+			Thread.sleep(Math.max(1, millis));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted waiting for a lock", e);
+		}
+	}
+}
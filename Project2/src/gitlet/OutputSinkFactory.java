@@ -0,0 +1,42 @@
+package gitlet;
+
+/**
+ * Hands commands their output sink. Like FileWriterFactory, a thread can
+ * bind its own sink over the process wide one.
+ */
+public class OutputSinkFactory {
+	private static volatile IOutputSink _instance;
+	private static final ThreadLocal<IOutputSink> bound = new ThreadLocal<IOutputSink>();
+	
+	public static IOutputSink getSink(){
+		IOutputSink sink = bound.get();
+		if(sink != null)
+			return sink;
+		if(_instance == null)
+			_instance = new ConsoleOutputSink();
+		return _instance;
+	}
+	
+	/**
+	 * Makes getSink return instance on this thread, or go back to the
+	 * process wide sink if instance is null. Returns the sink that was bound
+	 * before.
+	 */
+	public static IOutputSink bind(IOutputSink instance){
+		IOutputSink previous = bound.get();
+		if(instance == null)
+			bound.remove();
+		else
+			bound.set(instance);
+		return previous;
+	}
+	
+	public static void setSink(IOutputSink instance){
+		_instance = instance;
+	}
+	
+	public static void useDefault(){
+		_instance = new ConsoleOutputSink();
+		bound.remove();
+	}
+}
@@ -0,0 +1,83 @@
+package gitlet;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every distinct path, and every commit id files point at, an int id,
+ * so file maps can hold ids instead of their own copies of every string.
+ *
+ * A table belongs to the file maps made with it. A map made from another
+ * one keeps its table, and a writer has one for all the commits it reads,
+ * so the commits of a repository share one copy of each string. Nothing
+ * else holds on to a table, so it goes away with the writer and the last
+ * of its maps instead of growing for as long as the process runs. Ids are
+ * never reused and never written to disk.
+ *
+ * Looking up a string that has an id never locks; handing out a new id
+ * does.
+ */
+public class PathTable {
+
+	private final Strings paths = new Strings();
+	private final Strings pointers = new Strings();
+
+	/**
+	 * Returns the id of path, giving it the next id if it has none.
+	 */
+	public int pathId(String path) {
+		return paths.id(path);
+	}
+
+	/**
+	 * Returns the id of path, or -1 if it has none. Doesn't add it.
+	 */
+	public int findPath(String path) {
+		return paths.find(path);
+	}
+
+	public String path(int id) {
+		return paths.get(id);
+	}
+
+	public int pointerId(String pointer) {
+		return pointers.id(pointer);
+	}
+
+	public String pointer(int id) {
+		return pointers.get(id);
+	}
+
+	private static class Strings {
+		private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+		private volatile String[] strings = new String[64];
+		private int size;
+
+		int id(String value) {
+			Integer id = ids.get(value);
+			if (id != null)
+				return id;
+			synchronized (this) {
+				id = ids.get(value);
+				if (id != null)
+					return id;
+				if (size == strings.length)
+					strings = Arrays.copyOf(strings, size * 2);
+				//the string goes in before the id is published, so whoever
+				//finds the id can look the string up
+				strings[size] = value;
+				ids.put(value, size);
+				return size++;
+			}
+		}
+
+		int find(String value) {
+			Integer id = ids.get(value);
+			return id == null ? -1 : id;
+		}
+
+		String get(int id) {
+			return strings[id];
+		}
+	}
+}
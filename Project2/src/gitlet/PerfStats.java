@@ -0,0 +1,235 @@
+package gitlet;
+
+import gitlet.http.Json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counters and phase timers for one command, to tell whether it spends its
+ * time in I/O, decoding commits or hashing. Shown after the command with
+ * --stats (or --stats=json), or by setting GITLET_TRACE=perf (or
+ * perf-json).
+ *
+ * The stats are bound to the thread running the command; code that
+ * records into them does nothing when none are bound. Phases nest and are
+ * timed exclusively: time spent hashing while decoding a commit counts as
+ * hashing only, so the phases add up to the whole command.
+ */
+public class PerfStats {
+
+	public enum Phase {
+		/** Everything not in another phase: parsing, diffing, bookkeeping. */
+		COMMAND,
+		/** Reading, writing and stat-ing files through the file writer. */
+		IO,
+		/** Deserializing commits, the staging area and indexes. */
+		DECODE,
+		HASH,
+		/** Locking, journaling and fsync. */
+		SYNC
+	}
+
+	public enum Counter {
+		OBJECTS_READ, OBJECTS_WRITTEN, BYTES_READ, BYTES_WRITTEN, BYTES_COPIED, CACHE_HITS, CACHE_MISSES
+	}
+
+	private static final ThreadLocal<PerfStats> bound = new ThreadLocal<PerfStats>();
+
+	private final String command;
+	private final long[] counters = new long[Counter.values().length];
+	private final long[] phaseNanos = new long[Phase.values().length];
+	//calls to each file writer method, as {count, nanos}
+	private final Map<String, long[]> calls = new HashMap<String, long[]>();
+	private final long start;
+	private long end;
+	private Phase phase = Phase.COMMAND;
+	private long phaseStart;
+
+	public PerfStats(String command) {
+		this.command = command;
+		this.start = System.nanoTime();
+		this.phaseStart = start;
+	}
+
+	/**
+	 * Returns "summary" or "json" if GITLET_TRACE asks for stats, else null.
+	 */
+	public static String fromSettings() {
+		String trace = System.getenv("GITLET_TRACE");
+		if ("perf".equals(trace))
+			return "summary";
+		if ("perf-json".equals(trace))
+			return "json";
+		return null;
+	}
+
+	/**
+	 * Returns the stats bound to this thread, or null.
+	 */
+	public static PerfStats current() {
+		return bound.get();
+	}
+
+	/**
+	 * Binds stats to this thread, or unbinds them if stats is null. Returns
+	 * the stats bound before.
+	 */
+	public static PerfStats bind(PerfStats stats) {
+		PerfStats previous = bound.get();
+		if (stats == null)
+			bound.remove();
+		else
+			bound.set(stats);
+		return previous;
+	}
+
+	/**
+	 * Adds to a counter of the bound stats, if any.
+	 */
+	public static void count(Counter counter, long amount) {
+		PerfStats stats = bound.get();
+		if (stats != null)
+			stats.add(counter, amount);
+	}
+
+	/**
+	 * Enters a phase of the bound stats, if any, and returns the phase to go
+	 * back to with end, or null if there are no stats.
+	 */
+	public static Phase begin(Phase phase) {
+		PerfStats stats = bound.get();
+		return stats == null ? null : stats.enter(phase);
+	}
+
+	public static void end(Phase previous) {
+		PerfStats stats = bound.get();
+		if (previous != null && stats != null)
+			stats.enter(previous);
+	}
+
+	/**
+	 * Charges the time since the last switch to the current phase and makes
+	 * next the current one. Returns the phase that was current.
+	 */
+	public Phase enter(Phase next) {
+		long now = System.nanoTime();
+		phaseNanos[phase.ordinal()] += now - phaseStart;
+		phaseStart = now;
+		Phase previous = phase;
+		phase = next;
+		return previous;
+	}
+
+	public void add(Counter counter, long amount) {
+		counters[counter.ordinal()] += amount;
+	}
+
+	public long get(Counter counter) {
+		return counters[counter.ordinal()];
+	}
+
+	/**
+	 * Records a call to a file writer method that took nanos.
+	 */
+	public void call(String method, long nanos) {
+		long[] call = calls.get(method);
+		if (call == null)
+			calls.put(method, call = new long[2]);
+		call[0]++;
+		call[1] += nanos;
+	}
+
+	public long getCalls(String method) {
+		long[] call = calls.get(method);
+		return call == null ? 0 : call[0];
+	}
+
+	/**
+	 * Stops the clock; the time so far is charged to the current phase.
+	 */
+	public void finish() {
+		enter(phase);
+		end = phaseStart;
+	}
+
+	public long getNanos(Phase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	public long getTotalNanos() {
+		return (end == 0 ? System.nanoTime() : end) - start;
+	}
+
+	public String toSummary() {
+		StringBuilder summary = new StringBuilder();
+		summary.append("gitlet ").append(command).append(": ").append(millis(getTotalNanos())).append(" ms\n");
+
+		summary.append("  phases:");
+		for (Phase p : Phase.values())
+			summary.append(' ').append(name(p)).append(' ').append(millis(getNanos(p))).append(" ms");
+		summary.append('\n');
+
+		summary.append("  objects: ").append(get(Counter.OBJECTS_READ)).append(" read, ")
+				.append(get(Counter.OBJECTS_WRITTEN)).append(" written\n");
+		summary.append("  bytes: ").append(get(Counter.BYTES_READ)).append(" read, ")
+				.append(get(Counter.BYTES_WRITTEN)).append(" written, ")
+				.append(get(Counter.BYTES_COPIED)).append(" copied\n");
+		summary.append("  cache: ").append(get(Counter.CACHE_HITS)).append(" hits, ")
+				.append(get(Counter.CACHE_MISSES)).append(" misses\n");
+
+		summary.append("  calls:");
+		for (String method : methodsBySlowest())
+			summary.append(' ').append(method).append(' ').append(calls.get(method)[0])
+					.append(" (").append(millis(calls.get(method)[1])).append(" ms)");
+		return summary.toString();
+	}
+
+	public String toJson() {
+		Json phases = new Json();
+		for (Phase p : Phase.values())
+			phases.field(name(p), millis(getNanos(p)));
+		Json counts = new Json();
+		for (Counter c : Counter.values())
+			counts.field(name(c), Long.toString(get(c)));
+		Json methods = new Json();
+		for (String method : methodsBySlowest())
+			methods.field(method, new Json().field("count", Long.toString(calls.get(method)[0]))
+					.field("ms", millis(calls.get(method)[1])).toString());
+		return new Json().field("command", Json.string(command))
+				.field("ms", millis(getTotalNanos()))
+				.field("phases", phases.toString())
+				.field("counters", counts.toString())
+				.field("calls", methods.toString())
+				.toString();
+	}
+
+	private List<String> methodsBySlowest() {
+		List<String> methods = new ArrayList<String>(calls.keySet());
+		Collections.sort(methods, new Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				return Long.compare(calls.get(b)[1], calls.get(a)[1]);
+			}
+		});
+		return methods;
+	}
+
+	private static String name(Enum<?> value) {
+		//OBJECTS_READ becomes objectsRead
+		String[] words = value.name().toLowerCase(Locale.ROOT).split("_");
+		StringBuilder name = new StringBuilder(words[0]);
+		for (int i = 1; i < words.length; i++)
+			name.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+		return name.toString();
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+	}
+}
@@ -0,0 +1,278 @@
+package gitlet;
+
+import gitlet.commands.AddCommand;
+import gitlet.commands.BranchCommand;
+import gitlet.commands.CheckoutBranchCommand;
+import gitlet.commands.CheckoutFileCommand;
+import gitlet.commands.CommandParser;
+import gitlet.commands.CommandRunner;
+import gitlet.commands.CommitCommand;
+import gitlet.commands.ICommand;
+import gitlet.commands.InitCommand;
+import gitlet.commands.MergeCommand;
+import gitlet.commands.RebaseCommand;
+import gitlet.commands.ResetCommand;
+import gitlet.commands.RmBranchCommand;
+import gitlet.commands.RmCommand;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A gitlet repository opened on an explicit root directory, for running
+ * commands in process instead of through the command line. Paths given to
+ * the commands are relative to the root, messages go to the repository's
+ * output sink, and commands that would ask for confirmation on the command
+ * line just run.
+ *
+ * The writer comes from FileWriterFactory's registry, so every Repository
+ * on the same root shares one writer and its caches. Commands on the same
+ * repository are serialized on that writer; commands on different
+ * repositories run concurrently, each thread binding its repository's
+ * writer and sink while it runs a command.
+ *
+ * Queries never wait for a command. They read the snapshot published by
+ * the last command that finished, see getSnapshot, and commits, which
+ * never change.
+ */
+public class Repository {
+
+	private final File root;
+	private final CachingFileWriter fileWriter;
+	private final IOutputSink output;
+
+	private Repository(File root, IOutputSink output) {
+		this.root = root.getAbsoluteFile();
+		this.fileWriter = FileWriterFactory.getWriter(this.root);
+		this.output = output;
+	}
+
+	/**
+	 * Opens the repository in root, printing messages to System.out and
+	 * System.err.
+	 */
+	public static Repository open(File root) {
+		return open(root, new ConsoleOutputSink());
+	}
+
+	/**
+	 * Opens the repository in root. Throws an IllegalArgumentException if
+	 * root has no .gitlet directory.
+	 */
+	public static Repository open(File root, IOutputSink output) {
+		if (!new File(root, ".gitlet").isDirectory())
+			throw new IllegalArgumentException("Not a gitlet repository: " + root);
+		return new Repository(root, output);
+	}
+
+	/**
+	 * Creates a repository in root, or opens the one that is already there.
+	 * Throws an IllegalStateException if it can't be created.
+	 */
+	public static Repository init(File root, IOutputSink output) {
+		root.mkdirs();
+		Repository repository = new Repository(root, output);
+		if (!repository.fileWriter.isDirectory(".gitlet")) {
+			CommandResult result = repository.execute(() -> new InitCommand());
+			if (!result.isSucceeded())
+				throw new IllegalStateException("Cannot create a gitlet repository in " + root);
+		}
+		return repository;
+	}
+
+	public File getRoot() {
+		return root;
+	}
+
+	public IOutputSink getOutput() {
+		return output;
+	}
+
+	/**
+	 * Runs a command given as command line arguments, e.g. "log", "--",
+	 * "dir". Commands that would ask for confirmation run without asking.
+	 */
+	public CommandResult run(final String... args) {
+		if (args.length == 0)
+			throw new IllegalArgumentException("Need a subcommand");
+		return execute(() -> {
+			ICommand command = new CommandParser(Gitlet.getCommandRegistry()).parseCommand(args);
+			if (command == null)
+				output.getErr().println("Unknown command: " + args[0]);
+			return command;
+		});
+	}
+
+	public CommandResult add(String file) {
+		return execute(() -> new AddCommand(file));
+	}
+
+	public CommandResult rm(String file) {
+		return execute(() -> new RmCommand(file));
+	}
+
+	public CommandResult commit(String message) {
+		return execute(() -> new CommitCommand(message));
+	}
+
+	public CommandResult branch(String name) {
+		return execute(() -> new BranchCommand(name));
+	}
+
+	public CommandResult removeBranch(String name) {
+		return execute(() -> new RmBranchCommand(name));
+	}
+
+	public CommandResult checkoutBranch(String name) {
+		return execute(() -> new CheckoutBranchCommand(name));
+	}
+
+	/**
+	 * Restores a file as it is in the current head.
+	 */
+	public CommandResult checkoutFile(String file) {
+		return execute(() -> new CheckoutFileCommand(file));
+	}
+
+	public CommandResult checkoutFile(String commitId, String file) {
+		return execute(() -> new CheckoutFileCommand(commitId, file));
+	}
+
+	public CommandResult reset(String commitId) {
+		return execute(() -> new ResetCommand(commitId));
+	}
+
+	public CommandResult merge(String branch) {
+		return execute(() -> new MergeCommand(branch));
+	}
+
+	public CommandResult rebase(String branch) {
+		return execute(() -> new RebaseCommand(branch));
+	}
+
+	/**
+	 * Returns the refs and staging area as the last command left them. Use
+	 * one snapshot for several queries that have to agree with each other.
+	 */
+	public Snapshot getSnapshot() {
+		return fileWriter.getSnapshot();
+	}
+
+	public String getCurrentBranch() {
+		return getSnapshot().getCurrentBranch();
+	}
+
+	/**
+	 * Returns the id of the current branch's head.
+	 */
+	public String getHead() {
+		return getSnapshot().getHead();
+	}
+
+	/**
+	 * Returns the id of the branch's head, or null if there is no such
+	 * branch.
+	 */
+	public String getBranchHead(String branch) {
+		return getSnapshot().getBranchHead(branch);
+	}
+
+	public List<String> getBranches() {
+		return getSnapshot().getBranches();
+	}
+
+	/**
+	 * Returns the commit with the given id, or null if there is none.
+	 */
+	public Commit getCommit(String id) {
+		try {
+			return fileWriter.recoverCommit(id);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the history of the current head, newest first, following first
+	 * parents like log does.
+	 */
+	public List<Commit> log() {
+		List<Commit> commits = new ArrayList<Commit>();
+		for (Commit c = getCommit(getHead()); c != null; c = c.getParent())
+			commits.add(c);
+		return commits;
+	}
+
+	/**
+	 * Returns the ids of every commit with the given message.
+	 */
+	public List<String> find(String message) {
+		List<String> ids = new ArrayList<String>();
+		for (String id : fileWriter.getAllCommitIds()) {
+			Commit commit = getCommit(id);
+			if (commit != null && message.equals(commit.getMessage()))
+				ids.add(id);
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the ids of every commit, in no particular order.
+	 */
+	public List<String> getCommitIds() {
+		return Arrays.asList(fileWriter.getAllCommitIds());
+	}
+
+	/**
+	 * Returns the text of a file as it is in a commit, or null if there is no
+	 * such commit or the file isn't in it.
+	 */
+	public String readFile(String commitId, String file) {
+		Commit commit = getCommit(commitId);
+		if (commit == null || commit.getFilePointers() == null)
+			return null;
+		String pointer = commit.getFilePointers().get(file);
+		if (pointer == null)
+			return null;
+		return fileWriter.readFile(".gitlet/objects/" + pointer + "/" + file);
+	}
+
+	/**
+	 * Returns the files staged for the next commit.
+	 */
+	public Staging getStaging() {
+		return getSnapshot().getStaging();
+	}
+
+	/**
+	 * Creates the command and runs it.
+	 */
+	private CommandResult execute(Supplier<ICommand> commandSupplier) {
+		return withRepository(() -> {
+			ICommand command = commandSupplier.get();
+			boolean succeeded = command != null && CommandRunner.execute(command);
+			Snapshot snapshot = fileWriter.getSnapshot();
+			String head = snapshot == null ? null : snapshot.getHead();
+			return new CommandResult(succeeded, head);
+		});
+	}
+
+	/**
+	 * Runs the action with this repository's writer and sink installed.
+	 */
+	private <T> T withRepository(Supplier<T> action) {
+		synchronized (fileWriter) {
+			IFileWriter previousWriter = FileWriterFactory.bind(fileWriter);
+			IOutputSink previousSink = OutputSinkFactory.bind(output);
+			try {
+				return action.get();
+			} finally {
+				FileWriterFactory.bind(previousWriter);
+				OutputSinkFactory.bind(previousSink);
+			}
+		}
+	}
+}
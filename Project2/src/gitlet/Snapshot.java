@@ -0,0 +1,76 @@
+package gitlet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The refs and staging area of a repository as they were at one point in
+ * time. A snapshot never changes, so a reader that holds on to one sees a
+ * consistent repository however many commands run meanwhile. Commits are
+ * immutable already and are read by id as usual.
+ */
+public class Snapshot {
+
+	private final long version;
+	private final String currentBranch;
+	private final Map<String, String> branchHeads;
+	private final List<String> filesToAdd;
+	private final List<String> filesToRm;
+
+	public Snapshot(long version, String currentBranch, Map<String, String> branchHeads,
+			Staging staging) {
+		this.version = version;
+		this.currentBranch = currentBranch;
+		this.branchHeads = Collections.unmodifiableMap(new TreeMap<String, String>(branchHeads));
+		this.filesToAdd = Collections.unmodifiableList(staging == null ? new ArrayList<String>()
+				: new ArrayList<String>(staging.getFilesToAdd()));
+		this.filesToRm = Collections.unmodifiableList(staging == null ? new ArrayList<String>()
+				: new ArrayList<String>(staging.getFilesToRm()));
+	}
+
+	/**
+	 * Grows by one with every snapshot published for the repository.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public String getCurrentBranch() {
+		return currentBranch;
+	}
+
+	/**
+	 * Returns the id of the current branch's head.
+	 */
+	public String getHead() {
+		return branchHeads.get(currentBranch);
+	}
+
+	/**
+	 * Returns the id of the branch's head, or null if there is no such
+	 * branch.
+	 */
+	public String getBranchHead(String branch) {
+		return branchHeads.get(branch);
+	}
+
+	/**
+	 * Returns the branch names, sorted.
+	 */
+	public List<String> getBranches() {
+		return new ArrayList<String>(branchHeads.keySet());
+	}
+
+	/**
+	 * Returns a copy of the staging area, free to change.
+	 */
+	public Staging getStaging() {
+		Staging staging = new Staging();
+		staging.setFilesToAdd(new ArrayList<String>(filesToAdd));
+		staging.setFilesToRm(new ArrayList<String>(filesToRm));
+		return staging;
+	}
+}
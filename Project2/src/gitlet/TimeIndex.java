@@ -0,0 +1,268 @@
+package gitlet;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Time sorted index of the commits on a branch (first parents only), so a
+ * point in time can be mapped to a commit with a binary search instead of a
+ * walk over the history. The index remembers the head it was built for and
+ * is extended with the new commits when the branch moves forward.
+ */
+public class TimeIndex {
+
+	private static final String[] DATE_FORMATS = { "yyyy-MM-dd HH:mm:ss",
+			"yyyy-MM-dd HH:mm", "yyyy-MM-dd" };
+	private static final String[] TIME_FORMATS = { "HH:mm:ss", "HH:mm" };
+	private static final Pattern REVISION = Pattern.compile("(.*)@\\{(.+)\\}");
+
+	private final String headId;
+	private final long[] timeStamps;
+	private final String[] ids;
+
+	/**
+	 * Entries have to be sorted by timestamp, oldest first.
+	 */
+	public TimeIndex(String headId, long[] timeStamps, String[] ids) {
+		this.headId = headId;
+		this.timeStamps = timeStamps;
+		this.ids = ids;
+	}
+
+	public String getHeadId() {
+		return headId;
+	}
+
+	public long[] getTimeStamps() {
+		return timeStamps;
+	}
+
+	public String[] getIds() {
+		return ids;
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Returns the id of the last commit made at or before the given time, or
+	 * null if the branch has no commit that old.
+	 */
+	public String lastAtOrBefore(long time) {
+		int index = upperBound(time) - 1;
+		return index < 0 ? null : ids[index];
+	}
+
+	/**
+	 * Returns the number of entries with a timestamp at or before the given
+	 * time, which is also the index of the first entry after it.
+	 */
+	public int upperBound(long time) {
+		int low = 0;
+		int high = timeStamps.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timeStamps[mid] <= time)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the index for the branch, extending or rebuilding the saved one
+	 * if the branch head moved since it was written.
+	 */
+	public static TimeIndex forBranch(IFileWriter fileWriter, String branch) {
+		String head = fileWriter.getBranchHead(branch);
+		TimeIndex saved = fileWriter.recoverTimeIndex(branch);
+		if (saved != null && head.equals(saved.getHeadId()))
+			return saved;
+
+		//walk back from the new head until we reach the head the saved index
+		//was built for. If we never reach it the branch was reset or rebased, and
+		//the whole index is rebuilt
+		String stop = saved == null ? null : saved.getHeadId();
+		CommitGraph graph = fileWriter.recoverCommitGraph();
+		List<String> newIds = new ArrayList<String>();
+		List<Long> newTimes = new ArrayList<Long>();
+		Commit loaded = null;
+		String id = head;
+		boolean reachedStop = false;
+		while (id != null) {
+			if (id.equals(stop)) {
+				reachedStop = true;
+				break;
+			}
+			CommitGraph.Entry entry = graph.getEntry(id);
+			if (entry != null) {
+				newIds.add(id);
+				newTimes.add(entry.getTimeStamp());
+				id = entry.getParentId();
+			} else {
+				//not in the graph, fall back to the commit object
+				while (loaded != null && !loaded.getId().equals(id))
+					loaded = loaded.getParent();
+				if (loaded == null)
+					loaded = fileWriter.recoverCommit(id);
+				newIds.add(id);
+				newTimes.add(loaded.getTimeStamp());
+				id = loaded.getParent() == null ? null : loaded.getParent()
+						.getId();
+			}
+		}
+
+		int kept = reachedStop ? saved.size() : 0;
+		final long[] times = new long[kept + newIds.size()];
+		String[] ids = new String[times.length];
+		if (kept > 0) {
+			System.arraycopy(saved.timeStamps, 0, times, 0, kept);
+			System.arraycopy(saved.ids, 0, ids, 0, kept);
+		}
+		//the walk went newest first
+		for (int i = 0; i < newIds.size(); i++) {
+			times[times.length - 1 - i] = newTimes.get(i);
+			ids[ids.length - 1 - i] = newIds.get(i);
+		}
+
+		TimeIndex index = sorted(head, times, ids);
+		fileWriter.saveTimeIndex(branch, index);
+		return index;
+	}
+
+	/**
+	 * Parent commits are older than their children unless a clock went
+	 * backwards, so this is almost always a no-op check.
+	 */
+	private static TimeIndex sorted(String head, final long[] times,
+			String[] ids) {
+		boolean isSorted = true;
+		for (int i = 1; i < times.length && isSorted; i++)
+			isSorted = times[i - 1] <= times[i];
+		if (isSorted)
+			return new TimeIndex(head, times, ids);
+
+		Integer[] order = new Integer[times.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Long.compare(times[a], times[b]);
+			}
+		});
+		long[] sortedTimes = new long[times.length];
+		String[] sortedIds = new String[ids.length];
+		for (int i = 0; i < order.length; i++) {
+			sortedTimes[i] = times[order[i]];
+			sortedIds[i] = ids[order[i]];
+		}
+		return new TimeIndex(head, sortedTimes, sortedIds);
+	}
+
+	/**
+	 * Returns true for revisions of the form branch@{date}. The branch may be
+	 * left out to mean the current branch.
+	 */
+	public static boolean isRevision(String text) {
+		return REVISION.matcher(text).matches();
+	}
+
+	public static String getRevisionBranch(IFileWriter fileWriter,
+			String revision) {
+		Matcher matcher = REVISION.matcher(revision);
+		matcher.matches();
+		String branch = matcher.group(1);
+		return branch.isEmpty() ? fileWriter.getCurrentBranch() : branch;
+	}
+
+	public static Long getRevisionTime(String revision) {
+		Matcher matcher = REVISION.matcher(revision);
+		matcher.matches();
+		return parseTime(matcher.group(2));
+	}
+
+	/**
+	 * Returns the id of the last commit on the revision's branch made at or
+	 * before the revision's date. Throws an IllegalArgumentException with a
+	 * message for the user if the revision can't be resolved.
+	 */
+	public static String resolveRevision(IFileWriter fileWriter, String revision) {
+		String branch = getRevisionBranch(fileWriter, revision);
+		if (!fileWriter.exists(".gitlet/refs/heads/" + branch))
+			throw new IllegalArgumentException(
+					"A branch with that name does not exist.");
+
+		Long time = getRevisionTime(revision);
+		if (time == null)
+			throw new IllegalArgumentException("Invalid date in " + revision);
+
+		String id = forBranch(fileWriter, branch).lastAtOrBefore(time);
+		if (id == null)
+			throw new IllegalArgumentException(
+					"No commit on that branch at or before that date.");
+		return id;
+	}
+
+	/**
+	 * Parses the dates accepted on the command line: the format printed by
+	 * log (optionally without seconds or without the time), a time of day
+	 * for today, or a time since the epoch: 10 digits are seconds, as date
+	 * +%s prints them, and 13 digits are milliseconds. Any other number of
+	 * digits is not a date. Returns null if the text is not a date.
+	 */
+	public static Long parseTime(String text) {
+		text = text.trim();
+		if (text.matches("\\d{10}"))
+			return Long.parseLong(text) * 1000;
+		if (text.matches("\\d{13}"))
+			return Long.parseLong(text);
+		if (text.matches("\\d+"))
+			return null;
+
+		for (String pattern : DATE_FORMATS) {
+			Date date = parse(text, pattern);
+			if (date != null)
+				return date.getTime();
+		}
+
+		for (String pattern : TIME_FORMATS) {
+			Date time = parse(text, pattern);
+			if (time != null) {
+				Calendar parsed = Calendar.getInstance();
+				parsed.setTime(time);
+				Calendar today = Calendar.getInstance();
+				today.set(Calendar.HOUR_OF_DAY, parsed.get(Calendar.HOUR_OF_DAY));
+				today.set(Calendar.MINUTE, parsed.get(Calendar.MINUTE));
+				today.set(Calendar.SECOND, parsed.get(Calendar.SECOND));
+				today.set(Calendar.MILLISECOND, 0);
+				return today.getTimeInMillis();
+			}
+		}
+		return null;
+	}
+
+	private static Date parse(String text, String pattern) {
+		SimpleDateFormat format = new SimpleDateFormat(pattern);
+		format.setLenient(false);
+		try {
+			Date date = format.parse(text);
+			//parse ignores trailing text, we don't
+			if (!format.format(date).equals(text))
+				return null;
+			return date;
+		} catch (ParseException e) {
+			return null;
+		}
+	}
+}
@@ -1,22 +1,42 @@
 package gitlet.commands;
 
+import gitlet.Commit;
+import gitlet.FileMap;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.PerfStats;
 import gitlet.Staging;
 
-import java.io.File;
-
-import junit.framework.AssertionFailedError;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class AddCommand implements ICommand {
 
+	//below this many files a task checks them itself instead of splitting
+	private static final int FILES_PER_TASK = 64;
+
 	private IFileWriter fileWriter;
-	private String fileToAdd;
+	private IOutputSink output;
+	private String[] filesToAdd;
 	
-	public AddCommand(String filename) {
-		// TODO Auto-generated constructor stub
-		fileToAdd = filename;
+	/**
+	 * Adds files, the files below directories ("." for all of them) and the
+	 * files matching glob patterns such as "src/*.java".
+	 */
+	public AddCommand(String... filenames) {
+		filesToAdd = filenames;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -25,14 +45,32 @@ public class AddCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
+		if(filesToAdd.length == 0){
+			output.getOut().println("Please enter a file name.");
+			output.getErr().println("Please enter a file name.");
+			return false;
+		}
+		
+		//a single file is added as it always was, with its messages
+		if(filesToAdd.length == 1 && !isPattern(filesToAdd[0]) && !isDirectory(filesToAdd[0]))
+			return addFile(filesToAdd[0]);
+		return addAll();
+	}
+	
+	private boolean addFile(String fileToAdd) {
 		
 		//if the file doesn't exists, print error message and 
 		//return false
 		if(!fileWriter.exists(fileToAdd)){
-			System.out.println("File does not exist.");
-			System.err.println("File does not exist: " + fileToAdd);
+			output.getOut().println("File does not exist.");
+			output.getErr().println("File does not exist: " + fileToAdd);
 			return false;
 		}
 		
@@ -71,8 +109,8 @@ public class AddCommand implements ICommand {
 			//String ts2 = convertTime(toAddLM);		
 			//if(commitLM == toAddLM){
 			if(commitLM == toAddLM && fileWriter.filesEqual(commitFile, fileToAdd)){
-				System.out.println("File has not been modified since the last commit.");
-				System.err.println("File has not been modified since the last commit.");
+				output.getOut().println("File has not been modified since the last commit.");
+				output.getErr().println("File has not been modified since the last commit.");
 				return false;
 			} else {
 				//if file is found and not unmodified, add to filesToAdd, resave
@@ -84,6 +122,150 @@ public class AddCommand implements ICommand {
 		}
 	}
 
+	/**
+	 * Stages every file the arguments name that is new or changed since the
+	 * head commit, and saves the staging area once. Unchanged files are
+	 * skipped quietly. The files are checked in parallel; nothing is staged
+	 * if an argument names no file.
+	 */
+	private boolean addAll() {
+		Set<String> files = new TreeSet<String>();
+		for(String name : filesToAdd){
+			String[] expanded = expand(name);
+			if(expanded.length == 0){
+				output.getOut().println("File does not exist.");
+				output.getErr().println("File does not exist: " + name);
+				return false;
+			}
+			files.addAll(Arrays.asList(expanded));
+		}
+		
+		Staging staging = fileWriter.recoverStaging();
+		List<String> candidates = new ArrayList<String>();
+		boolean unmarked = false;
+		for(String file : files){
+			//like adding a single file, a file marked for removal is unmarked
+			if(staging.getFilesToRm().remove(file))
+				unmarked = true;
+			else if(!staging.getFilesToAdd().contains(file))
+				candidates.add(file);
+		}
+		
+		//the head's files tell where the committed version of each file is
+		Commit head = fileWriter.recoverCommit(fileWriter.getCurrentHeadPointer());
+		FileMap headFiles = head.getFilePointers() == null ? FileMap.EMPTY : head.getFilePointers();
+		PerfStats.Phase phase = PerfStats.begin(PerfStats.Phase.IO);
+		List<String> changed;
+		try {
+			changed = ForkJoinPool.commonPool().invoke(new ChangedFiles(candidates, headFiles));
+		} finally {
+			PerfStats.end(phase);
+		}
+		
+		staging.getFilesToAdd().addAll(changed);
+		if(unmarked || !changed.isEmpty())
+			fileWriter.saveStaging(staging);
+		return true;
+	}
+	
+	/**
+	 * Returns the files a directory or glob pattern names, or the file
+	 * itself if it exists.
+	 */
+	private String[] expand(String name) {
+		name = normalize(name);
+		if(isPattern(name)){
+			//only the part of the path before the first pattern is walked,
+			//and only below its directory if the pattern can reach there:
+			//* stops at a slash, ** doesn't
+			int pattern = 0;
+			while(!isGlob(name.substring(0, pattern + 1)))
+				pattern++;
+			int slash = name.lastIndexOf('/', pattern);
+			String directory = slash < 0 ? "." : name.substring(0, slash);
+			if(!".".equals(directory) && !fileWriter.isDirectory(directory))
+				return new String[0];
+			String rest = name.substring(slash + 1);
+			boolean recursive = rest.contains("**") || rest.indexOf('/') >= 0;
+			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + name);
+			List<String> matches = new ArrayList<String>();
+			for(String file : fileWriter.listFiles(directory, recursive))
+				if(matcher.matches(Paths.get(file)))
+					matches.add(file);
+			return matches.toArray(new String[matches.size()]);
+		}
+		if(isDirectory(name))
+			return fileWriter.listFiles(name);
+		return fileWriter.exists(name) ? new String[] { name } : new String[0];
+	}
+	
+	//"./src/" names the same files as "src"
+	private static String normalize(String name) {
+		while(name.startsWith("./"))
+			name = name.substring(2);
+		while(name.length() > 1 && name.endsWith("/"))
+			name = name.substring(0, name.length() - 1);
+		return name.isEmpty() ? "." : name;
+	}
+	
+	/**
+	 * Returns true if the name is a pattern rather than a file; a file
+	 * whose name happens to hold pattern characters is just a file.
+	 */
+	private boolean isPattern(String name) {
+		return isGlob(name) && !fileWriter.exists(normalize(name));
+	}
+	
+	private static boolean isGlob(String name) {
+		return name.indexOf('*') >= 0 || name.indexOf('?') >= 0 
+				|| name.indexOf('[') >= 0 || name.indexOf('{') >= 0;
+	}
+	
+	private boolean isDirectory(String name) {
+		name = normalize(name);
+		return ".".equals(name) || fileWriter.isDirectory(name);
+	}
+	
+	/**
+	 * Returns the files that are new or differ from their committed version,
+	 * splitting the list between tasks. A file is unchanged if it has the
+	 * committed copy's modification time, which checkout keeps, and the
+	 * same content.
+	 */
+	@SuppressWarnings("serial")
+	private class ChangedFiles extends RecursiveTask<List<String>> {
+		private final List<String> files;
+		private final FileMap headFiles;
+		
+		ChangedFiles(List<String> files, FileMap headFiles) {
+			this.files = files;
+			this.headFiles = headFiles;
+		}
+		
+		@Override
+		protected List<String> compute() {
+			if(files.size() > FILES_PER_TASK){
+				int half = files.size() / 2;
+				ChangedFiles first = new ChangedFiles(files.subList(0, half), headFiles);
+				first.fork();
+				List<String> second = new ChangedFiles(files.subList(half, files.size()), headFiles).compute();
+				List<String> changed = new ArrayList<String>(first.join());
+				changed.addAll(second);
+				return changed;
+			}
+			List<String> changed = new ArrayList<String>();
+			for(String file : files){
+				String pointer = headFiles.get(file);
+				String commitFile = ".gitlet/objects/" + pointer + "/" + file;
+				if(pointer == null || !fileWriter.exists(commitFile)
+						|| fileWriter.lastModified(commitFile) != fileWriter.lastModified(file)
+						|| !fileWriter.filesEqual(commitFile, file))
+					changed.add(file);
+			}
+			return changed;
+		}
+	}
+
 	public IFileWriter getFileWriter() {
 		return fileWriter;
 	}
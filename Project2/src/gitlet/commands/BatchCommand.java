@@ -0,0 +1,208 @@
+package gitlet.commands;
+
+import gitlet.BufferedOutputSink;
+import gitlet.CachingFileWriter;
+import gitlet.FileWriterFactory;
+import gitlet.Gitlet;
+import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs many commands in one process. Commands are read from a file or from
+ * stdin, one per line, or NUL terminated with -z so arguments can contain
+ * line breaks. Each command is split into arguments like a shell would:
+ * on whitespace, with single or double quotes and backslash escapes.
+ * Blank lines and lines starting with # are skipped.
+ *
+ * The output of each command is framed on stdout as a header line
+ *
+ *   result NUMBER STATUS OUT_BYTES ERR_BYTES
+ *
+ * where STATUS is ok, fail or unknown, followed by exactly OUT_BYTES of the
+ * command's stdout and ERR_BYTES of its stderr. Commands that would ask
+ * before changing the working directory run without asking.
+ */
+public class BatchCommand implements ICommand {
+
+	private IFileWriter fileWriter;
+	private IOutputSink output;
+	private String file;
+	private boolean nulDelimited;
+
+	/**
+	 * Reads the commands from file, or from stdin if file is null.
+	 */
+	public BatchCommand(String file, boolean nulDelimited) {
+		this.file = file;
+		this.nulDelimited = nulDelimited;
+		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
+	}
+
+	@Override
+	public boolean isDangerous() {
+		return false;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		//each command in the batch takes the lock itself
+		return true;
+	}
+
+	@Override
+	public boolean execute() {
+		//relative to the repository the writer works on, not the process
+		File source = file == null ? null 
+				: Paths.get(fileWriter.getWorkingDirectory()).resolve(file).toFile();
+		if(source != null && !source.isFile()){
+			output.getOut().println("File does not exist.");
+			output.getErr().println("File does not exist: " + file);
+			return false;
+		}
+
+		//every command in the batch shares the writer and its caches, and
+		//one parser
+		IFileWriter current = FileWriterFactory.getWriter();
+		IFileWriter previous = FileWriterFactory.bind(current instanceof CachingFileWriter ? 
+				current : new CachingFileWriter(current));
+		CommandParser parser = new CommandParser(Gitlet.getCommandRegistry());
+
+		boolean allSucceeded = true;
+		try(InputStream input = file == null ? new BufferedInputStream(System.in)
+				: new BufferedInputStream(new FileInputStream(source))){
+			byte delimiter = nulDelimited ? (byte) 0 : (byte) '\n';
+			int number = 0;
+			String record;
+			while((record = readRecord(input, delimiter)) != null){
+				if(!nulDelimited && (record.trim().isEmpty() || record.trim().startsWith("#")))
+					continue;
+				if(nulDelimited && record.isEmpty())
+					continue;
+				number++;
+				allSucceeded &= runOne(parser, record, number);
+			}
+		} catch(IOException ex){
+			output.getErr().println("Could not read commands: " + ex.getMessage());
+			return false;
+		} finally {
+			FileWriterFactory.bind(previous);
+		}
+
+		return allSucceeded;
+	}
+
+	private boolean runOne(CommandParser parser, String record, int number){
+		//each command prints into its own sink, bound before it is parsed so
+		//the command picks it up. The batch is its own confirmation, and the
+		//sink has nothing to read
+		BufferedOutputSink sink = new BufferedOutputSink();
+		IOutputSink previous = OutputSinkFactory.bind(sink);
+
+		String status;
+		try{
+			String[] args = tokenize(record);
+			ICommand command = args.length == 0 ? null : parser.parseCommand(args);
+			if(command == null){
+				sink.getErr().println("Unknown command: " + (args.length == 0 ? "" : args[0]));
+				status = "unknown";
+			} else {
+				status = CommandRunner.execute(command) ? "ok" : "fail";
+			}
+		} catch(RuntimeException ex){
+			//one broken command doesn't stop the batch
+			sink.getErr().println(ex.getMessage() == null ? ex.toString() : ex.getMessage());
+			status = "fail";
+		} finally {
+			OutputSinkFactory.bind(previous);
+		}
+
+		byte[] commandOut = sink.getOutText().getBytes(StandardCharsets.UTF_8);
+		byte[] commandErr = sink.getErrText().getBytes(StandardCharsets.UTF_8);
+		PrintStream out = output.getOut();
+		out.print("result " + number + " " + status + " " + commandOut.length
+				+ " " + commandErr.length + "\n");
+		out.write(commandOut, 0, commandOut.length);
+		out.write(commandErr, 0, commandErr.length);
+		out.flush();
+		return "ok".equals(status);
+	}
+
+	/**
+	 * Reads up to the next delimiter, or null at the end of the input.
+	 */
+	private static String readRecord(InputStream input, byte delimiter) throws IOException{
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		int b;
+		while((b = input.read()) >= 0 && b != delimiter)
+			record.write(b);
+		if(b < 0 && record.size() == 0)
+			return null;
+		String text = new String(record.toByteArray(), StandardCharsets.UTF_8);
+		if(delimiter == '\n' && text.endsWith("\r"))
+			text = text.substring(0, text.length() - 1);
+		return text;
+	}
+
+	/**
+	 * Splits a command into its arguments. Throws an IllegalArgumentException
+	 * if a quote is not closed.
+	 */
+	public static String[] tokenize(String command){
+		List<String> args = new ArrayList<String>();
+		StringBuilder current = new StringBuilder();
+		boolean inArg = false;
+		char quote = 0;
+
+		for(int i = 0; i < command.length(); i++){
+			char c = command.charAt(i);
+			if(quote == '\''){
+				if(c == '\'')
+					quote = 0;
+				else
+					current.append(c);
+			} else if(c == '\\' && i + 1 < command.length()
+					&& (quote == 0 || "\"\\$`".indexOf(command.charAt(i + 1)) >= 0)){
+				current.append(command.charAt(++i));
+				inArg = true;
+			} else if(quote == '"'){
+				if(c == '"')
+					quote = 0;
+				else
+					current.append(c);
+			} else if(c == '\'' || c == '"'){
+				quote = c;
+				inArg = true;
+			} else if(Character.isWhitespace(c)){
+				if(inArg){
+					args.add(current.toString());
+					current.setLength(0);
+					inArg = false;
+				}
+			} else {
+				current.append(c);
+				inArg = true;
+			}
+		}
+
+		if(quote != 0)
+			throw new IllegalArgumentException("Unterminated quote in: " + command);
+		if(inArg)
+			args.add(current.toString());
+		return args.toArray(new String[args.size()]);
+	}
+
+}
@@ -2,16 +2,20 @@ package gitlet.commands;
 
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 
 public class BranchCommand implements ICommand {
 
 	private String branchName;
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 
 	public BranchCommand(String branchName) {
 		// TODO Auto-generated constructor stub
 		this.branchName = branchName;
 		this.fileWriter = FileWriterFactory.getWriter();
+		this.output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -20,14 +24,19 @@ public class BranchCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
 		// TODO Auto-generated method stub
 		//check if branch already exists, if it does, 
 		//output error message and return false
 		if(fileWriter.exists(".gitlet/refs/heads/" + branchName)){
-			System.out.println("A branch with that name already exists");
-			System.err.println("A branch with that name already exists");
+			output.getOut().println("A branch with that name already exists");
+			output.getErr().println("A branch with that name already exists");
 			return false;
 		}
 		
@@ -3,17 +3,21 @@ package gitlet.commands;
 import gitlet.Commit;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 
-import java.util.HashMap;
+import java.util.Map;
 
 public class CheckoutBranchCommand implements ICommand {
 
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	private String branch;
 	
 	public CheckoutBranchCommand(String branch) {
 		this.branch = branch;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -21,20 +25,25 @@ public class CheckoutBranchCommand implements ICommand {
 		return true;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
 		
 		//if branch doesn't exist, print message and fail
 		if(!fileWriter.exists(".gitlet/refs/heads/" + branch)){
-			System.out.println("A branch with that name does not exist.");
-			System.err.println("Branch does not exist");
+			output.getOut().println("A branch with that name does not exist.");
+			output.getErr().println("Branch does not exist");
 			return false;
 		}
 		
 		//if branch is current branch, print error and return false
 		if(branch.equals(fileWriter.getCurrentBranch())){
-			System.out.println("No need to checkout the current branch.");
-			System.err.println("No need to checkout the current branch.");
+			output.getOut().println("No need to checkout the current branch.");
+			output.getErr().println("No need to checkout the current branch.");
 			return false;
 		}
 		
@@ -43,7 +52,7 @@ public class CheckoutBranchCommand implements ICommand {
 		
 		//get commit
 		Commit commit = fileWriter.recoverCommit(commitId);
-		HashMap<String, String> fp = commit.getFilePointers();
+		Map<String, String> fp = commit.getFilePointers();
 		
 		if(fp != null && fp.size() > 0){
 			for(String filePath : fp.keySet()){
@@ -54,6 +63,7 @@ public class CheckoutBranchCommand implements ICommand {
 		
 		//make branch the current head reference
 		fileWriter.makeBranchHead(branch);
+		MergeCommand.abandonMerge(fileWriter);
 		
 		return true;
 	}
@@ -2,10 +2,13 @@ package gitlet.commands;
 
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 
 public class CheckoutFileCommand implements ICommand {
 
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	private String commitId;
 	private String fileName;
 	private String stdOutNotFound;
@@ -15,6 +18,7 @@ public class CheckoutFileCommand implements ICommand {
 		this.commitId = commitId;
 		this.fileName = fileName;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 		stdOutNotFound = "File does not exist in that commit.";
 		stdErrNotFound = "File does not exist in the specified commit";
 	}
@@ -30,6 +34,11 @@ public class CheckoutFileCommand implements ICommand {
 		return true;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
 		//if commitId is null, use current head
@@ -41,15 +50,15 @@ public class CheckoutFileCommand implements ICommand {
 		
 		//if commit not found, print error messages and return false
 		if(!fileWriter.exists(commitPath)){
-			System.out.println("No commit with that id exists.");
-			System.err.println("Commit does not exist");
+			output.getOut().println("No commit with that id exists.");
+			output.getErr().println("Commit does not exist");
 			return false;
 		}
 		
 		//if file not found, print error messages and return false
 		if(!fileWriter.exists(filePath)){
-			System.out.println(stdOutNotFound);
-			System.err.println(stdErrNotFound);
+			output.getOut().println(stdOutNotFound);
+			output.getErr().println(stdErrNotFound);
 			return false;
 		}
 		
@@ -0,0 +1,63 @@
+package gitlet.commands;
+
+import gitlet.Commit;
+import gitlet.FileWriterFactory;
+import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.TimeIndex;
+
+import java.util.Map;
+
+/**
+ * Restores the working directory to a branch as it was at a point in time,
+ * given as branch@{date}. Unlike reset, no branch is moved.
+ */
+public class CheckoutRevisionCommand implements ICommand {
+
+	private IFileWriter fileWriter;
+	private IOutputSink output;
+	private String revision;
+	
+	public CheckoutRevisionCommand(String revision) {
+		this.revision = revision;
+		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
+	}
+
+	@Override
+	public boolean isDangerous() {
+		return true;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
+	@Override
+	public boolean execute() {
+		
+		String commitId;
+		try{
+			commitId = TimeIndex.resolveRevision(fileWriter, revision);
+		} catch(IllegalArgumentException ex){
+			output.getOut().println(ex.getMessage());
+			output.getErr().println(ex.getMessage());
+			return false;
+		}
+		
+		Commit commit = fileWriter.recoverCommit(commitId);
+		Map<String, String> fp = commit.getFilePointers();
+		
+		if(fp != null && fp.size() > 0){
+			for(String filePath : fp.keySet()){
+				String fileCommitId = fp.get(filePath);
+				new CheckoutFileCommand(fileCommitId, filePath).execute();
+			}
+		}
+		
+		return true;
+	}
+
+}
@@ -1,33 +1,32 @@
 package gitlet.commands;
 
+import gitlet.commands.factories.CommandRegistry;
 import gitlet.commands.factories.ICommandFactory;
 
 import java.util.List;
 
 public class CommandParser {
 
-	private final List<ICommandFactory> availableCommands;
+	private final CommandRegistry availableCommands;
 	
-	public CommandParser(List<ICommandFactory> availableCommands){
+	public CommandParser(CommandRegistry availableCommands){
 		this.availableCommands = availableCommands;
 	}
 	
+	public CommandParser(List<ICommandFactory> availableCommands){
+		this.availableCommands = new CommandRegistry();
+		for(ICommandFactory cf : availableCommands)
+			this.availableCommands.register(cf);
+	}
+	
 	public ICommand parseCommand(String[] args){
 		String requestedCommandName = args[0];
 		
-		ICommandFactory cf = findRequestedCommand(requestedCommandName);
+		ICommandFactory cf = availableCommands.get(requestedCommandName);
 		
 		if(cf != null)
 			return cf.makeCommand(args);
 		else
 			return null;
 	}
-
-	private ICommandFactory findRequestedCommand(String commandName){
-		for(ICommandFactory cf : availableCommands){
-			if(commandName.equals(cf.getCommandName()))
-					return cf;
-		}		
-		return null;
-	}
 }
@@ -0,0 +1,102 @@
+package gitlet.commands;
+
+import gitlet.FileWriterFactory;
+import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.Journal;
+import gitlet.OutputSinkFactory;
+import gitlet.jfr.CommandEvent;
+
+/**
+ * Runs commands that write to the repository under its write lock, so two
+ * processes on the same repository take turns instead of losing each
+ * other's updates. Read-only commands never wait for the lock. The ref
+ * and staging writes of a command form one journaled transaction, and
+ * what a command wrote is synced when it is done.
+ */
+public class CommandRunner {
+
+	public static boolean execute(ICommand command){
+		CommandEvent event = new CommandEvent();
+		event.begin();
+		boolean succeeded = false;
+		try{
+			succeeded = run(command);
+			return succeeded;
+		} finally {
+			if(event.shouldCommit()){
+				event.command = name(command);
+				event.readOnly = command.isReadOnly();
+				event.succeeded = succeeded;
+				event.commit();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the name of the command's subcommand, AddCommand becomes
+	 * "add".
+	 */
+	private static String name(ICommand command){
+		String name = command.getClass().getSimpleName().replaceFirst("Command$", "");
+		return name.replaceAll("([a-z])([A-Z])", "$1-$2").toLowerCase();
+	}
+	
+	private static boolean run(ICommand command){
+		IFileWriter fileWriter = FileWriterFactory.getWriter();
+		//read-only commands run unlocked, and so does init, which has no
+		//repository to lock yet
+		if(command.isReadOnly() || !fileWriter.isDirectory(".gitlet")){
+			recoverIfNeeded(fileWriter);
+			try{
+				return command.execute();
+			} finally {
+				fileWriter.sync();
+			}
+		}
+		
+		try{
+			fileWriter.lockRepository();
+		} catch(IllegalStateException ex){
+			IOutputSink output = OutputSinkFactory.getSink();
+			output.getOut().println("Another gitlet command is changing this repository.");
+			output.getErr().println(ex.getMessage());
+			return false;
+		}
+		try{
+			fileWriter.beginTransaction();
+			boolean committed = false;
+			try{
+				boolean result = command.execute();
+				fileWriter.commitTransaction();
+				committed = true;
+				return result;
+			} finally {
+				if(!committed)
+					fileWriter.abortTransaction();
+			}
+		} finally {
+			try{
+				fileWriter.sync();
+			} finally {
+				fileWriter.unlockRepository();
+			}
+		}
+	}
+	
+	/**
+	 * A journal left by a command that died is recovered when the lock is
+	 * taken. Readers take it only for that, and only if nobody holds it,
+	 * so they practically never wait.
+	 */
+	private static void recoverIfNeeded(IFileWriter fileWriter){
+		if(!fileWriter.exists(Journal.FILE) || fileWriter.exists(".gitlet/repository.lock"))
+			return;
+		try{
+			fileWriter.lockRepository();
+			fileWriter.unlockRepository();
+		} catch(IllegalStateException ex){
+			//someone else took it and will recover
+		}
+	}
+}
@@ -1,21 +1,27 @@
 package gitlet.commands;
 
 import gitlet.Commit;
+import gitlet.FileMap;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 import gitlet.Staging;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CommitCommand implements ICommand {
 
 	private String message;
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 
 	public CommitCommand(String message) {
 		// TODO Auto-generated constructor stub
 		this.message = message;
 		this.fileWriter = FileWriterFactory.getWriter();
+		this.output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -24,13 +30,18 @@ public class CommitCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
 		// TODO Auto-generated method stub
 		//if commit message is empty, print error message and return false
 		if("".equals(message)){
-			System.out.println("Please enter a commit message.");
-			System.err.println("Please enter a non-empty commit message");
+			output.getOut().println("Please enter a commit message.");
+			output.getErr().println("Please enter a non-empty commit message");
 			return false;
 		}
 		
@@ -44,19 +55,30 @@ public class CommitCommand implements ICommand {
 		
 		//if stagins is empty, print error message and return false
 		if(staging.getFilesToRm().size() == 0 && staging.getFilesToAdd().size() == 0 ){
-			System.out.println("No changes added to the commit.");
-			System.err.println("No changes added to the commit.");
+			output.getOut().println("No changes added to the commit.");
+			output.getErr().println("No changes added to the commit.");
 			return false;
 		}
 			
-		//get current filePointers
-		HashMap<String, String> filePointers = currentHead.getFilePointers() == null ? 
-				new HashMap<String, String>() : currentHead.getFilePointers();
+		//start from the current filePointers; the maps are immutable, so the
+		//new commit's shares everything it doesn't change with the parent's
+		FileMap filePointers = currentHead.getFilePointers() == null ? 
+				FileMap.EMPTY : currentHead.getFilePointers();
 		
 		
 		//create new commit with parent filePointers and 
-		//current systime for timestamp
-		Commit newCommit = new Commit(currentHead, System.currentTimeMillis(), message, filePointers);
+		//current systime for timestamp. If this commit resolves a merge
+		//conflict, the merged branch head becomes the second parent
+		List<Commit> parents = new ArrayList<Commit>();
+		parents.add(currentHead);
+		boolean resolvesMerge = fileWriter.exists(MergeCommand.MERGE_HEAD);
+		if(resolvesMerge){
+			//a merge head the current history already holds adds nothing
+			Commit merged = fileWriter.recoverCommit(fileWriter.readFile(MergeCommand.MERGE_HEAD));
+			if(!merged.getId().equals(currentHead.findSplitPoint(merged)))
+				parents.add(merged);
+		}
+		Commit newCommit = Commit.withParents(parents, System.currentTimeMillis(), message, filePointers);
 		String id = newCommit.getId();
 		
 		//create commit folder
@@ -68,7 +90,7 @@ public class CommitCommand implements ICommand {
 		//and make a copy of files to commit folder
 		if(staging.getFilesToAdd().size() > 0)
 		for(String fileToAdd : staging.getFilesToAdd()){
-			newCommit.getFilePointers().put(fileToAdd, id);
+			filePointers = filePointers.with(fileToAdd, id);
 			fileWriter.copyFile(fileToAdd, objectsFolder + "/" + fileToAdd);
 		}
 		
@@ -76,8 +98,9 @@ public class CommitCommand implements ICommand {
 		//staging.fileToRm
 		if(staging.getFilesToRm().size() > 0)
 		for(String fileToRm : staging.getFilesToRm()){
-			newCommit.getFilePointers().remove(fileToRm);
+			filePointers = filePointers.without(fileToRm);
 		}
+		newCommit = newCommit.withFilePointers(filePointers);
 		
 		//save new Commit object
 		fileWriter.saveCommit(newCommit);
@@ -89,6 +112,9 @@ public class CommitCommand implements ICommand {
 		//reset and save staging area
 		fileWriter.saveStaging(new Staging());
 		
+		if(resolvesMerge)
+			fileWriter.deleteFile(MergeCommand.MERGE_HEAD);
+		
 		return true;
 	}
 
@@ -0,0 +1,83 @@
+package gitlet.commands;
+
+import gitlet.FileWriterFactory;
+import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.daemon.DaemonClient;
+import gitlet.daemon.DaemonProtocol;
+import gitlet.daemon.DaemonServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class DaemonCommand implements ICommand {
+
+	private IFileWriter fileWriter;
+	private IOutputSink output;
+	private boolean stop;
+	
+	/**
+	 * Starts serving commands over .gitlet/daemon.sock until stopped, or
+	 * stops the daemon that is serving them.
+	 */
+	public DaemonCommand(boolean stop) {
+		this.stop = stop;
+		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
+	}
+
+	@Override
+	public boolean isDangerous() {
+		return false;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		//each command the daemon runs takes the lock itself
+		return true;
+	}
+
+	@Override
+	public boolean execute() {
+		if(!fileWriter.isDirectory(".gitlet")){
+			output.getOut().println("Not in an initialized gitlet directory.");
+			output.getErr().println("No .gitlet directory for the daemon");
+			return false;
+		}
+		
+		if(stop)
+			return stopDaemon();
+		
+		DaemonServer server = new DaemonServer();
+		try{
+			if(!server.bind()){
+				output.getOut().println("A daemon is already running.");
+				output.getErr().println("A daemon is already running.");
+				return false;
+			}
+			output.getOut().println("Serving commands on " + DaemonProtocol.SOCKET);
+			server.serve();
+			return true;
+		} catch(IOException ex){
+			output.getOut().println("Could not start the daemon.");
+			output.getErr().println("Could not start the daemon: " + ex.getMessage());
+			return false;
+		}
+	}
+	
+	private boolean stopDaemon(){
+		//stopping never asks anything, so there is no input to send
+		try{
+			DaemonClient.run(Paths.get(DaemonProtocol.SOCKET), new String[]{"daemon", "stop"}, 
+					new ByteArrayInputStream(new byte[0]), output.getOut(), output.getErr());
+			return true;
+		} catch(IOException ex){
+			output.getOut().println("No daemon is running.");
+			output.getErr().println("No daemon is running.");
+			return false;
+		}
+	}
+
+}
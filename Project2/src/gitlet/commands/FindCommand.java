@@ -3,15 +3,19 @@ package gitlet.commands;
 import gitlet.Commit;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 
 public class FindCommand implements ICommand {
 
 	String message;
 	IFileWriter fileWriter;
+	IOutputSink output;
 	
 	public FindCommand(String message) {
 		this.message = message;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -20,6 +24,11 @@ public class FindCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
 	@Override
 	public boolean execute() {
 		boolean found = false;
@@ -27,12 +36,12 @@ public class FindCommand implements ICommand {
 			Commit head = fileWriter.recoverCommit(id);
 			if(message.equals(head.getMessage())){
 				found = true;
-				System.out.println(id);
+				output.getOut().println(id);
 			}
 		}
 		
 		if(!found){
-			System.out.println("Found no commit with that message");
+			output.getOut().println("Found no commit with that message");
 		}
 		
 		return true;
@@ -3,6 +3,8 @@ package gitlet.commands;
 import gitlet.Commit;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 
 import java.text.Format;
 import java.text.SimpleDateFormat;
@@ -11,9 +13,11 @@ import java.util.Date;
 public class GlobalLogCommand implements ICommand {
 
 	IFileWriter fileWriter;
+	IOutputSink output;
 	
 	public GlobalLogCommand(){
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 	
 	@Override
@@ -21,17 +25,22 @@ public class GlobalLogCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
 	@Override
 	public boolean execute() {
 		
 		for(String id : fileWriter.getAllCommitIds()){
 			Commit head = fileWriter.recoverCommit(id);
-			System.out.println("====");
-			System.out.println("Commit " + head.getId() + ".");		
+			output.getOut().println("====");
+			output.getOut().println("Commit " + head.getId() + ".");		
 			String date = convertTime(head.getTimeStamp());			
-			System.out.println(date);
-			System.out.println(head.getMessage());	
-			System.out.println();
+			output.getOut().println(date);
+			output.getOut().println(head.getMessage());	
+			output.getOut().println();
 		}
 		
 		return true;
@@ -2,5 +2,11 @@ package gitlet.commands;
 
 public interface ICommand {
 	boolean isDangerous();
+	
+	/**
+	 * Returns true if the command never writes to .gitlet. Read-only
+	 * commands run without taking the repository's write lock.
+	 */
+	boolean isReadOnly();
 	boolean execute();
 }
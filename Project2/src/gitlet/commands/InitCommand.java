@@ -3,6 +3,8 @@ package gitlet.commands;
 import gitlet.Commit;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 import gitlet.Staging;
 
 
@@ -10,23 +12,25 @@ public class InitCommand implements ICommand {
 
 	//private String workingDir;
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	private String userDir;
 	
 	public InitCommand(){
 		//these could be injected if I wanted to...
 		fileWriter = FileWriterFactory.getWriter();
-		userDir = System.getProperty("user.dir");
+		output = OutputSinkFactory.getSink();
+		userDir = fileWriter.getWorkingDirectory();
 	}	
 	
 	public boolean execute() {
 		if(fileWriter.exists(".gitlet")){
 			
-			System.out.println("A gitlet version control system already exists in the current directory.");
+			output.getOut().println("A gitlet version control system already exists in the current directory.");
 			
 			if(fileWriter.isDirectory(".gitlet")){
-				System.err.println("A Gitlet repo already exists");
+				output.getErr().println("A Gitlet repo already exists");
 			} else {
-				System.err.println(".gitlet already exists but it is not a directory");
+				output.getErr().println(".gitlet already exists but it is not a directory");
 			}			
 			return false;
 			
@@ -35,7 +39,7 @@ public class InitCommand implements ICommand {
 			//get a reference to this directory, check if it's writable
 			//if it isn't writable, output error messages and return false
 			if(!fileWriter.canWrite(userDir)){
-				System.err.println("IO ERROR: Failed to create directory: .gitlet");
+				output.getErr().println("IO ERROR: Failed to create directory: .gitlet");
 					return false;
 			}		
 			
@@ -71,6 +75,13 @@ public class InitCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		//it never changes a repository that exists, and before it runs
+		//there is none to lock
+		return true;
+	}
+
 	public IFileWriter getFileWriter() {
 		return fileWriter;
 	}
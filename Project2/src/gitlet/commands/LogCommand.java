@@ -1,8 +1,15 @@
 package gitlet.commands;
 
 import gitlet.Commit;
+import gitlet.CommitGraph;
+import gitlet.CommitObject;
+import gitlet.FileMap;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.TimeIndex;
+import gitlet.diff.TreeDiff;
 
 import java.text.Format;
 import java.text.SimpleDateFormat;
@@ -11,10 +18,35 @@ import java.util.Date;
 public class LogCommand implements ICommand {
 
 	private IFileWriter fileWriter;
+	private IOutputSink output;
+	private String path;
+	private Long since;
+	private Long until;
+
 
-	
 	public LogCommand() {
+		this(null);
+	}
+
+	/**
+	 * Only lists the commits that changed the given file, or any file below
+	 * it when the path is a directory.
+	 */
+	public LogCommand(String path) {
+		this(path, null, null);
+	}
+
+	/**
+	 * Only lists the commits made in the given time range. Either end may be
+	 * null to leave the range open, and path may be null to list every
+	 * commit.
+	 */
+	public LogCommand(String path, Long since, Long until) {
 		this.fileWriter = FileWriterFactory.getWriter();
+		this.output = OutputSinkFactory.getSink();
+		this.path = path;
+		this.since = since;
+		this.until = until;
 	}
 
 	@Override
@@ -22,24 +54,136 @@ public class LogCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
 	@Override
 	public boolean execute() {
-		String id = fileWriter.getCurrentHeadPointer();
-		Commit head = fileWriter.recoverCommit(id);
+		String id = findStart();
+		if(id == null)
+			return true;
 		
-		while(head != null){
-			System.out.println("====");
-			System.out.println("Commit " + head.getId() + ".");		
-			String date = convertTime(head.getTimeStamp());			
-			System.out.println(date);
-			System.out.println(head.getMessage());	
-			System.out.println();
+		if(path != null)
+			return logPath(id);
+
+		Commit head = fileWriter.recoverCommit(id);
+
+		while(head != null && !isTooOld(head.getTimeStamp())){
+			printCommit(head);
 			head = head.getParent();
 		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the newest commit to list. With --until it is looked up in the
+	 * branch's time index instead of walking down from the head.
+	 */
+	private String findStart(){
+		if(until == null)
+			return fileWriter.getCurrentHeadPointer();
 		
+		TimeIndex index = TimeIndex.forBranch(fileWriter, fileWriter.getCurrentBranch());
+		return index.lastAtOrBefore(until);
+	}
+
+	private boolean isTooOld(long timeStamp){
+		return since != null && timeStamp < since;
+	}
+
+	private boolean logPath(String id){
+		//strip trailing slashes so "dir/" and "dir" are the same query
+		while(path.length() > 1 && path.endsWith("/"))
+			path = path.substring(0, path.length() - 1);
+
+		CommitGraph graph = fileWriter.recoverCommitGraph();
+
+		while(id != null){
+			CommitGraph.Entry entry = graph.getEntry(id);
+			CommitObject commit = null;
+
+			if(entry != null && isTooOld(entry.getTimeStamp()))
+				break;
+
+			//the bloom filter rejects most commits without reading them, the
+			//others are read on their own, without their history
+			if(entry == null || entry.mightHaveChanged(path)){
+				commit = fileWriter.readCommitObject(id);
+
+				if(isTooOld(commit.getTimeStamp()))
+					break;
+				if(touches(commit))
+					printCommit(id, commit.getTimeStamp(), commit.getMessage());
+			}
+
+			if(entry != null)
+				id = entry.getParentId();
+			else
+				id = commit.getParentId();
+		}
+
 		return true;
 	}
 
+	/**
+	 * Returns true if the commit changed the path. A change set says so by
+	 * itself; a snapshot is compared with its parent's files, which are
+	 * rebuilt from the snapshot before them.
+	 */
+	private boolean touches(CommitObject commit){
+		if(commit.isSnapshot()){
+			FileMap parentFiles = commit.getParentId() == null ? null
+					: CommitObject.recoverFiles(fileWriter, commit.getParentId());
+			final boolean[] touched = new boolean[1];
+			FileMap.diff(parentFiles, commit.filesOn(null), new TreeDiff.Visitor() {
+				@Override
+				public void added(String file, String pointer) {
+					touched[0] |= isBelowPath(file);
+				}
+
+				@Override
+				public void removed(String file, String pointer) {
+					touched[0] |= isBelowPath(file);
+				}
+
+				@Override
+				public void modified(String file, String oldPointer, String pointer) {
+					touched[0] |= isBelowPath(file);
+				}
+			});
+			return touched[0];
+		}
+		for(String removed : commit.getRemoved()){
+			if(isBelowPath(removed))
+				return true;
+		}
+		for(String changed : commit.getChanged().keySet()){
+			if(isBelowPath(changed))
+				return true;
+		}
+		return false;
+	}
+
+	private boolean isBelowPath(String file){
+		return file.equals(path) || file.startsWith(path + "/");
+	}
+
+	private void printCommit(Commit commit){
+		printCommit(commit.getId(), commit.getTimeStamp(), commit.getMessage());
+	}
+
+	private void printCommit(String id, long timeStamp, String message){
+		output.getOut().println("====");
+		output.getOut().println("Commit " + id + ".");
+		String date = convertTime(timeStamp);
+		output.getOut().println(date);
+		output.getOut().println(message);
+		output.getOut().println();
+	}
+
 	private String convertTime(long time){
 	    Date date = new Date(time);
 	    Format format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
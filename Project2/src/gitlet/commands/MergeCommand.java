@@ -1,21 +1,39 @@
 package gitlet.commands;
 
 import gitlet.Commit;
+import gitlet.FileMap;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.Staging;
+import gitlet.diff.MergeResult;
+import gitlet.diff.ThreeWayMerge;
+import gitlet.diff.TreeDiff;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class MergeCommand implements ICommand {
 
+	public static final String MERGE_HEAD = ".gitlet/MERGE_HEAD";
+	
 	private String branch;
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	
 	public MergeCommand(String branch) {
 		this.branch = branch;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -23,22 +41,43 @@ public class MergeCommand implements ICommand {
 		return true;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
+	/**
+	 * Forgets a merge that stopped on a conflict, for commands that move the
+	 * branch elsewhere, so a later commit doesn't take its head as a parent.
+	 */
+	public static void abandonMerge(IFileWriter fileWriter) {
+		if(fileWriter.exists(MERGE_HEAD))
+			fileWriter.deleteFile(MERGE_HEAD);
+	}
+
 	@Override
 	public boolean execute() {
 		
+		//a conflicted merge has to be committed before the next one
+		if(fileWriter.exists(MERGE_HEAD)){
+			output.getOut().println("You have an unfinished merge. Commit the resolution first.");
+			output.getErr().println("Unfinished merge");
+			return false;
+		}
+		
 		//if branch doesn't exist, print message and fail
 		if(!fileWriter.exists(".gitlet/refs/heads/" + branch)){
-			System.out.println("A branch with that name does not exist.");
-			System.err.println("Branch does not exist");
+			output.getOut().println("A branch with that name does not exist.");
+			output.getErr().println("Branch does not exist");
 			return false;
 		}
 		
 		
 		//if branch is the current branch, print message and fail;
-		String currentBranch = fileWriter.getCurrentBranch();
+		final String currentBranch = fileWriter.getCurrentBranch();
 		if(branch.equals(currentBranch)){
-			System.out.println("Cannot merge a branch with itself.");
-			System.err.println("Already up to date");
+			output.getOut().println("Cannot merge a branch with itself.");
+			output.getErr().println("Already up to date");
 			return false;
 		}
 		
@@ -48,43 +87,192 @@ public class MergeCommand implements ICommand {
 		Commit other = fileWriter.recoverCommit(fileWriter.getBranchHead(branch));
 		Commit split = fileWriter.recoverCommit(current.findSplitPoint(other));
 		
-		List<String> currentMod = new ArrayList<String>();
-		List<String> otherMod = new ArrayList<String>();
-		HashMap<String, String> currentFP = current.getFilePointers();
-		HashMap<String, String> otherFP = other.getFilePointers();
-		HashMap<String, String> splitFP = split.getFilePointers();
-		
-		//iterate through filePointers, save files that have changed in either commit
-		//since split
-		for(String file : currentFP.keySet()){
-			String fileCommit = currentFP.get(file);
-			String splitCommit = splitFP.get(file);
-			if(!fileCommit.equals(splitCommit))
-				currentMod.add(file);
+		//if other == split, everything on the other branch is already merged
+		if(other.getId().equals(split.getId())){
+			output.getOut().println("Given branch is an ancestor of the current branch.");
+			return true;
 		}
 		
-		for(String file : otherFP.keySet()){
-			String fileCommit = otherFP.get(file);
-			String splitCommit = splitFP.get(file);
-			if(!fileCommit.equals(splitCommit))
-				otherMod.add(file);
+		final FileMap currentFP = filePointers(current);
+		final FileMap otherFP = filePointers(other);
+		final FileMap splitFP = filePointers(split);
+		
+		//if current == split, the current branch just moves up to other;
+		//only the files that differ are touched
+		if(current.getId().equals(split.getId())){
+			FileMap.diff(currentFP, otherFP, new TreeDiff.Visitor() {
+				@Override
+				public void added(String file, String pointer) {
+					new CheckoutFileCommand(pointer, file).execute();
+				}
+				
+				@Override
+				public void removed(String file, String pointer) {
+					if(fileWriter.exists(file))
+						fileWriter.deleteFile(file);
+				}
+				
+				@Override
+				public void modified(String file, String oldPointer, String pointer) {
+					added(file, pointer);
+				}
+			});
+			fileWriter.createFile(fileWriter.getCurrentBranchRef(), other.getId());
+			output.getOut().println("Current branch fast-forwarded.");
+			return true;
 		}
 		
-		//for each file in otherMod, check against currentMod
-		//if it's there, created .conflicted file, otherwise check the file out
-		for(String file : otherMod){
-			String commitId = otherFP.get(file);
-			if(currentMod.contains(file)){
-				//create .conflicted file
-				String filePath = ".gitlet/objects/" + commitId + "/" + file;
-				String destPath = file + ".conflicted";
-				fileWriter.copyFile(filePath, destPath);
-			} else {
-				new CheckoutFileCommand(commitId, file).execute();
+		//the files changed on the current branch since split, in any order
+		final Set<String> currentMod = new HashSet<String>();
+		FileMap.diff(splitFP, currentFP, new TreeDiff.Visitor() {
+			@Override
+			public void added(String file, String pointer) {
+				currentMod.add(file);
+			}
+			
+			@Override
+			public void removed(String file, String pointer) {
+			}
+			
+			@Override
+			public void modified(String file, String splitPointer, String pointer) {
+				currentMod.add(file);
+			}
+		});
+		
+		//the merge commit starts from the current files
+		final FileMap[] mergedFP = { currentFP };
+		final List<String> contentMerged = new ArrayList<String>();
+		final List<String> checkedOut = new ArrayList<String>();
+		final List<String> removed = new ArrayList<String>();
+		final boolean[] conflicted = new boolean[1];
+		
+		//each file changed on the other branch is merged if the current
+		//branch changed it too, otherwise it is checked out. Files the other
+		//branch removed and we didn't touch are removed too
+		TreeDiff.diff(splitFP, otherFP, new TreeDiff.Visitor() {
+			@Override
+			public void added(String file, String pointer) {
+				modified(file, null, pointer);
+			}
+			
+			@Override
+			public void removed(String file, String splitPointer) {
+				if(splitPointer.equals(currentFP.get(file))){
+					mergedFP[0] = mergedFP[0].without(file);
+					removed.add(file);
+					if(fileWriter.exists(file))
+						fileWriter.deleteFile(file);
+				}
+			}
+			
+			@Override
+			public void modified(String file, String splitPointer, String commitId) {
+				if(currentMod.contains(file)){
+					if(mergeFile(file, splitPointer, currentFP.get(file), commitId, currentBranch))
+						contentMerged.add(file);
+					else
+						conflicted[0] = true;
+				} else {
+					new CheckoutFileCommand(commitId, file).execute();
+					mergedFP[0] = mergedFP[0].with(file, commitId);
+					checkedOut.add(file);
+				}
+			}
+		});
+		
+		//on a conflict, remember the other head so the commit that resolves
+		//the conflict gets it as its second parent, and stage what merged
+		//cleanly so that commit keeps the other branch's changes
+		if(conflicted[0]){
+			Staging staging = fileWriter.recoverStaging();
+			List<String> toAdd = new ArrayList<String>(checkedOut);
+			toAdd.addAll(contentMerged);
+			for(String file : toAdd){
+				staging.getFilesToRm().remove(file);
+				if(!staging.getFilesToAdd().contains(file))
+					staging.getFilesToAdd().add(file);
+			}
+			for(String file : removed){
+				staging.getFilesToAdd().remove(file);
+				if(!staging.getFilesToRm().contains(file))
+					staging.getFilesToRm().add(file);
 			}
+			fileWriter.saveStaging(staging);
+			fileWriter.createFile(MERGE_HEAD, other.getId());
+			output.getOut().println("Encountered a merge conflict.");
+			return true;
 		}
 		
+		makeMergeCommit(current, other, currentBranch, mergedFP[0], contentMerged);
 		return true;
 	}
+	
+	private void makeMergeCommit(Commit current, Commit other, String currentBranch,
+			FileMap mergedFP, List<String> contentMerged){
+		Commit mergeCommit = Commit.withParents(Arrays.asList(current, other), System.currentTimeMillis(),
+				"Merged " + branch + " into " + currentBranch + ".", mergedFP);
+		String id = mergeCommit.getId();
+		
+		//files merged line by line only exist in the working directory, 
+		//so they are stored with the merge commit
+		String objectsFolder = ".gitlet/objects/" + id;
+		fileWriter.createDirectory(objectsFolder);
+		for(String file : contentMerged){
+			mergedFP = mergedFP.with(file, id);
+			fileWriter.copyFile(file, objectsFolder + "/" + file);
+		}
+		mergeCommit = mergeCommit.withFilePointers(mergedFP);
+		
+		fileWriter.saveCommit(mergeCommit);
+		fileWriter.createFile(fileWriter.getCurrentBranchRef(), id);
+	}
+	
+	private FileMap filePointers(Commit commit){
+		return commit.getFilePointers() == null ? FileMap.EMPTY : commit.getFilePointers();
+	}
+	
+	/**
+	 * Three way merges a file both branches changed. If the changes don't
+	 * overlap the result goes straight into the working directory, otherwise
+	 * the text with conflict markers is written to the .conflicted file.
+	 * Returns false on a conflict.
+	 */
+	private boolean mergeFile(String file, String splitId, String currentId, String otherId, String currentBranch){
+		String otherPath = ".gitlet/objects/" + otherId + "/" + file;
+		String base = splitId == null ? "" : readText(".gitlet/objects/" + splitId + "/" + file);
+		String ours = readText(".gitlet/objects/" + currentId + "/" + file);
+		String theirs = readText(otherPath);
+		
+		//binary files can't be merged by line, keep the whole other version
+		if(base == null || ours == null || theirs == null){
+			fileWriter.copyFile(otherPath, file + ".conflicted");
+			return false;
+		}
+		
+		MergeResult result = ThreeWayMerge.merge(base, ours, theirs, currentBranch, branch);
+		if(result.hasConflicts()){
+			fileWriter.createFile(file + ".conflicted", result.getText());
+			return false;
+		}
+		fileWriter.createFile(file, result.getText());
+		return true;
+	}
+	
+	/**
+	 * Returns the file as text, or null if it is binary: it has a NUL byte
+	 * or isn't valid UTF-8, so writing it back as text would change it.
+	 */
+	private String readText(String fileName){
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		try {
+			String text = decoder.decode(ByteBuffer.wrap(fileWriter.readBytes(fileName))).toString();
+			return text.indexOf('\0') != -1 ? null : text;
+		} catch(CharacterCodingException e){
+			return null;
+		}
+	}
 
 }
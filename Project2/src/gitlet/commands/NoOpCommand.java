@@ -8,6 +8,11 @@ public class NoOpCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
 	@Override
 	public boolean execute() {
 		// TODO Auto-generated method stub
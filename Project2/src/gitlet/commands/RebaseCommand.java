@@ -1,24 +1,29 @@
 package gitlet.commands;
 
 import gitlet.Commit;
+import gitlet.FileMap;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.Staging;
+import gitlet.diff.TreeDiff;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
-import java.util.Set;
 
 public class RebaseCommand implements ICommand {
 
 	private String branch;
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	private boolean isInteractive;
 	
 	public RebaseCommand(String branch, boolean isInteractive) {
 		this.branch = branch;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 		this.isInteractive = isInteractive;
 	}
 	
@@ -31,13 +36,18 @@ public class RebaseCommand implements ICommand {
 		return true;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
 		
 		//if branch doesn't exist, print message and fail
 		if(!fileWriter.exists(".gitlet/refs/heads/" + branch)){
-			System.out.println("A branch with that name does not exist.");
-			System.err.println("Branch does not exist");
+			output.getOut().println("A branch with that name does not exist.");
+			output.getErr().println("Branch does not exist");
 			return false;
 		}
 		
@@ -45,8 +55,8 @@ public class RebaseCommand implements ICommand {
 		//if branch is the current branch, print message and fail;
 		String currentBranch = fileWriter.getCurrentBranch();
 		if(branch.equals(currentBranch)){
-			System.out.println("Cannot rebase a branch with itself.");
-			//System.err.println("Already up to date");
+			output.getOut().println("Cannot rebase a branch with itself.");
+			//output.getErr().println("Already up to date");
 			return false;
 		}
 		
@@ -65,98 +75,134 @@ public class RebaseCommand implements ICommand {
 		
 		//if other == split, current is up to date
 		if(other.getId().equals(split.getId())){
-			System.out.println("Already up-to-date.");
-			System.err.println("Already up-to-date.");
+			output.getOut().println("Already up-to-date.");
+			output.getErr().println("Already up-to-date.");
 			return false;
 		}
 		
-		//move current branch to point at head of target branch, so 
-		//commits will continue from there
-		fileWriter.createFile(fileWriter.getCurrentBranchRef(), other.getId());
-		
-		replayFromSplit(current, branch, split, 0);
-		
-		new ResetCommand(fileWriter.getCurrentHeadPointer()).execute();
+		//replay the commits in memory on top of the other branch, then
+		//move the branch and bring the working directory up to date once
+		HashMap<String, String> replayedFiles = new HashMap<String, String>();
+		Commit tip = replayFromSplit(current, other, split, replayedFiles);
+		fileWriter.createFile(fileWriter.getCurrentBranchRef(), tip.getId());
+		fileWriter.saveStaging(new Staging());
+		new ResetCommand(tip.getId()).execute();
+		
+		//files the replayed commits changed and a later one removed are left
+		//in the working directory, as replaying them one by one always did
+		for(String file : replayedFiles.keySet()){
+			if(!tip.getFilePointers().containsKey(file))
+				new CheckoutFileCommand(replayedFiles.get(file), file).execute();
+		}
 		
 		return true;
 	}
 	
-	private void replayFromSplit(Commit current, String targetBranch, Commit split, int depth){
-		
-		if(current.getParent() != null && !current.getParent().equals(split)){
-			replayFromSplit(current.getParent(), targetBranch, split, depth + 1);
-		}
-		
-		//get other commmit head
-		Commit other = fileWriter.recoverCommit(fileWriter.getCurrentHeadPointer());
-		
-		HashMap<String, String> currentFP = current.getFilePointers();
-		HashMap<String, String> parentFP = current.getParent().getFilePointers();
-
-
-		//reconstruct the commit.  
-		//if the commitID for the file changed, it was added.		
-		for(String file : currentFP.keySet()){
-			String fileCommit = currentFP.get(file);
-			String parentCommit = parentFP.get(file);
+	/**
+	 * Replays the commits between split and current on top of onto and returns
+	 * the new head. Each new file map is built from the previous one in memory,
+	 * reusing the file pointers of the replayed commits, so the only thing
+	 * written per commit is the commit object itself. The last version of
+	 * every file a replayed commit changed is put in replayedFiles.
+	 */
+	private Commit replayFromSplit(Commit current, Commit onto, Commit split, 
+			final HashMap<String, String> replayedFiles){
+		
+		//collect the commits to replay, oldest first
+		List<Commit> commits = new ArrayList<Commit>();
+		for(Commit c = current; c != null && !c.equals(split); c = c.getParent())
+			commits.add(0, c);
+		
+		Commit tip = onto;
+		final FileMap[] filePointers = { onto.getFilePointers() == null ? 
+				FileMap.EMPTY : onto.getFilePointers() };
+		
+		TreeDiff.Visitor replay = new TreeDiff.Visitor() {
+			//a changed commit id means the file was added or changed. The new
+			//commit points at the same stored copy
+			@Override
+			public void added(String file, String pointer) {
+				filePointers[0] = filePointers[0].with(file, pointer);
+				replayedFiles.put(file, pointer);
+			}
 			
-			if(!fileCommit.equals(parentCommit)){
-				new CheckoutFileCommand(fileCommit, file).execute();
-				new AddCommand(file).execute();//filesToAdd.add(file);
+			@Override
+			public void modified(String file, String parentPointer, String pointer) {
+				added(file, pointer);
 			}
-				
-		}
-		
-		//If parent contained a file and this does not, it was removed
-		for(String file : parentFP.keySet()){
-			Set<String> currentFiles = currentFP.keySet();
 			
-			if(!currentFiles.contains(file) && other.getFilePointers().keySet().contains(file)){
-				new RmCommand(file).execute();
-				//filesToRm.add(file);
+			//if parent contained a file and this does not, it was removed
+			@Override
+			public void removed(String file, String parentPointer) {
+				filePointers[0] = filePointers[0].without(file);
 			}
+		};
+		
+		for(int i = 0; i < commits.size(); i++){
+			//maps a commit shares with its parent are skipped, so this only
+			//walks what the commit changed
+			Commit commit = commits.get(i);
+			FileMap.diff(commit.getParent().getFilePointers(), commit.getFilePointers(), replay);
+			
+			//a skipped commit's changes are carried into the next one
+			String message = isInteractive ? 
+					askForMessage(commit, i == 0 || i == commits.size() - 1) : commit.getMessage();
+			if(message == null)
+				continue;
+			
+			//nothing left to commit, the change is already on the other branch
+			if(filePointers[0].equals(tip.getFilePointers()))
+				continue;
+			
+			Commit newCommit = new Commit(tip, System.currentTimeMillis(), message, filePointers[0]);
+			fileWriter.saveCommit(newCommit);
+			tip = newCommit;
 		}
 		
-		//commit
-		if(isInteractive){
-			Scanner stdin = new Scanner(System.in);
-			String choice = null;
-			while(choice == null){
-				System.out.println("Would you like to (c)ontinue, (s)kip this commit, or change this commit's (m)essage?");
-				choice = stdin.nextLine();
-				switch(choice){
-				case "c":
-					new CommitCommand(current.getMessage()).execute();
-					break;
-				case "s":
-					//if this is first or last commit of branch, tell user they can't pick this... 
-					if(current.getParent().equals(split) || depth == 0){
-						System.out.println("Cannot skip first or last commit!");
-						choice = null;
-					} else {
-						// don't commit
-					}
-					break;
-				case "m":
-					String message = null;
-					while(message == null){
-						System.out.println("Please enter a new message for this commit.");
-						message = stdin.nextLine();
-						if("".equals(message)){
-							System.out.println("Invalid message!");
-							message = null;
-						}
-					}
-					new CommitCommand(message).execute();
-					break;
-				default:
+		return tip;
+	}
+	
+	/**
+	 * Asks the user what to do with a commit. Returns the message to commit
+	 * with, or null to skip the commit. Once there are no answers left to
+	 * read the commit is kept as it is.
+	 */
+	private String askForMessage(Commit commit, boolean cannotSkip){
+		String message = null;
+		String choice = null;
+		while(choice == null){
+			output.getOut().println("Would you like to (c)ontinue, (s)kip this commit, or change this commit's (m)essage?");
+			choice = output.readLine();
+			if(choice == null)
+				return commit.getMessage();
+			switch(choice){
+			case "c":
+				message = commit.getMessage();
+				break;
+			case "s":
+				//if this is first or last commit of branch, tell user they can't pick this... 
+				if(cannotSkip){
+					output.getOut().println("Cannot skip first or last commit!");
 					choice = null;
-					break;	
 				}
+				break;
+			case "m":
+				while(message == null){
+					output.getOut().println("Please enter a new message for this commit.");
+					message = output.readLine();
+					if(message == null)
+						return commit.getMessage();
+					if("".equals(message)){
+						output.getOut().println("Invalid message!");
+						message = null;
+					}
+				}
+				break;
+			default:
+				choice = null;
+				break;	
 			}
-			stdin.close();
-		} else {
-			new CommitCommand(current.getMessage()).execute();
 		}
+		return message;
 	}
 }
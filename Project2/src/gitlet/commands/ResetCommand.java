@@ -1,19 +1,24 @@
 package gitlet.commands;
 
-import java.util.HashMap;
+import java.util.Map;
 
 import gitlet.Commit;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.TimeIndex;
 
 public class ResetCommand implements ICommand {
 
 	private String id;
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	
 	public ResetCommand(String id) {
 		this.id = id;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -21,12 +26,28 @@ public class ResetCommand implements ICommand {
 		return true;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
+		
+		//branch@{date} resets to the last commit made on branch by that date
+		if(TimeIndex.isRevision(id)){
+			try{
+				id = TimeIndex.resolveRevision(fileWriter, id);
+			} catch(IllegalArgumentException ex){
+				output.getOut().println(ex.getMessage());
+				output.getErr().println(ex.getMessage());
+				return false;
+			}
+		}
 				
 		try{
 			Commit commit = fileWriter.recoverCommit(id);
-			HashMap<String, String> fp = commit.getFilePointers();
+			Map<String, String> fp = commit.getFilePointers();
 			
 			if(fp != null && fp.size() > 0){
 				for(String filePath : fp.keySet()){
@@ -38,12 +59,14 @@ public class ResetCommand implements ICommand {
 			//make current branch point to commit
 			String branchRef = fileWriter.getCurrentBranchRef();
 			fileWriter.createFile(branchRef, id);
+			//rebase moves the branch through here too
+			MergeCommand.abandonMerge(fileWriter);
 			
 			return true;
 		}
 		catch(IllegalArgumentException ex){
-			System.out.println("No commit with that id exists.");
-			System.err.println("Commit does not exist");
+			output.getOut().println("No commit with that id exists.");
+			output.getErr().println("Commit does not exist");
 		}
 		
 		return false;
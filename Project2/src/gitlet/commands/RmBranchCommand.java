@@ -2,16 +2,20 @@ package gitlet.commands;
 
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 
 public class RmBranchCommand implements ICommand {
 
 	
 	private String branch;
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	
 	public RmBranchCommand(String branch) {
 		this.branch = branch;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 				
 	}
 
@@ -20,6 +24,11 @@ public class RmBranchCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
 		
@@ -27,16 +36,16 @@ public class RmBranchCommand implements ICommand {
 		
 		//check that branch exists, file if false
 		if (!fileWriter.exists(branchPath)){
-			System.out.println("A branch with that name does not exist.");
-			System.err.println("A branch with that name does not exist.");
+			output.getOut().println("A branch with that name does not exist.");
+			output.getErr().println("A branch with that name does not exist.");
 			return false;
 		}
 			
 		//check that branch is not current branch, fail if true
 		String currentBranch = fileWriter.getCurrentBranch();
 		if(branch.equals(currentBranch)){
-			System.out.println("Cannot remove the current branch.");
-			System.err.println("Cannot remove the current branch.");
+			output.getOut().println("Cannot remove the current branch.");
+			output.getErr().println("Cannot remove the current branch.");
 			return false;
 		}
 		
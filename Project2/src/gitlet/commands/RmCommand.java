@@ -3,17 +3,21 @@ package gitlet.commands;
 import gitlet.Commit;
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 import gitlet.Staging;
 
 public class RmCommand implements ICommand {
 
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	private String fileToRm;
 
 	public RmCommand(String filename) {
 		// TODO Auto-generated constructor stub
 		fileToRm = filename;
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 
 	@Override
@@ -22,6 +26,11 @@ public class RmCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public boolean execute() {
 		// get the current staging area
@@ -49,8 +58,8 @@ public class RmCommand implements ICommand {
 			fileWriter.saveStaging(staging);
 			return true;
 		} else {
-			System.out.println("No reason to remove the file.");
-			System.err.println("Cannot remove: file was not tracked or added.");
+			output.getOut().println("No reason to remove the file.");
+			output.getErr().println("Cannot remove: file was not tracked or added.");
 			return false;
 		}
 		
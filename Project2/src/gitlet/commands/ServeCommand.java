@@ -0,0 +1,68 @@
+package gitlet.commands;
+
+import gitlet.BufferedOutputSink;
+import gitlet.FileWriterFactory;
+import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.Repository;
+import gitlet.http.QueryServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+public class ServeCommand implements ICommand {
+
+	private IFileWriter fileWriter;
+	private IOutputSink output;
+	private int port;
+	
+	/**
+	 * Answers read-only queries over HTTP on localhost until the process is
+	 * stopped.
+	 */
+	public ServeCommand(int port) {
+		this.port = port;
+		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
+	}
+
+	@Override
+	public boolean isDangerous() {
+		return false;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean execute() {
+		if(!fileWriter.isDirectory(".gitlet")){
+			output.getOut().println("Not in an initialized gitlet directory.");
+			output.getErr().println("No .gitlet directory to serve");
+			return false;
+		}
+		
+		try{
+			Repository repository = Repository.open(new File(fileWriter.getWorkingDirectory()), 
+					new BufferedOutputSink());
+			QueryServer server = new QueryServer(repository, 
+					new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+			server.start();
+			output.getOut().println("Serving queries on http://localhost:" + server.getPort() + "/");
+			server.awaitStop();
+			return true;
+		} catch(IOException ex){
+			output.getOut().println("Could not start the server.");
+			output.getErr().println("Could not start the server: " + ex.getMessage());
+			return false;
+		} catch(InterruptedException ex){
+			return true;
+		}
+	}
+
+}
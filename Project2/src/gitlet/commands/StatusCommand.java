@@ -2,6 +2,8 @@ package gitlet.commands;
 
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.IOutputSink;
+import gitlet.OutputSinkFactory;
 import gitlet.Staging;
 
 import java.util.Arrays;
@@ -11,9 +13,11 @@ import java.util.List;
 public class StatusCommand implements ICommand {
 
 	private IFileWriter fileWriter;
+	private IOutputSink output;
 	
 	public StatusCommand(){
 		fileWriter = FileWriterFactory.getWriter();
+		output = OutputSinkFactory.getSink();
 	}
 	
 	@Override
@@ -22,6 +26,11 @@ public class StatusCommand implements ICommand {
 		return false;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
 	@Override
 	public boolean execute() {
 		// TODO Auto-generated method stub
@@ -34,36 +43,36 @@ public class StatusCommand implements ICommand {
 		
 		//print all branches, sorted alphabetically, with 
 		//an asterisk next to current branch
-		System.out.println("=== Branches ===");
+		output.getOut().println("=== Branches ===");
 		for(String branch : allBranches){
 			if(branch.equals(currentBranch)){
 				branch = "*" + branch;
 			}
-			System.out.println(branch);
+			output.getOut().println(branch);
 		}
-		System.out.println();
+		output.getOut().println();
 		
 		//get staging
 		Staging staging = fileWriter.recoverStaging();
 		
 		//print files in filesToAdd.
-		System.out.println("=== Staged Files ===");
+		output.getOut().println("=== Staged Files ===");
 		if(staging.getFilesToAdd().size() > 0){
 			List<String> filesToAdd = staging.getFilesToAdd();
 			Collections.sort(filesToAdd);
 			for(String file : filesToAdd){
-				System.out.println(file);
+				output.getOut().println(file);
 			}
 		}
-		System.out.println();
+		output.getOut().println();
 		
 		//print files in filesToRm
-		System.out.println("=== Files Marked for Removal ===");
+		output.getOut().println("=== Files Marked for Removal ===");
 		if(staging.getFilesToRm().size() > 0){
 			List<String> filesToRm = staging.getFilesToRm();
 			Collections.sort(filesToRm);
 			for(String file : staging.getFilesToRm()){
-				System.out.println(file);
+				output.getOut().println(file);
 			}
 		}
 		return true;
@@ -3,6 +3,8 @@ package gitlet.commands.factories;
 import gitlet.commands.AddCommand;
 import gitlet.commands.ICommand;
 
+import java.util.Arrays;
+
 public class AddCommandFactory implements ICommandFactory {
 
 	@Override
@@ -20,7 +22,7 @@ public class AddCommandFactory implements ICommandFactory {
 	@Override
 	public ICommand makeCommand(String[] args) {
 		// TODO Auto-generated method stub
-		return new AddCommand(args[1]);
+		return new AddCommand(Arrays.copyOfRange(args, 1, args.length));
 	}
 
 }
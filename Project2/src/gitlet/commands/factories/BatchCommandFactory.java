@@ -0,0 +1,37 @@
+package gitlet.commands.factories;
+
+import gitlet.OutputSinkFactory;
+import gitlet.commands.BatchCommand;
+import gitlet.commands.ICommand;
+import gitlet.commands.NoOpCommand;
+
+public class BatchCommandFactory implements ICommandFactory {
+
+	@Override
+	public String getCommandName() {
+		return "batch";
+	}
+
+	@Override
+	public String getDescription() {
+		return null;
+	}
+
+	@Override
+	public ICommand makeCommand(String[] args) {
+		boolean nulDelimited = false;
+		String file = null;
+		for(int i = 1; i < args.length; i++){
+			if("-z".equals(args[i]) && !nulDelimited){
+				nulDelimited = true;
+			} else if(file == null && !args[i].startsWith("-")){
+				file = args[i];
+			} else {
+				OutputSinkFactory.getSink().getErr().println("Usage: batch [-z] [FILE]");
+				return new NoOpCommand();
+			}
+		}
+		return new BatchCommand(file, nulDelimited);
+	}
+
+}
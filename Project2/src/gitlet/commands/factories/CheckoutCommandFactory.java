@@ -2,8 +2,10 @@ package gitlet.commands.factories;
 
 import gitlet.FileWriterFactory;
 import gitlet.IFileWriter;
+import gitlet.TimeIndex;
 import gitlet.commands.CheckoutBranchCommand;
 import gitlet.commands.CheckoutFileCommand;
+import gitlet.commands.CheckoutRevisionCommand;
 import gitlet.commands.ICommand;
 
 import java.util.Arrays;
@@ -11,11 +13,6 @@ import java.util.List;
 
 public class CheckoutCommandFactory implements ICommandFactory {
 
-	private IFileWriter fileWriter;
-	public CheckoutCommandFactory(){
-		fileWriter = FileWriterFactory.getWriter();
-	}
-	
 	@Override
 	public String getCommandName() {
 		// TODO Auto-generated method stub
@@ -31,10 +28,14 @@ public class CheckoutCommandFactory implements ICommandFactory {
 	@Override
 	public ICommand makeCommand(String[] args) {
 		// TODO Auto-generated method stub
+		//the writer is only needed once a checkout is actually parsed
+		IFileWriter fileWriter = FileWriterFactory.getWriter();
 		List<String> branches = Arrays.asList(fileWriter.getAllBranches());
 		
 		if(args.length == 2 && branches.contains(args[1]))
 			return new CheckoutBranchCommand(args[1]);
+		else if(args.length == 2 && TimeIndex.isRevision(args[1]))
+			return new CheckoutRevisionCommand(args[1]);
 		else {
 			if(args.length == 2)
 				return new CheckoutFileCommand(args[1]);
@@ -0,0 +1,75 @@
+package gitlet.commands.factories;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command factories by command name. A factory class is only loaded and
+ * constructed when its command is first looked up, so running one command
+ * doesn't load and construct every other one.
+ *
+ * Factories are registered by class name rather than with lambdas, whose
+ * first use costs more JVM startup than it saves.
+ */
+public class CommandRegistry {
+
+	private final Map<String, String> classNames;
+	private final Map<String, ICommandFactory> factories;
+
+	public CommandRegistry() {
+		classNames = new LinkedHashMap<String, String>();
+		factories = new HashMap<String, ICommandFactory>();
+	}
+
+	/**
+	 * Registers the factory class, which needs a public no argument
+	 * constructor, for the command.
+	 */
+	public void register(String commandName, String factoryClassName) {
+		classNames.put(commandName, factoryClassName);
+		factories.remove(commandName);
+	}
+
+	/**
+	 * Registers a factory that already exists under its own command name.
+	 */
+	public void register(ICommandFactory factory) {
+		classNames.put(factory.getCommandName(), factory.getClass().getName());
+		factories.put(factory.getCommandName(), factory);
+	}
+
+	/**
+	 * Returns the factory for the command, or null if there is no such
+	 * command. The factory is created on the first call and reused after.
+	 */
+	public ICommandFactory get(String commandName) {
+		ICommandFactory factory = factories.get(commandName);
+		if (factory == null) {
+			String className = classNames.get(commandName);
+			if (className == null)
+				return null;
+			factory = create(className);
+			factories.put(commandName, factory);
+		}
+		return factory;
+	}
+
+	public Set<String> getCommandNames() {
+		return classNames.keySet();
+	}
+
+	private static ICommandFactory create(String className) {
+		try {
+			return (ICommandFactory) Class.forName(className)
+					.getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException | InstantiationException
+				| IllegalAccessException | NoSuchMethodException
+				| InvocationTargetException e) {
+			throw new IllegalStateException("Cannot create command factory "
+					+ className, e);
+		}
+	}
+}
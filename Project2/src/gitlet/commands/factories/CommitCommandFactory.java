@@ -1,5 +1,6 @@
 package gitlet.commands.factories;
 
+import gitlet.OutputSinkFactory;
 import gitlet.commands.CommitCommand;
 import gitlet.commands.ICommand;
 import gitlet.commands.NoOpCommand;
@@ -23,14 +24,14 @@ public class CommitCommandFactory implements ICommandFactory {
 		// TODO Auto-generated method stub
 		
 		if(args.length < 2){
-			System.out.println("Please enter a commit message.");
-			System.err.println("Need more arguments\nUsage: java Gitlet commit MESSAGE");
+			OutputSinkFactory.getSink().getOut().println("Please enter a commit message.");
+			OutputSinkFactory.getSink().getErr().println("Need more arguments\nUsage: java Gitlet commit MESSAGE");
 			return new NoOpCommand();
 		}
 		
 		if(args.length > 2){
-			System.out.println("Too many arguments");
-			System.err.println("Usage: java Gitlet commit MESSAGE");
+			OutputSinkFactory.getSink().getOut().println("Too many arguments");
+			OutputSinkFactory.getSink().getErr().println("Usage: java Gitlet commit MESSAGE");
 			return new NoOpCommand();
 		}		
 		
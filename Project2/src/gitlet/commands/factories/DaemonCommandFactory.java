@@ -0,0 +1,31 @@
+package gitlet.commands.factories;
+
+import gitlet.OutputSinkFactory;
+import gitlet.commands.DaemonCommand;
+import gitlet.commands.ICommand;
+import gitlet.commands.NoOpCommand;
+
+public class DaemonCommandFactory implements ICommandFactory {
+
+	@Override
+	public String getCommandName() {
+		return "daemon";
+	}
+
+	@Override
+	public String getDescription() {
+		return null;
+	}
+
+	@Override
+	public ICommand makeCommand(String[] args) {
+		if(args.length == 1)
+			return new DaemonCommand(false);
+		if(args.length == 2 && "stop".equals(args[1]))
+			return new DaemonCommand(true);
+		
+		OutputSinkFactory.getSink().getErr().println("Usage: daemon [stop]");
+		return new NoOpCommand();
+	}
+
+}
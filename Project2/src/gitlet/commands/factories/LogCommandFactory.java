@@ -1,7 +1,10 @@
 package gitlet.commands.factories;
 
+import gitlet.OutputSinkFactory;
+import gitlet.TimeIndex;
 import gitlet.commands.ICommand;
 import gitlet.commands.LogCommand;
+import gitlet.commands.NoOpCommand;
 
 public class LogCommandFactory implements ICommandFactory {
 
@@ -19,8 +22,52 @@ public class LogCommandFactory implements ICommandFactory {
 
 	@Override
 	public ICommand makeCommand(String[] args) {
-		// TODO Auto-generated method stub
-		return new LogCommand();
+		//log [--since <date>] [--until <date>] [-- <path>]
+		String path = null;
+		Long since = null;
+		Long until = null;
+		
+		for(int i = 1; i < args.length; i++){
+			String arg = args[i];
+			
+			//log -- <path> only lists the commits that changed path
+			if("--".equals(arg)){
+				if(i + 1 >= args.length)
+					return usage("Missing path after --");
+				path = args[++i];
+				continue;
+			}
+			
+			boolean isSince = "--since".equals(arg) || arg.startsWith("--since=");
+			boolean isUntil = "--until".equals(arg) || arg.startsWith("--until=");
+			if(!isSince && !isUntil)
+				return usage("Invalid argument: " + arg);
+			
+			String value;
+			if(arg.indexOf('=') != -1)
+				value = arg.substring(arg.indexOf('=') + 1);
+			else if(i + 1 < args.length)
+				value = args[++i];
+			else
+				value = "";
+			
+			Long time = TimeIndex.parseTime(value);
+			if(time == null)
+				return usage("Invalid date: " + value);
+			
+			if(isSince)
+				since = time;
+			else
+				until = time;
+		}
+		
+		return new LogCommand(path, since, until);
+	}
+	
+	private ICommand usage(String message){
+		OutputSinkFactory.getSink().getOut().println(message);
+		OutputSinkFactory.getSink().getErr().println("Usage: java Gitlet log [--since DATE] [--until DATE] [-- PATH]");
+		return new NoOpCommand();
 	}
 
 }
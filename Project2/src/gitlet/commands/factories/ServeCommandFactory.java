@@ -0,0 +1,40 @@
+package gitlet.commands.factories;
+
+import gitlet.OutputSinkFactory;
+import gitlet.commands.ICommand;
+import gitlet.commands.NoOpCommand;
+import gitlet.commands.ServeCommand;
+
+public class ServeCommandFactory implements ICommandFactory {
+
+	private static final int DEFAULT_PORT = 8417;
+
+	@Override
+	public String getCommandName() {
+		return "serve";
+	}
+
+	@Override
+	public String getDescription() {
+		return null;
+	}
+
+	@Override
+	public ICommand makeCommand(String[] args) {
+		if(args.length == 1)
+			return new ServeCommand(DEFAULT_PORT);
+		if(args.length == 2){
+			try{
+				int port = Integer.parseInt(args[1]);
+				if(port >= 0 && port <= 65535)
+					return new ServeCommand(port);
+			} catch(NumberFormatException ex){
+				//fall through to the usage
+			}
+		}
+		
+		OutputSinkFactory.getSink().getErr().println("Usage: serve [PORT]");
+		return new NoOpCommand();
+	}
+
+}
@@ -0,0 +1,154 @@
+package gitlet.daemon;
+
+import gitlet.Gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Thin client for the daemon: forwards the arguments, copies the command's
+ * output to stdout and stderr and answers its prompts from stdin. When no
+ * daemon is running in the repository the command is run in this process,
+ * so the client can always be used in place of gitlet.Gitlet. A daemon that
+ * goes away during a command is reported, with exit status 1, since the
+ * command may have run already.
+ */
+public class DaemonClient {
+
+	public static void main(String[] args) {
+		Path socket = Paths.get(DaemonProtocol.SOCKET);
+		SocketChannel connection = null;
+		if (Files.exists(socket)) {
+			try {
+				connection = connect(socket);
+			} catch (IOException e) {
+				//stale socket, the daemon is gone
+			}
+		}
+		if (connection == null) {
+			Gitlet.main(args);
+			return;
+		}
+
+		//once the arguments may have reached the daemon the command can't
+		//run here too, it may have done its writes already
+		int status;
+		try (SocketChannel daemon = connection) {
+			status = run(daemon, args, System.in, System.out, System.err);
+		} catch (IOException e) {
+			System.out.flush();
+			System.err.println("Lost the connection to the gitlet daemon: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		System.out.flush();
+		System.exit(status);
+	}
+
+	/**
+	 * Connects to the daemon listening on socket. Throws an IOException if
+	 * no daemon answers.
+	 */
+	public static SocketChannel connect(Path socket) throws IOException {
+		return SocketChannel.open(UnixDomainSocketAddress.of(socket));
+	}
+
+	/**
+	 * Runs a command on the daemon listening on socket and returns its exit
+	 * status. Throws an IOException if no daemon answers.
+	 */
+	public static int run(Path socket, String[] args, InputStream in,
+			OutputStream out, OutputStream err) throws IOException {
+		try (SocketChannel connection = connect(socket)) {
+			return run(connection, args, in, out, err);
+		}
+	}
+
+	/**
+	 * Runs a command over a connection to the daemon and returns its exit
+	 * status. Throws an IOException if the connection breaks.
+	 */
+	public static int run(SocketChannel connection, String[] args, InputStream in,
+			OutputStream out, OutputStream err) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(
+				Channels.newInputStream(connection)));
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				Channels.newOutputStream(connection)));
+		DaemonProtocol.writeArgs(output, args);
+
+		while (true) {
+			byte type = input.readByte();
+			switch (type) {
+			case DaemonProtocol.STDOUT:
+				copyFrame(input, out);
+				break;
+			case DaemonProtocol.STDERR:
+				copyFrame(input, err);
+				break;
+			case DaemonProtocol.READ:
+				out.flush();
+				sendLine(in, output);
+				break;
+			case DaemonProtocol.EXIT:
+				out.flush();
+				err.flush();
+				return input.readInt();
+			default:
+				throw new IOException("Unexpected frame from daemon: " + type);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if a daemon answers on socket.
+	 */
+	public static boolean isRunning(Path socket) {
+		try {
+			connect(socket).close();
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static void copyFrame(DataInputStream input, OutputStream target)
+			throws IOException {
+		byte[] bytes = new byte[input.readInt()];
+		input.readFully(bytes);
+		target.write(bytes);
+	}
+
+	/**
+	 * Sends one line of input, including its line break, or -1 at the end of
+	 * the input.
+	 */
+	private static void sendLine(InputStream in, DataOutputStream output)
+			throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) >= 0) {
+			line.write(b);
+			if (b == '\n')
+				break;
+		}
+		if (line.size() == 0) {
+			output.writeInt(-1);
+		} else {
+			output.writeInt(line.size());
+			line.writeTo(output);
+		}
+		output.flush();
+	}
+}
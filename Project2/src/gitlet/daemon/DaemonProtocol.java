@@ -0,0 +1,142 @@
+package gitlet.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Wire format between the daemon and its clients. The client sends the
+ * argument count followed by each argument. The daemon answers with frames,
+ * each starting with a type byte:
+ *
+ * STDOUT, STDERR: an int length and that many bytes of output
+ * READ: the command wants input, the client answers with an int length and
+ *       the bytes of one line, or -1 at the end of its input
+ * EXIT: an int, 0 if the command succeeded and 1 if it didn't
+ */
+public class DaemonProtocol {
+
+	public static final String SOCKET = ".gitlet/daemon.sock";
+
+	public static final byte STDOUT = 1;
+	public static final byte STDERR = 2;
+	public static final byte READ = 3;
+	public static final byte EXIT = 4;
+
+	/**
+	 * "daemon stop" is answered by the daemon itself rather than run as a
+	 * command.
+	 */
+	public static boolean isStop(String[] args) {
+		return args.length == 2 && "daemon".equals(args[0])
+				&& "stop".equals(args[1]);
+	}
+
+	public static void writeArgs(DataOutputStream output, String[] args)
+			throws IOException {
+		output.writeInt(args.length);
+		for (String arg : args)
+			output.writeUTF(arg);
+		output.flush();
+	}
+
+	public static String[] readArgs(DataInputStream input) throws IOException {
+		String[] args = new String[input.readInt()];
+		for (int i = 0; i < args.length; i++)
+			args[i] = input.readUTF();
+		return args;
+	}
+
+	/**
+	 * Writes everything it is given as frames of one type. Several of these
+	 * share the same connection, so frames are written whole.
+	 */
+	public static class FrameOutputStream extends OutputStream {
+		private final DataOutputStream output;
+		private final byte type;
+
+		public FrameOutputStream(DataOutputStream output, byte type) {
+			this.output = output;
+			this.type = type;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return;
+			synchronized (output) {
+				output.writeByte(type);
+				output.writeInt(len);
+				output.write(b, off, len);
+			}
+		}
+	}
+
+	/**
+	 * Input of a command run by the daemon. When it runs dry it asks the
+	 * client for the next line.
+	 */
+	public static class RemoteInputStream extends InputStream {
+		private final DataInputStream input;
+		private final DataOutputStream output;
+		private byte[] line = new byte[0];
+		private int position;
+		private boolean ended;
+
+		public RemoteInputStream(DataInputStream input, DataOutputStream output) {
+			this.input = input;
+			this.output = output;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (position == line.length && !fill())
+				return -1;
+			int count = Math.min(len, line.length - position);
+			System.arraycopy(line, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		private boolean fill() throws IOException {
+			if (ended)
+				return false;
+			synchronized (output) {
+				output.writeByte(READ);
+				output.flush();
+			}
+			int length = input.readInt();
+			if (length < 0) {
+				ended = true;
+				return false;
+			}
+			line = new byte[length];
+			input.readFully(line);
+			position = 0;
+			return true;
+		}
+
+		/**
+		 * Closing System.in doesn't close the connection, it stays open until
+		 * the command is done.
+		 */
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package gitlet.daemon;
+
+import gitlet.CachingFileWriter;
+import gitlet.FileWriterFactory;
+import gitlet.Gitlet;
+import gitlet.IFileWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves gitlet commands over a Unix domain socket in the repository, so a
+ * build script calling gitlet many times pays for JVM startup once. The
+ * daemon keeps a CachingFileWriter between commands.
+ *
+ * Commands write to System.out and System.err, so they are run one at a
+ * time; the streams are pointed at the connection for each command.
+ */
+public class DaemonServer {
+
+	private static final Logger fLogger = Logger.getLogger(DaemonServer.class
+			.getPackage().getName());
+
+	private final Path socket;
+	private ServerSocketChannel server;
+	private volatile boolean running;
+
+	public DaemonServer() {
+		this(Paths.get(DaemonProtocol.SOCKET));
+	}
+
+	public DaemonServer(Path socket) {
+		this.socket = socket;
+	}
+
+	/**
+	 * Binds the socket. Returns false if another daemon is already serving
+	 * it; a socket file left behind by a daemon that died is replaced.
+	 */
+	public boolean bind() throws IOException {
+		if (Files.exists(socket)) {
+			if (DaemonClient.isRunning(socket))
+				return false;
+			Files.delete(socket);
+		}
+		server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(socket));
+		running = true;
+		return true;
+	}
+
+	/**
+	 * Serves connections until a client asks the daemon to stop.
+	 */
+	public void serve() throws IOException {
+		IFileWriter previous = FileWriterFactory.bind(new CachingFileWriter(
+				FileWriterFactory.getWriter()));
+		try {
+			while (running) {
+				try (SocketChannel connection = server.accept()) {
+					handle(connection);
+				} catch (IOException e) {
+					//the client went away, keep serving the others
+					fLogger.log(Level.WARNING, "Lost daemon client.", e);
+				}
+			}
+		} finally {
+			FileWriterFactory.bind(previous);
+			server.close();
+			Files.deleteIfExists(socket);
+		}
+	}
+
+	private void handle(SocketChannel connection) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(
+				Channels.newInputStream(connection)));
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				Channels.newOutputStream(connection)));
+
+		String[] args;
+		try {
+			args = DaemonProtocol.readArgs(input);
+		} catch (EOFException e) {
+			//someone only checked that the daemon is up
+			return;
+		}
+		boolean succeeded;
+		if (DaemonProtocol.isStop(args)) {
+			running = false;
+			succeeded = true;
+		} else if (args.length > 0 && "daemon".equals(args[0])) {
+			byte[] message = ("A daemon is already running." + System.lineSeparator()).getBytes();
+			new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDOUT).write(message);
+			succeeded = false;
+		} else {
+			succeeded = run(args, input, output);
+		}
+
+		synchronized (output) {
+			output.writeByte(DaemonProtocol.EXIT);
+			output.writeInt(succeeded ? 0 : 1);
+			output.flush();
+		}
+	}
+
+	private boolean run(String[] args, DataInputStream input,
+			DataOutputStream output) {
+		PrintStream out = System.out;
+		PrintStream err = System.err;
+		InputStream in = System.in;
+		PrintStream remoteOut = new PrintStream(new DaemonProtocol.FrameOutputStream(
+				output, DaemonProtocol.STDOUT), true);
+		PrintStream remoteErr = new PrintStream(new DaemonProtocol.FrameOutputStream(
+				output, DaemonProtocol.STDERR), true);
+		System.setOut(remoteOut);
+		System.setErr(remoteErr);
+		System.setIn(new DaemonProtocol.RemoteInputStream(input, output));
+		try {
+			return Gitlet.run(args);
+		} catch (RuntimeException e) {
+			//a failing command must not take the daemon down with it
+			e.printStackTrace();
+			return false;
+		} finally {
+			remoteOut.flush();
+			remoteErr.flush();
+			System.setOut(out);
+			System.setErr(err);
+			System.setIn(in);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package gitlet.diff;
+
+/**
+ * A region [beginA, endA) of sequence A that was replaced by the region
+ * [beginB, endB) of sequence B. Either region may be empty.
+ */
+public class Edit {
+
+	private final int beginA;
+	private final int endA;
+	private final int beginB;
+	private final int endB;
+
+	public Edit(int beginA, int endA, int beginB, int endB) {
+		this.beginA = beginA;
+		this.endA = endA;
+		this.beginB = beginB;
+		this.endB = endB;
+	}
+
+	public int getBeginA() {
+		return beginA;
+	}
+
+	public int getEndA() {
+		return endA;
+	}
+
+	public int getBeginB() {
+		return beginB;
+	}
+
+	public int getEndB() {
+		return endB;
+	}
+
+	/**
+	 * The change in length this edit makes, B minus A.
+	 */
+	public int getShift() {
+		return (endB - beginB) - (endA - beginA);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof Edit) {
+			Edit other = (Edit) o;
+			return beginA == other.beginA && endA == other.endA
+					&& beginB == other.beginB && endB == other.endB;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return ((beginA * 31 + endA) * 31 + beginB) * 31 + endB;
+	}
+
+	@Override
+	public String toString() {
+		return "Edit[" + beginA + "-" + endA + "," + beginB + "-" + endB + "]";
+	}
+}
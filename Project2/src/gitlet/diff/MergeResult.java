@@ -0,0 +1,28 @@
+package gitlet.diff;
+
+public class MergeResult {
+
+	private final String text;
+	private final int conflicts;
+
+	public MergeResult(String text, int conflicts) {
+		this.text = text;
+		this.conflicts = conflicts;
+	}
+
+	/**
+	 * The merged text, with conflict markers around the regions both sides
+	 * changed differently.
+	 */
+	public String getText() {
+		return text;
+	}
+
+	public int getConflicts() {
+		return conflicts;
+	}
+
+	public boolean hasConflicts() {
+		return conflicts > 0;
+	}
+}
@@ -0,0 +1,177 @@
+package gitlet.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Myers' O(ND) difference algorithm with the linear space refinement: instead
+ * of keeping every V array to trace back the path, each call only finds the
+ * middle snake of the shortest edit script and recurses on both halves.
+ */
+public class MyersDiff {
+
+	/**
+	 * Returns the edits that turn a into b, in order.
+	 */
+	public static List<Edit> diff(List<String> a, List<String> b) {
+		//compare lines by id so the inner loop doesn't call String.equals
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		return diff(toIds(a, ids), toIds(b, ids));
+	}
+
+	public static List<Edit> diff(int[] a, int[] b) {
+		List<Edit> edits = new ArrayList<Edit>();
+		new MyersDiff(a, b).diff(0, a.length, 0, b.length, edits);
+		return coalesce(edits);
+	}
+
+	/**
+	 * Splits text into lines, keeping the line terminators so that joining
+	 * the lines gives back the exact text.
+	 */
+	public static List<String> splitLines(String text) {
+		List<String> lines = new ArrayList<String>();
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				lines.add(text.substring(start, i + 1));
+				start = i + 1;
+			}
+		}
+		if (start < text.length())
+			lines.add(text.substring(start));
+		return lines;
+	}
+
+	static int[] toIds(List<String> lines, HashMap<String, Integer> ids) {
+		int[] result = new int[lines.size()];
+		for (int i = 0; i < result.length; i++) {
+			Integer id = ids.get(lines.get(i));
+			if (id == null) {
+				id = ids.size();
+				ids.put(lines.get(i), id);
+			}
+			result[i] = id;
+		}
+		return result;
+	}
+
+	/**
+	 * The recursion can return edits that touch each other, merge those.
+	 */
+	private static List<Edit> coalesce(List<Edit> edits) {
+		List<Edit> result = new ArrayList<Edit>();
+		Edit last = null;
+		for (Edit edit : edits) {
+			if (last != null && last.getEndA() == edit.getBeginA()
+					&& last.getEndB() == edit.getBeginB()) {
+				last = new Edit(last.getBeginA(), edit.getEndA(),
+						last.getBeginB(), edit.getEndB());
+				result.set(result.size() - 1, last);
+			} else {
+				result.add(edit);
+				last = edit;
+			}
+		}
+		return result;
+	}
+
+	private final int[] a;
+	private final int[] b;
+
+	private MyersDiff(int[] a, int[] b) {
+		this.a = a;
+		this.b = b;
+	}
+
+	private void diff(int aLo, int aHi, int bLo, int bHi, List<Edit> edits) {
+		//strip the common prefix and suffix, they are never part of an edit
+		while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+			aLo++;
+			bLo++;
+		}
+		while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+			aHi--;
+			bHi--;
+		}
+
+		if (aLo == aHi || bLo == bHi) {
+			if (aLo < aHi || bLo < bHi)
+				edits.add(new Edit(aLo, aHi, bLo, bHi));
+			return;
+		}
+
+		int[] snake = middleSnake(aLo, aHi, bLo, bHi);
+		diff(aLo, snake[0], bLo, snake[1], edits);
+		diff(snake[2], aHi, snake[3], bHi, edits);
+	}
+
+	/**
+	 * Finds the middle snake of the shortest edit script between
+	 * a[aLo, aHi) and b[bLo, bHi), searching forward from the start and
+	 * backward from the end until the two searches overlap. Returns the
+	 * absolute start and end of the snake as {x, y, u, v}.
+	 */
+	private int[] middleSnake(int aLo, int aHi, int bLo, int bHi) {
+		int n = aHi - aLo;
+		int m = bHi - bLo;
+		int delta = n - m;
+		boolean odd = (delta & 1) != 0;
+		int max = (n + m + 1) / 2;
+		int offset = max + 1;
+
+		//forward[k] is the furthest x reached on diagonal k = x - y, and
+		//backward[k] the furthest x reached from the end on the reversed
+		//sequences
+		int[] forward = new int[2 * max + 3];
+		int[] backward = new int[2 * max + 3];
+
+		for (int d = 0; d <= max; d++) {
+			for (int k = -d; k <= d; k += 2) {
+				int x;
+				if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1]))
+					x = forward[offset + k + 1];
+				else
+					x = forward[offset + k - 1] + 1;
+				int y = x - k;
+				int startX = x;
+				int startY = y;
+				while (x < n && y < m && a[aLo + x] == b[bLo + y]) {
+					x++;
+					y++;
+				}
+				forward[offset + k] = x;
+
+				int reverseK = delta - k;
+				if (odd && reverseK >= -(d - 1) && reverseK <= d - 1
+						&& x + backward[offset + reverseK] >= n)
+					return new int[] { aLo + startX, bLo + startY, aLo + x, bLo + y };
+			}
+
+			for (int k = -d; k <= d; k += 2) {
+				int x;
+				if (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1]))
+					x = backward[offset + k + 1];
+				else
+					x = backward[offset + k - 1] + 1;
+				int y = x - k;
+				int startX = x;
+				int startY = y;
+				while (x < n && y < m && a[aHi - 1 - x] == b[bHi - 1 - y]) {
+					x++;
+					y++;
+				}
+				backward[offset + k] = x;
+
+				int forwardK = delta - k;
+				if (!odd && forwardK >= -d && forwardK <= d
+						&& x + forward[offset + forwardK] >= n)
+					return new int[] { aHi - x, bHi - y, aHi - startX, bHi - startY };
+			}
+		}
+
+		//unreachable, the searches always meet by d = max
+		throw new IllegalStateException("no middle snake found");
+	}
+}
@@ -0,0 +1,125 @@
+package gitlet.diff;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Line based three way merge. Both sides are diffed against the common base,
+ * changes that don't overlap are applied together and overlapping changes
+ * that differ are emitted between conflict markers.
+ */
+public class ThreeWayMerge {
+
+	public static MergeResult merge(String base, String ours, String theirs,
+			String oursLabel, String theirsLabel) {
+		List<String> baseLines = MyersDiff.splitLines(base);
+		List<String> oursLines = MyersDiff.splitLines(ours);
+		List<String> theirsLines = MyersDiff.splitLines(theirs);
+
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		int[] baseIds = MyersDiff.toIds(baseLines, ids);
+		int[] oursIds = MyersDiff.toIds(oursLines, ids);
+		int[] theirsIds = MyersDiff.toIds(theirsLines, ids);
+		List<Edit> oursEdits = MyersDiff.diff(baseIds, oursIds);
+		List<Edit> theirsEdits = MyersDiff.diff(baseIds, theirsIds);
+
+		StringBuilder text = new StringBuilder();
+		int conflicts = 0;
+		int i = 0;
+		int j = 0;
+		int basePos = 0;
+		//how far each side is shifted against the base by the edits so far
+		int oursShift = 0;
+		int theirsShift = 0;
+
+		while (i < oursEdits.size() || j < theirsEdits.size()) {
+			//start a chunk with whichever edit comes first in the base, then
+			//pull in every edit from either side that overlaps or touches it
+			int start;
+			if (j >= theirsEdits.size() || (i < oursEdits.size()
+					&& oursEdits.get(i).getBeginA() <= theirsEdits.get(j).getBeginA()))
+				start = oursEdits.get(i).getBeginA();
+			else
+				start = theirsEdits.get(j).getBeginA();
+
+			int end = start;
+			int oursFirst = i;
+			int theirsFirst = j;
+			boolean grew = true;
+			while (grew) {
+				grew = false;
+				if (i < oursEdits.size() && oursEdits.get(i).getBeginA() <= end) {
+					end = Math.max(end, oursEdits.get(i).getEndA());
+					i++;
+					grew = true;
+				}
+				if (j < theirsEdits.size() && theirsEdits.get(j).getBeginA() <= end) {
+					end = Math.max(end, theirsEdits.get(j).getEndA());
+					j++;
+					grew = true;
+				}
+			}
+
+			appendLines(text, baseLines, basePos, start);
+
+			int oursStart = start + oursShift;
+			int theirsStart = start + theirsShift;
+			for (int e = oursFirst; e < i; e++)
+				oursShift += oursEdits.get(e).getShift();
+			for (int e = theirsFirst; e < j; e++)
+				theirsShift += theirsEdits.get(e).getShift();
+			int oursEnd = end + oursShift;
+			int theirsEnd = end + theirsShift;
+
+			if (oursFirst == i) {
+				appendLines(text, theirsLines, theirsStart, theirsEnd);
+			} else if (theirsFirst == j) {
+				appendLines(text, oursLines, oursStart, oursEnd);
+			} else if (sameLines(oursIds, oursStart, oursEnd, theirsIds,
+					theirsStart, theirsEnd)) {
+				//both sides made the same change
+				appendLines(text, oursLines, oursStart, oursEnd);
+			} else {
+				conflicts++;
+				text.append("<<<<<<< ").append(oursLabel).append('\n');
+				appendBlock(text, oursLines, oursStart, oursEnd);
+				text.append("=======\n");
+				appendBlock(text, theirsLines, theirsStart, theirsEnd);
+				text.append(">>>>>>> ").append(theirsLabel).append('\n');
+			}
+
+			basePos = end;
+		}
+
+		appendLines(text, baseLines, basePos, baseLines.size());
+		return new MergeResult(text.toString(), conflicts);
+	}
+
+	private static boolean sameLines(int[] a, int aStart, int aEnd, int[] b,
+			int bStart, int bEnd) {
+		if (aEnd - aStart != bEnd - bStart)
+			return false;
+		for (int k = 0; k < aEnd - aStart; k++) {
+			if (a[aStart + k] != b[bStart + k])
+				return false;
+		}
+		return true;
+	}
+
+	private static void appendLines(StringBuilder text, List<String> lines,
+			int start, int end) {
+		for (int k = start; k < end; k++)
+			text.append(lines.get(k));
+	}
+
+	/**
+	 * Like appendLines, but makes sure the block ends with a newline so the
+	 * marker after it starts on its own line.
+	 */
+	private static void appendBlock(StringBuilder text, List<String> lines,
+			int start, int end) {
+		appendLines(text, lines, start, end);
+		if (end > start && !lines.get(end - 1).endsWith("\n"))
+			text.append('\n');
+	}
+}
@@ -0,0 +1,97 @@
+package gitlet.diff;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Compares two commits' file maps by walking both path lists in sorted
+ * order at once, like the merge step of merge sort. Each difference goes to
+ * a visitor as it is found, so nothing is allocated per path and the walk
+ * is linear once the trees are sorted.
+ */
+public class TreeDiff {
+
+	/**
+	 * Receives the differences in path order. Pointers are the ids of the
+	 * commits the file versions are stored with.
+	 */
+	public interface Visitor {
+		void added(String path, String pointer);
+
+		void removed(String path, String pointer);
+
+		void modified(String path, String oldPointer, String newPointer);
+	}
+
+	/**
+	 * A file map as two parallel arrays sorted by path.
+	 */
+	public static class Tree {
+		private static final Tree EMPTY = new Tree(new String[0], new String[0]);
+
+		private final String[] paths;
+		private final String[] pointers;
+
+		private Tree(String[] paths, String[] pointers) {
+			this.paths = paths;
+			this.pointers = pointers;
+		}
+
+		/**
+		 * Sorts a file map, which may be null for a commit without files.
+		 */
+		public static Tree of(Map<String, String> filePointers) {
+			if (filePointers == null || filePointers.isEmpty())
+				return EMPTY;
+			String[] paths = filePointers.keySet().toArray(new String[filePointers.size()]);
+			Arrays.sort(paths);
+			String[] pointers = new String[paths.length];
+			for (int i = 0; i < paths.length; i++)
+				pointers[i] = filePointers.get(paths[i]);
+			return new Tree(paths, pointers);
+		}
+
+		public int size() {
+			return paths.length;
+		}
+
+		public String getPath(int i) {
+			return paths[i];
+		}
+
+		public String getPointer(int i) {
+			return pointers[i];
+		}
+	}
+
+	public static void diff(Map<String, String> from, Map<String, String> to, Visitor visitor) {
+		diff(Tree.of(from), Tree.of(to), visitor);
+	}
+
+	/**
+	 * Reports what changed going from one tree to the other.
+	 */
+	public static void diff(Tree from, Tree to, Visitor visitor) {
+		int i = 0;
+		int j = 0;
+		while (i < from.paths.length && j < to.paths.length) {
+			int order = from.paths[i].compareTo(to.paths[j]);
+			if (order < 0) {
+				visitor.removed(from.paths[i], from.pointers[i]);
+				i++;
+			} else if (order > 0) {
+				visitor.added(to.paths[j], to.pointers[j]);
+				j++;
+			} else {
+				if (!from.pointers[i].equals(to.pointers[j]))
+					visitor.modified(from.paths[i], from.pointers[i], to.pointers[j]);
+				i++;
+				j++;
+			}
+		}
+		for (; i < from.paths.length; i++)
+			visitor.removed(from.paths[i], from.pointers[i]);
+		for (; j < to.paths.length; j++)
+			visitor.added(to.paths[j], to.pointers[j]);
+	}
+}
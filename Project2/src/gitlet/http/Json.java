@@ -0,0 +1,98 @@
+package gitlet.http;
+
+import gitlet.Commit;
+
+import java.util.List;
+
+/**
+ * Just enough JSON writing for the query server's responses.
+ */
+public class Json {
+
+	private final StringBuilder text = new StringBuilder();
+
+	public static String string(String value) {
+		if (value == null)
+			return "null";
+		StringBuilder quoted = new StringBuilder(value.length() + 2);
+		quoted.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				quoted.append("\\\"");
+				break;
+			case '\\':
+				quoted.append("\\\\");
+				break;
+			case '\n':
+				quoted.append("\\n");
+				break;
+			case '\r':
+				quoted.append("\\r");
+				break;
+			case '\t':
+				quoted.append("\\t");
+				break;
+			default:
+				if (c < 0x20)
+					quoted.append(String.format("\\u%04x", (int) c));
+				else
+					quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+
+	public static String strings(List<String> values) {
+		StringBuilder array = new StringBuilder("[");
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0)
+				array.append(',');
+			array.append(string(values.get(i)));
+		}
+		return array.append(']').toString();
+	}
+
+	/**
+	 * A commit as {"id", "parents", "message", "timestamp"}.
+	 */
+	public static String commit(Commit commit) {
+		StringBuilder parents = new StringBuilder("[");
+		for (int i = 0; i < commit.getParents().size(); i++) {
+			if (i > 0)
+				parents.append(',');
+			parents.append(string(commit.getParents().get(i).getId()));
+		}
+		parents.append(']');
+		return new Json().field("id", string(commit.getId()))
+				.field("parents", parents.toString())
+				.field("message", string(commit.getMessage()))
+				.field("timestamp", String.valueOf(commit.getTimeStamp()))
+				.toString();
+	}
+
+	public static String commits(List<Commit> commits) {
+		StringBuilder array = new StringBuilder("[");
+		for (int i = 0; i < commits.size(); i++) {
+			if (i > 0)
+				array.append(',');
+			array.append(commit(commits.get(i)));
+		}
+		return array.append(']').toString();
+	}
+
+	/**
+	 * Adds a field to the object being built; value is already JSON.
+	 */
+	public Json field(String name, String value) {
+		text.append(text.length() == 0 ? '{' : ',');
+		text.append(string(name)).append(':').append(value);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return text.length() == 0 ? "{}" : text.toString() + "}";
+	}
+}
@@ -0,0 +1,304 @@
+package gitlet.http;
+
+import gitlet.Commit;
+import gitlet.Hasher;
+import gitlet.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Read-only HTTP access to a repository, answering in JSON:
+ *
+ *   GET /log[?branch=NAME]               first-parent history of a head
+ *   GET /global-log                      every commit
+ *   GET /find?message=MESSAGE            ids of the commits with a message
+ *   GET /commits/ID                      one commit
+ *   GET /commits/ID/files/PATH           a file as it is in a commit
+ *
+ * Every response has an ETag made from commit ids: the commit itself for
+ * /commits, the head for /log, and all ids for /global-log and /find. A
+ * request whose If-None-Match still matches gets a 304, and rendered
+ * responses are kept by their ETag so they are built once.
+ */
+public class QueryServer {
+
+	private static final Logger fLogger = Logger.getLogger(QueryServer.class
+			.getPackage().getName());
+
+	private static final int MAX_CACHED = 1024;
+
+	private final Repository repository;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	private final Map<String, Response> cache = Collections
+			.synchronizedMap(new LinkedHashMap<String, Response>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Response> eldest) {
+					return size() > MAX_CACHED;
+				}
+			});
+
+	/**
+	 * Binds address; use port 0 to pick a free port.
+	 */
+	public QueryServer(Repository repository, InetSocketAddress address)
+			throws IOException {
+		this.repository = repository;
+		this.server = HttpServer.create(address, 0);
+		this.executor = newExecutor();
+		server.setExecutor(executor);
+		server.createContext("/", this::handle);
+	}
+
+	/**
+	 * One virtual thread per request where the JDK has them, a cached pool
+	 * otherwise.
+	 */
+	static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	public void stop() {
+		server.stop(0);
+		executor.shutdown();
+		stopped.countDown();
+	}
+
+	/**
+	 * Blocks until stop is called.
+	 */
+	public void awaitStop() throws InterruptedException {
+		stopped.await();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			if (!"GET".equals(method) && !"HEAD".equals(method)) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				send(exchange, error(405, "Read-only, use GET"));
+				return;
+			}
+			send(exchange, route(exchange.getRequestURI().getPath(),
+					exchange.getRequestURI().getRawQuery()));
+		} catch (RuntimeException e) {
+			fLogger.log(Level.WARNING, "Query failed.", e);
+			send(exchange, error(500, String.valueOf(e.getMessage())));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private Response route(String path, String query) {
+		if ("/log".equals(path)) {
+			String branch = parameter(query, "branch");
+			String head = branch == null ? repository.getHead() : repository
+					.getBranchHead(branch);
+			if (head == null)
+				return error(404, "No such branch: " + branch);
+			return cached(path + "?" + query, head, false, () -> log(head));
+		}
+
+		if ("/global-log".equals(path)) {
+			List<String> ids = repository.getCommitIds();
+			return cached(path, allCommits(ids), false,
+					() -> ok(Json.commits(commits(ids))));
+		}
+
+		if ("/find".equals(path)) {
+			String message = parameter(query, "message");
+			if (message == null)
+				return error(400, "Need a message parameter");
+			List<String> ids = repository.getCommitIds();
+			return cached(path + "?" + query, allCommits(ids), false,
+					() -> ok(Json.strings(repository.find(message))));
+		}
+
+		if (path.startsWith("/commits/")) {
+			String rest = path.substring("/commits/".length());
+			int slash = rest.indexOf('/');
+			String id = slash < 0 ? rest : rest.substring(0, slash);
+			if (slash < 0)
+				return cached(path, id, true, () -> commit(id));
+			if (rest.startsWith("files/", slash + 1))
+				return cached(path, id, true,
+						() -> file(id, rest.substring(slash + 1 + "files/".length())));
+		}
+
+		return error(404, "No such resource: " + path);
+	}
+
+	private Response log(String head) {
+		List<Commit> commits = new ArrayList<Commit>();
+		for (Commit c = repository.getCommit(head); c != null; c = c.getParent())
+			commits.add(c);
+		return ok(new Json().field("head", Json.string(head))
+				.field("commits", Json.commits(commits)).toString());
+	}
+
+	private Response commit(String id) {
+		Commit commit = repository.getCommit(id);
+		if (commit == null)
+			return error(404, "No commit with that id exists.");
+		return ok(Json.commit(commit));
+	}
+
+	private Response file(String id, String file) {
+		if (repository.getCommit(id) == null)
+			return error(404, "No commit with that id exists.");
+		String content = repository.readFile(id, file);
+		if (content == null)
+			return error(404, "File does not exist in that commit.");
+		return ok(new Json().field("commit", Json.string(id))
+				.field("path", Json.string(file))
+				.field("content", Json.string(content)).toString());
+	}
+
+	private List<Commit> commits(List<String> ids) {
+		List<Commit> commits = new ArrayList<Commit>();
+		for (String id : ids) {
+			Commit commit = repository.getCommit(id);
+			if (commit != null)
+				commits.add(commit);
+		}
+		return commits;
+	}
+
+	/**
+	 * The same set of commits gives the same tag whatever order the
+	 * directory listing is in.
+	 */
+	private static String allCommits(List<String> ids) {
+		List<String> sorted = new ArrayList<String>(ids);
+		Collections.sort(sorted);
+		return Hasher.getSha256(String.join(",", sorted));
+	}
+
+	/**
+	 * Returns the response for key and tag if it was built before. Only
+	 * successful responses are kept, a missing commit may show up later.
+	 */
+	private Response cached(String key, String tag, boolean immutable,
+			Supplier<Response> build) {
+		String etag = "\"" + tag + "\"";
+		Response response = cache.get(etag + " " + key);
+		if (response != null)
+			return response;
+		response = build.get();
+		if (response.status == 200) {
+			response.etag = etag;
+			response.immutable = immutable;
+			cache.put(etag + " " + key, response);
+		}
+		return response;
+	}
+
+	private void send(HttpExchange exchange, Response response) throws IOException {
+		if (response.etag != null) {
+			exchange.getResponseHeaders().set("ETag", response.etag);
+			exchange.getResponseHeaders().set("Cache-Control",
+					response.immutable ? "public, max-age=31536000, immutable" : "no-cache");
+			String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+			if (ifNoneMatch != null && matches(ifNoneMatch, response.etag)) {
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+		}
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		if ("HEAD".equals(exchange.getRequestMethod())) {
+			exchange.sendResponseHeaders(response.status, -1);
+			return;
+		}
+		exchange.sendResponseHeaders(response.status, response.body.length);
+		try (OutputStream body = exchange.getResponseBody()) {
+			body.write(response.body);
+		}
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag) {
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith("W/"))
+				tag = tag.substring(2);
+			if (tag.equals("*") || tag.equals(etag))
+				return true;
+		}
+		return false;
+	}
+
+	private static String parameter(String query, String name) {
+		if (query == null)
+			return null;
+		for (String pair : query.split("&")) {
+			int equals = pair.indexOf('=');
+			String key = equals < 0 ? pair : pair.substring(0, equals);
+			if (decode(key).equals(name))
+				return equals < 0 ? "" : decode(pair.substring(equals + 1));
+		}
+		return null;
+	}
+
+	private static String decode(String text) {
+		try {
+			return URLDecoder.decode(text, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Response ok(String json) {
+		return new Response(200, json);
+	}
+
+	private static Response error(int status, String message) {
+		return new Response(status, new Json().field("error", Json.string(message))
+				.toString());
+	}
+
+	private static class Response {
+		final int status;
+		final byte[] body;
+		String etag;
+		boolean immutable;
+
+		Response(int status, String json) {
+			this.status = status;
+			this.body = json.getBytes(StandardCharsets.UTF_8);
+		}
+	}
+}
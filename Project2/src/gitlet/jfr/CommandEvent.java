@@ -0,0 +1,23 @@
+package gitlet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("gitlet.Command")
+@Label("Gitlet Command")
+@Category("Gitlet")
+@Description("A command run from start to end, including waiting for the repository lock")
+public class CommandEvent extends Event {
+
+	@Label("Command")
+	public String command;
+
+	@Label("Read Only")
+	public boolean readOnly;
+
+	@Label("Succeeded")
+	public boolean succeeded;
+}
@@ -0,0 +1,22 @@
+package gitlet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("gitlet.CommitDecode")
+@Label("Commit Decode")
+@Category({ "Gitlet", "Object Store" })
+@Description("Deserializing a commit object; the parents it recovers are decoded within it")
+public class CommitDecodeEvent extends Event {
+
+	@Label("Commit Id")
+	public String id;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+}
@@ -0,0 +1,25 @@
+package gitlet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("gitlet.FileCopy")
+@Label("File Copy")
+@Category({ "Gitlet", "Object Store" })
+@Description("Copying a file into the object store or back into the working directory")
+public class FileCopyEvent extends Event {
+
+	@Label("Source")
+	public String source;
+
+	@Label("Destination")
+	public String destination;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+}
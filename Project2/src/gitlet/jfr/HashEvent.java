@@ -0,0 +1,21 @@
+package gitlet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("gitlet.Hash")
+@Label("Hash")
+@Category("Gitlet")
+@Description("Computing a SHA-256 hash")
+@StackTrace(false)
+public class HashEvent extends Event {
+
+	@Label("Input Size")
+	@DataAmount
+	public long bytes;
+}
@@ -0,0 +1,22 @@
+package gitlet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("gitlet.ObjectRead")
+@Label("Object Read")
+@Category({ "Gitlet", "Object Store" })
+@Description("Reading a commit object file from .gitlet/objects")
+public class ObjectReadEvent extends Event {
+
+	@Label("Commit Id")
+	public String id;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+}
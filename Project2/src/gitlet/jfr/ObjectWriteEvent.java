@@ -0,0 +1,22 @@
+package gitlet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("gitlet.ObjectWrite")
+@Label("Object Write")
+@Category({ "Gitlet", "Object Store" })
+@Description("Serializing a commit and writing it to .gitlet/objects")
+public class ObjectWriteEvent extends Event {
+
+	@Label("Commit Id")
+	public String id;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+}
@@ -2,6 +2,7 @@ package test;
 
 import gitlet.FileWriterFactory;
 import gitlet.Gitlet;
+import gitlet.OutputSinkFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -96,6 +97,7 @@ public class BaseTest {
 		restoreStreams();
 		defaultInput();
 		FileWriterFactory.useDefault();
+		OutputSinkFactory.useDefault();
 	}
 
 	protected void checkAndDelete(String name) {
@@ -347,6 +349,7 @@ public class BaseTest {
 		private InputStream inputStream;
 		private List<String> text;
 		private boolean isClosed;
+		private boolean ended;
 		private boolean reuse;
 		private int currentTextIndex;
 
@@ -357,8 +360,9 @@ public class BaseTest {
 			inputStream = new ByteArrayInputStream(text.get(0).getBytes());
 		}
 
-		// when close is called, presumably by Scanner, the next string is
-		// loaded into the inputStream
+		// when close is called, presumably by Scanner, or something reads on
+		// after being told the string has ended, the next string is loaded
+		// into the inputStream
 		// if it is marked reuse, then the first string in the array is just
 		// reloaded
 		@Override
@@ -367,6 +371,11 @@ public class BaseTest {
 				return;
 
 			isClosed = true;
+			next();
+		}
+
+		private void next() {
+			ended = false;
 			currentTextIndex++;
 
 			if (reuse) {
@@ -380,22 +389,33 @@ public class BaseTest {
 			}
 		}
 
+		private void opened() {
+			if (ended)
+				next();
+			isClosed = false;
+		}
+
+		private int ended(int read) {
+			ended = read < 0;
+			return read;
+		}
+
 		@Override
 		public int read() throws IOException {
-			isClosed = false;
-			return inputStream.read();
+			opened();
+			return ended(inputStream.read());
 		}
 
 		@Override
 		public int read(byte[] b) throws IOException {
-			isClosed = false;
-			return inputStream.read(b);
+			opened();
+			return ended(inputStream.read(b));
 		}
 
 		@Override
 		public int read(byte[] b, int off, int len) throws IOException {
-			isClosed = false;
-			return inputStream.read(b, off, len);
+			opened();
+			return ended(inputStream.read(b, off, len));
 		}
 
 		@Override
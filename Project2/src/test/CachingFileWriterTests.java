@@ -0,0 +1,89 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import gitlet.CachingFileWriter;
+import gitlet.Commit;
+import gitlet.FileSystemWriter;
+import gitlet.IFileWriter;
+import gitlet.Staging;
+import gitlet.commands.InitCommand;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class CachingFileWriterTests extends BaseTest {
+
+	private CachingFileWriter getDefaultInstance(){
+		return new CachingFileWriter(new FileSystemWriter());
+	}
+	
+	@Test
+	public void recoverCommit_cachedById(){
+		//Arrange
+		new InitCommand().execute();
+		CachingFileWriter sut = getDefaultInstance();
+		Commit parent = sut.recoverCommit(sut.getCurrentHeadPointer());
+		Commit commit = new Commit(parent, 10L, "test", new HashMap<String, String>());
+		sut.saveCommit(commit);
+		
+		//Act
+		Commit first = sut.recoverCommit(commit.getId());
+		Commit second = sut.recoverCommit(commit.getId());
+		
+		//Assert
+		assertSame(first, second);
+		assertSame(parent, sut.recoverCommit(parent.getId()));
+	}
+	
+	@Test
+	public void getBranchHead_seesChangesFromOtherWriters(){
+		//Arrange
+		createDirectory(".gitlet/refs/heads");
+		createFile(".gitlet/refs/heads/dev", "first");
+		CachingFileWriter sut = getDefaultInstance();
+		IFileWriter other = new FileSystemWriter();
+		String before = sut.getBranchHead("dev");
+		
+		//Act
+		other.createFile(".gitlet/refs/heads/dev", "second commit");
+		String after = sut.getBranchHead("dev");
+		
+		//Assert
+		assertEquals("first", before);
+		assertEquals("second commit", after);
+	}
+	
+	@Test
+	public void recoverStaging_returnsCopy(){
+		//Arrange
+		new InitCommand().execute();
+		CachingFileWriter sut = getDefaultInstance();
+		Staging staging = sut.recoverStaging();
+		
+		//Act
+		staging.getFilesToAdd().add("foo");
+		Staging result = sut.recoverStaging();
+		
+		//Assert
+		assertEquals(0, result.getFilesToAdd().size());
+	}
+	
+	@Test
+	public void saveStaging_nextRecoverSeesIt(){
+		//Arrange
+		new InitCommand().execute();
+		CachingFileWriter sut = getDefaultInstance();
+		Staging staging = sut.recoverStaging();
+		
+		//Act
+		staging.getFilesToAdd().add("foo");
+		sut.saveStaging(staging);
+		Staging result = sut.recoverStaging();
+		
+		//Assert
+		assertEquals(1, result.getFilesToAdd().size());
+		assertEquals("foo", result.getFilesToAdd().get(0));
+	}
+}
@@ -0,0 +1,100 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import gitlet.BloomFilter;
+import gitlet.Commit;
+import gitlet.CommitGraph;
+import gitlet.FileSystemWriter;
+import gitlet.IFileWriter;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class CommitGraphTests extends BaseTest {
+
+	@Test
+	public void bloomFilter_containsAddedValues(){
+		//Arrange
+		BloomFilter sut = new BloomFilter(100);
+		for(int i = 0; i < 100; i++)
+			sut.add("file" + i);
+		
+		//Act
+		//Assert
+		for(int i = 0; i < 100; i++)
+			assertTrue(sut.mightContain("file" + i));
+	}
+	
+	@Test
+	public void bloomFilter_rejectsMostOtherValues(){
+		//Arrange
+		BloomFilter sut = new BloomFilter(100);
+		for(int i = 0; i < 100; i++)
+			sut.add("file" + i);
+		
+		//Act
+		int falsePositives = 0;
+		for(int i = 0; i < 10000; i++){
+			if(sut.mightContain("other" + i))
+				falsePositives++;
+		}
+		
+		//Assert
+		assertTrue("too many false positives: " + falsePositives, falsePositives < 500);
+	}
+	
+	@Test
+	public void entryFor_changedAndRemovedPaths(){
+		//Arrange
+		HashMap<String, String> parentMap = new HashMap<String, String>();
+		parentMap.put("same", "a");
+		parentMap.put("changed", "a");
+		parentMap.put("removed", "a");
+		HashMap<String, String> childMap = new HashMap<String, String>();
+		childMap.put("same", "a");
+		childMap.put("changed", "b");
+		childMap.put("dir/added", "b");
+		Commit parent = new Commit(null, 0L, "parent", parentMap);
+		Commit child = new Commit(parent, 1L, "child", childMap);
+		
+		//Act
+		CommitGraph.Entry sut = CommitGraph.entryFor(child);
+		
+		//Assert
+		assertEquals(parent.getId(), sut.getParentId());
+		assertTrue(sut.mightHaveChanged("changed"));
+		assertTrue(sut.mightHaveChanged("removed"));
+		assertTrue(sut.mightHaveChanged("dir/added"));
+		assertTrue(sut.mightHaveChanged("dir"));
+		assertFalse(CommitGraph.touches(child, "same"));
+		assertTrue(CommitGraph.touches(child, "dir"));
+	}
+	
+	@Test
+	public void recoverCommitGraph_entriesWrittenBySaveCommit(){
+		//Arrange
+		IFileWriter sut = new FileSystemWriter();
+		createDirectory(".gitlet/objects");
+		HashMap<String, String> testMap = new HashMap<String, String>();
+		testMap.put("test", "test value");
+		Commit initial = new Commit(null, 0L, "initial", null);
+		Commit test1 = new Commit(initial, 100L, "test1 commit", testMap);
+		sut.saveCommit(initial);
+		sut.saveCommit(test1);
+		
+		//Act
+		CommitGraph graph = sut.recoverCommitGraph();
+		
+		//Assert
+		assertEquals(2, graph.size());
+		assertNull(graph.getEntry(initial.getId()).getParentId());
+		assertEquals(initial.getId(), graph.getEntry(test1.getId()).getParentId());
+		assertEquals(100L, graph.getEntry(test1.getId()).getTimeStamp());
+		assertTrue(graph.getEntry(test1.getId()).mightHaveChanged("test"));
+	}
+	
+}
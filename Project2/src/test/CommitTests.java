@@ -2,6 +2,7 @@ package test;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import gitlet.Commit;
@@ -114,4 +115,69 @@ public class CommitTests extends BaseTest{
 		assertEquals(sut1.getId(), result2);
 	}
 	
+	@Test
+	public void ctor_singleParentIdUnchangedByMergeSupport(){
+		//Arrange
+		Commit parent = new Commit(null, 0L, "test", new HashMap<String, String>());
+		
+		//Act
+		Commit single = new Commit(parent, 10L, "test", new HashMap<String, String>());
+		Commit viaList = Commit.withParents(Arrays.asList(parent), 10L, "test", new HashMap<String, String>());
+		
+		//Assert
+		assertEquals(single.getId(), viaList.getId());
+		assertFalse(single.isMerge());
+	}
+	
+	@Test
+	public void ctor_mergeParentChangesId(){
+		//Arrange
+		Commit base = new Commit(null, 0L, "test", new HashMap<String, String>());
+		Commit left = new Commit(base, 10L, "left", new HashMap<String, String>());
+		Commit right = new Commit(base, 20L, "right", new HashMap<String, String>());
+		
+		//Act
+		Commit single = new Commit(left, 30L, "merge", new HashMap<String, String>());
+		Commit merge = Commit.withParents(Arrays.asList(left, right), 30L, "merge", new HashMap<String, String>());
+		
+		//Assert
+		assertNotEquals(single.getId(), merge.getId());
+		assertTrue(merge.isMerge());
+		assertEquals(left, merge.getParent());
+	}
+	
+	@Test
+	public void findSplitPoint_afterMerge_isMergedHead(){
+		//Arrange
+		Commit base = new Commit(null, 0L, "base", new HashMap<String, String>());
+		Commit master1 = new Commit(base, 10L, "master1", new HashMap<String, String>());
+		Commit dev1 = new Commit(base, 20L, "dev1", new HashMap<String, String>());
+		Commit merge = Commit.withParents(Arrays.asList(dev1, master1), 30L, "merge", new HashMap<String, String>());
+		Commit master2 = new Commit(master1, 40L, "master2", new HashMap<String, String>());
+		Commit dev2 = new Commit(merge, 50L, "dev2", new HashMap<String, String>());
+		
+		//Act
+		String result1 = dev2.findSplitPoint(master2);
+		String result2 = master2.findSplitPoint(dev2);
+		
+		//Assert
+		assertEquals(master1.getId(), result1);
+		assertEquals(master1.getId(), result2);
+	}
+	
+	@Test
+	public void findSplitPoint_ignoresClockSkew(){
+		//Arrange
+		Commit base = new Commit(null, 100L, "base", new HashMap<String, String>());
+		Commit newer = new Commit(base, 50L, "skewed", new HashMap<String, String>());
+		Commit left = new Commit(newer, 10L, "left", new HashMap<String, String>());
+		Commit right = new Commit(newer, 500L, "right", new HashMap<String, String>());
+		
+		//Act
+		String result = left.findSplitPoint(right);
+		
+		//Assert
+		assertEquals(newer.getId(), result);
+	}
+	
 }
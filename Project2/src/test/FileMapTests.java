@@ -0,0 +1,260 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import gitlet.FileMap;
+import gitlet.PathTable;
+import gitlet.diff.TreeDiff;
+
+import org.junit.Test;
+
+public class FileMapTests {
+
+	@Test
+	public void with_randomOperations_matchesHashMap(){
+		//Arrange
+		FileMap sut = FileMap.EMPTY;
+		HashMap<String, String> expected = new HashMap<String, String>();
+		Random random = new Random(7);
+
+		//Act
+		for (int i = 0; i < 20000; i++) {
+			String path = "dir/file" + random.nextInt(500);
+			if (random.nextInt(3) == 0) {
+				expected.remove(path);
+				sut = sut.without(path);
+			} else {
+				String pointer = "commit" + random.nextInt(20);
+				expected.put(path, pointer);
+				sut = sut.with(path, pointer);
+			}
+		}
+
+		//Assert
+		assertEquals(expected.size(), sut.size());
+		for (Map.Entry<String, String> file : expected.entrySet())
+			assertEquals(file.getValue(), sut.get(file.getKey()));
+		assertEquals(expected, sut);
+		assertEquals(sut, expected);
+		assertEquals(expected.hashCode(), sut.hashCode());
+	}
+
+	@Test
+	public void filePointersHash_afterChanges_matchesFullWalk(){
+		//Arrange
+		FileMap sut = FileMap.EMPTY;
+		for (int i = 0; i < 100; i++)
+			sut = sut.with("file" + i, "commit" + (i % 7));
+
+		//Act
+		sut = sut.with("file3", "commit99").without("file50").without("file51");
+
+		//Assert
+		int expected = 0;
+		for (Map.Entry<String, String> file : sut.entrySet())
+			expected ^= (file.getKey().hashCode() << 1) ^ file.getValue().hashCode();
+		assertEquals(expected, sut.filePointersHash());
+	}
+
+	@Test
+	public void with_leavesOriginalUnchanged(){
+		//Arrange
+		FileMap original = FileMap.EMPTY.with("a", "1");
+
+		//Act
+		FileMap sut = original.with("b", "2").without("a");
+
+		//Assert
+		assertEquals(1, original.size());
+		assertEquals("1", original.get("a"));
+		assertNull(original.get("b"));
+		assertEquals(1, sut.size());
+		assertEquals("2", sut.get("b"));
+	}
+
+	@Test
+	public void with_samePointer_returnsSameMap(){
+		//Arrange
+		FileMap sut = FileMap.EMPTY.with("a", "1");
+
+		//Act
+		//Assert
+		assertSame(sut, sut.with("a", "1"));
+		assertSame(sut, sut.without("missing"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void put_throws(){
+		//Act
+		FileMap.EMPTY.with("a", "1").put("b", "2");
+	}
+
+	@Test
+	public void equals_sameFilesDifferentOrder_equal(){
+		//Arrange
+		FileMap forward = FileMap.EMPTY;
+		FileMap backward = FileMap.EMPTY;
+		for (int i = 0; i < 2000; i++) {
+			forward = forward.with("file" + i, "commit" + i);
+			backward = backward.with("file" + (1999 - i), "commit" + (1999 - i));
+		}
+
+		//Act
+		for (int i = 0; i < 2000; i += 3) {
+			forward = forward.without("file" + i);
+			backward = backward.without("file" + i);
+		}
+
+		//Assert
+		assertEquals(forward, backward);
+		assertEquals(backward, forward);
+		assertNotEquals(forward, backward.with("file1", "other"));
+	}
+
+	@Test
+	public void diff_sharedMaps_reportsOnlyChanges(){
+		//Arrange
+		FileMap from = FileMap.EMPTY;
+		for (int i = 0; i < 1000; i++)
+			from = from.with("dir/file" + i, "base");
+		FileMap to = from.with("dir/file1", "next").without("dir/file2").with("dir/new", "next");
+
+		//Act
+		List<String> changes = changes(from, to, false);
+
+		//Assert
+		assertEquals(Arrays.asList("A dir/new next", "D dir/file2 base", "M dir/file1 base next"), changes);
+	}
+
+	@Test
+	public void diff_randomMaps_matchesTreeDiff(){
+		//Arrange
+		Random random = new Random(11);
+		FileMap from = FileMap.EMPTY;
+		for (int i = 0; i < 300; i++)
+			from = from.with("f" + random.nextInt(400), "c" + random.nextInt(3));
+		FileMap to = from;
+		for (int i = 0; i < 200; i++) {
+			if (random.nextBoolean())
+				to = to.without("f" + random.nextInt(400));
+			else
+				to = to.with("f" + random.nextInt(400), "c" + random.nextInt(3));
+		}
+		List<String> expected = changes(from, to, true);
+
+		//Act
+		List<String> actual = changes(from, to, false);
+
+		//Assert
+		assertEquals(expected, actual);
+		//rebuilt maps share nothing, so every node is compared
+		FileMap rebuilt = FileMap.of(new HashMap<String, String>(from));
+		assertEquals(changes(to, from, true), changes(to, rebuilt, false));
+	}
+
+	private static List<String> changes(Map<String, String> from, Map<String, String> to, boolean sorted){
+		final List<String> changes = new ArrayList<String>();
+		TreeDiff.Visitor visitor = new TreeDiff.Visitor() {
+			@Override
+			public void added(String path, String pointer) {
+				changes.add("A " + path + " " + pointer);
+			}
+
+			@Override
+			public void removed(String path, String pointer) {
+				changes.add("D " + path + " " + pointer);
+			}
+
+			@Override
+			public void modified(String path, String oldPointer, String newPointer) {
+				changes.add("M " + path + " " + oldPointer + " " + newPointer);
+			}
+		};
+		if (sorted)
+			TreeDiff.diff(from, to, visitor);
+		else
+			FileMap.diff((FileMap) from, (FileMap) to, visitor);
+		Collections.sort(changes);
+		return changes;
+	}
+
+	@Test
+	public void get_unknownPath_returnsNull(){
+		//Arrange
+		FileMap sut = FileMap.EMPTY.with("a", "1");
+
+		//Act
+		//Assert
+		assertNull(sut.get("never interned " + System.nanoTime()));
+		assertNull(sut.get(42));
+	}
+
+	@Test
+	public void serialize_roundTrip_keepsFilesAndHash() throws Exception{
+		//Arrange
+		FileMap sut = FileMap.EMPTY;
+		for (int i = 0; i < 50; i++)
+			sut = sut.with("file" + i, "commit" + i);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		//Act
+		ObjectOutputStream output = new ObjectOutputStream(bytes);
+		output.writeObject(sut);
+		output.close();
+		FileMap read = (FileMap) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+		//Assert
+		assertEquals(sut, read);
+		assertEquals(sut.filePointersHash(), read.filePointersHash());
+	}
+
+	@Test
+	public void pathTable_samePath_sameId(){
+		//Arrange
+		PathTable sut = new PathTable();
+
+		//Act
+		int first = sut.pathId(new String("src/Main.java"));
+		int second = sut.pathId(new String("src/Main.java"));
+
+		//Assert
+		assertEquals(first, second);
+		assertEquals("src/Main.java", sut.path(first));
+		assertEquals(first, sut.findPath("src/Main.java"));
+		assertEquals(-1, new PathTable().findPath("src/Main.java"));
+	}
+
+	@Test
+	public void differentTables_compareAndDiffByPath(){
+		//Arrange
+		PathTable mine = new PathTable();
+		PathTable other = new PathTable();
+		//the ids of the two tables are handed out in opposite orders
+		FileMap from = FileMap.empty(mine).with("a", "1").with("b", "1").with("c", "1");
+		FileMap same = FileMap.empty(other).with("c", "1").with("b", "1").with("a", "1");
+		FileMap to = FileMap.empty(other).with("c", "2").with("b", "1").with("d", "1");
+
+		//Act
+		List<String> changes = changes(from, to, false);
+
+		//Assert
+		assertEquals(from, same);
+		assertEquals(same, from);
+		assertNotEquals(from, to);
+		assertEquals(Arrays.asList("A d 1", "D a 1", "M c 1 2"), changes);
+		assertSame(from, FileMap.of(from, mine));
+		assertEquals(from, FileMap.of(from, other));
+	}
+}
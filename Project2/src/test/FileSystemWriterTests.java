@@ -1,16 +1,31 @@
 package test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import gitlet.Commit;
+import gitlet.CommitObject;
+import gitlet.Durability;
+import gitlet.FileMap;
 import gitlet.FileSystemWriter;
 import gitlet.IFileWriter;
+import gitlet.Journal;
+import gitlet.Staging;
 import gitlet.commands.InitCommand;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -142,6 +157,146 @@ public class FileSystemWriterTests extends BaseTest {
 		
 	}
 	
+	@Test
+	public void saveCommit_betweenSnapshots_storesOnlyChanges() throws IOException{
+		//Arrange
+		IFileWriter sut = getDefaultInstance();
+		createDirectory(".gitlet/objects");
+		FileMap files = FileMap.EMPTY;
+		for (int i = 0; i < 500; i++)
+			files = files.with("dir/file" + i, "first");
+		Commit head = new Commit();
+		sut.saveCommit(head);
+		head = new Commit(head, 1L, "all files", files);
+		sut.saveCommit(head);
+		List<Commit> commits = new ArrayList<Commit>();
+		for (int i = 2; i <= 70; i++) {
+			head = new Commit(head, (long) i, "commit " + i, head.getFilePointers());
+			head = head.withFilePointers(head.getFilePointers()
+					.with("dir/file" + i, head.getId()).without("dir/file" + (i + 100)));
+			sut.saveCommit(head);
+			commits.add(head);
+		}
+		
+		//Act
+		Commit recovered = new FileSystemWriter().recoverCommit(head.getId());
+		
+		//Assert
+		for (Commit expected = head; expected != null; expected = expected.getParent(), recovered = recovered.getParent())
+			assertEquals(expected.getFilePointers(), recovered.getFilePointers());
+		long changeSet = objectSize(commits.get(10));
+		long snapshot = objectSize(commits.get(62));
+		assertTrue(changeSet + " vs " + snapshot, changeSet * 10 < snapshot);
+	}
+	
+	@Test
+	public void recoverFiles_startsFromNearestSnapshot(){
+		//Arrange
+		IFileWriter sut = getDefaultInstance();
+		createDirectory(".gitlet/objects");
+		Commit head = new Commit();
+		sut.saveCommit(head);
+		List<Commit> commits = new ArrayList<Commit>();
+		for (int i = 1; i <= 70; i++) {
+			head = new Commit(head, (long) i, "commit " + i, head.getFilePointers());
+			FileMap files = head.getFilePointers() == null ? FileMap.EMPTY : head.getFilePointers();
+			head = head.withFilePointers(files.with("file" + (i % 5), head.getId()));
+			sut.saveCommit(head);
+			commits.add(head);
+		}
+		//nothing before the snapshot of commit 64 is needed
+		Commit old = commits.get(9);
+		new File(".gitlet/objects/" + old.getId() + "/" + old.getId()).delete();
+		
+		//Act
+		FileMap recovered = CommitObject.recoverFiles(new FileSystemWriter(), head.getId());
+		
+		//Assert
+		assertTrue(new FileSystemWriter().readCommitObject(commits.get(63).getId()).isSnapshot());
+		assertFalse(new FileSystemWriter().readCommitObject(commits.get(64).getId()).isSnapshot());
+		assertEquals(head.getFilePointers(), recovered);
+	}
+	
+	@Test
+	public void readCommitObject_changeSet_readsWithoutParents(){
+		//Arrange
+		IFileWriter sut = getDefaultInstance();
+		createDirectory(".gitlet/objects");
+		Commit initial = new Commit();
+		sut.saveCommit(initial);
+		Commit first = new Commit(initial, 1L, "first", FileMap.EMPTY.with("a", "1").with("b", "1"));
+		sut.saveCommit(first);
+		Commit second = new Commit(first, 2L, "second", first.getFilePointers());
+		second = second.withFilePointers(second.getFilePointers().with("c", second.getId()).without("a"));
+		sut.saveCommit(second);
+		//a single object needs nothing older
+		new File(".gitlet/objects/" + first.getId() + "/" + first.getId()).delete();
+		
+		//Act
+		CommitObject read = new FileSystemWriter().readCommitObject(second.getId());
+		
+		//Assert
+		assertFalse(read.isSnapshot());
+		assertEquals(first.getId(), read.getParentId());
+		assertEquals("second", read.getMessage());
+		assertEquals(Long.valueOf(2L), read.getTimeStamp());
+		assertEquals(Arrays.asList("a"), Arrays.asList(read.getRemoved()));
+		assertEquals(Collections.singletonMap("c", second.getId()), read.getChanged());
+		assertEquals(second.getFilePointers(), read.filesOn(first.getFilePointers()));
+	}
+	
+	private long objectSize(Commit commit) throws IOException{
+		return Files.size(Paths.get(".gitlet/objects/" + commit.getId() + "/" + commit.getId()));
+	}
+	
+	@Test
+	public void recoverCommit_fullFileMapAfterParent_recovered() throws IOException{
+		//Arrange
+		createDirectory(".gitlet/objects");
+		Commit initial = new Commit();
+		new FileSystemWriter().saveCommit(initial);
+		HashMap<String, String> testMap = new HashMap<String, String>();
+		testMap.put("test", "test value");
+		Commit test = new Commit(initial, 100L, "test commit", testMap);
+		createDirectory(".gitlet/objects/" + test.getId());
+		//the way every commit was written before change sets
+		try (ObjectOutputStream output = new ObjectOutputStream(
+				new FileOutputStream(".gitlet/objects/" + test.getId() + "/" + test.getId()))) {
+			output.writeObject(initial.getId());
+			output.writeObject(test.getId());
+			output.writeObject("test commit");
+			output.writeObject(100L);
+			output.writeObject(testMap);
+		}
+		
+		//Act
+		Commit recovered = getDefaultInstance().recoverCommit(test.getId());
+		
+		//Assert
+		assertEquals(test.getId(), recovered.getId());
+		assertEquals(testMap, recovered.getFilePointers());
+	}
+	
+	@Test
+	public void listFiles_workingDirectory_skipsRepository(){
+		//Arrange
+		createDirectory("test_files/.gitlet/objects");
+		createDirectory("test_files/b/c");
+		createFile("test_files/.gitlet/objects/staging", "");
+		createFile("test_files/b/c/d.txt", "d");
+		createFile("test_files/b/a.txt", "a");
+		createFile("test_files/z.txt", "z");
+		IFileWriter sut = new FileSystemWriter(new File("test_files"));
+		
+		//Act
+		String[] all = sut.listFiles(".");
+		String[] below = sut.listFiles("b");
+		
+		//Assert
+		assertEquals(Arrays.asList("b/a.txt", "b/c/d.txt", "z.txt"), Arrays.asList(all));
+		assertEquals(Arrays.asList("b/a.txt", "b/c/d.txt"), Arrays.asList(below));
+	}
+	
 	@Test
 	public void saveCommit_initialCommitSavedAndRecovered(){
 		//create the initial commit
@@ -291,4 +446,228 @@ public class FileSystemWriterTests extends BaseTest {
 		assertEquals(3, result.length);
 	}
 	
+	@Test
+	public void recoverCommit_mergeParentsRecovered(){
+		//Arrange
+		IFileWriter sut = getDefaultInstance();
+		createDirectory(".gitlet/objects");
+		Commit base = new Commit(null, 0L, "base", new HashMap<String, String>());
+		Commit left = new Commit(base, 10L, "left", new HashMap<String, String>());
+		Commit right = new Commit(base, 20L, "right", new HashMap<String, String>());
+		Commit merge = Commit.withParents(Arrays.asList(left, right), 30L, "merge", new HashMap<String, String>());
+		sut.saveCommit(base);
+		sut.saveCommit(left);
+		sut.saveCommit(right);
+		sut.saveCommit(merge);
+		
+		//Act
+		Commit recovered = sut.recoverCommit(merge.getId());
+		
+		//Assert
+		assertEquals(merge.getId(), recovered.getId());
+		assertEquals(2, recovered.getParents().size());
+		assertEquals(left.getId(), recovered.getParents().get(0).getId());
+		assertEquals(right.getId(), recovered.getParents().get(1).getId());
+		assertTrue("shared ancestor should be read once", 
+				recovered.getParents().get(0).getParent() == recovered.getParents().get(1).getParent());
+	}
+	
+	
+	private Commit commitOn(FileSystemWriter sut){
+		Commit parent = sut.recoverCommit(sut.getCurrentHeadPointer());
+		Commit commit = new Commit(parent, 10L, "durable", new HashMap<String, String>());
+		sut.saveCommit(commit);
+		return commit;
+	}
+	
+	@Test
+	public void saveCommit_noTemporaryFilesLeft(){
+		//Arrange
+		new InitCommand().execute();
+		FileSystemWriter sut = new FileSystemWriter(null, Durability.FULL);
+		
+		//Act
+		Commit commit = commitOn(sut);
+		
+		//Assert
+		assertEquals(Arrays.asList(commit.getId()), 
+				Arrays.asList(new File(".gitlet/objects/" + commit.getId()).list()));
+		assertEquals(commit.getId(), sut.recoverCommit(commit.getId()).getId());
+	}
+	
+	@Test
+	public void durabilityNone_neverSyncs(){
+		//Arrange
+		new InitCommand().execute();
+		FileSystemWriter sut = new FileSystemWriter(null, Durability.NONE);
+		
+		//Act
+		Commit commit = commitOn(sut);
+		sut.createFile(".gitlet/refs/heads/master", commit.getId());
+		sut.sync();
+		
+		//Assert
+		assertEquals(0, sut.getSyncCount());
+		assertEquals(commit.getId(), sut.getCurrentHeadPointer());
+	}
+	
+	@Test
+	public void durabilityFull_syncsEveryWrite(){
+		//Arrange
+		new InitCommand().execute();
+		FileSystemWriter sut = new FileSystemWriter(null, Durability.FULL);
+		
+		//Act
+		commitOn(sut);
+		long afterCommit = sut.getSyncCount();
+		sut.sync();
+		
+		//Assert
+		assertTrue(afterCommit > 0);
+		assertEquals(afterCommit, sut.getSyncCount());
+	}
+	
+	@Test
+	public void durabilityBatch_objectsSyncedBeforeRefMoves(){
+		//Arrange
+		new InitCommand().execute();
+		FileSystemWriter sut = new FileSystemWriter(null, Durability.BATCH);
+		
+		//Act
+		Commit first = commitOn(sut);
+		Commit second = new Commit(first, 11L, "more", new HashMap<String, String>());
+		sut.saveCommit(second);
+		long beforeRef = sut.getSyncCount();
+		sut.createFile(".gitlet/refs/heads/master", second.getId());
+		long afterRef = sut.getSyncCount();
+		sut.sync();
+		long afterSync = sut.getSyncCount();
+		sut.sync();
+		
+		//Assert
+		assertEquals(0, beforeRef);
+		assertTrue(afterRef > 0);
+		assertTrue(afterSync > afterRef);
+		assertEquals(afterSync, sut.getSyncCount());
+	}
+	
+	@Test
+	public void durability_parse(){
+		assertEquals(Durability.FULL, Durability.parse("full", Durability.BATCH));
+		assertEquals(Durability.NONE, Durability.parse(" None ", Durability.BATCH));
+		assertEquals(Durability.BATCH, Durability.parse("sometimes", Durability.BATCH));
+		assertEquals(Durability.BATCH, Durability.parse(null, Durability.BATCH));
+	}
+	
+	@Test
+	public void transaction_writesAppliedOnCommit(){
+		//Arrange
+		new InitCommand().execute();
+		FileSystemWriter sut = new FileSystemWriter(null, Durability.BATCH);
+		String head = sut.getCurrentHeadPointer();
+		Staging staging = new Staging();
+		staging.getFilesToAdd().add("foo");
+		
+		//Act
+		sut.beginTransaction();
+		sut.createFile(".gitlet/refs/heads/dev", "moved");
+		sut.saveStaging(staging);
+		String seenBySut = sut.getBranchHead("dev");
+		List<String> branchesBySut = Arrays.asList(sut.getAllBranches());
+		List<String> stagedBySut = sut.recoverStaging().getFilesToAdd();
+		boolean onDiskBefore = new File(".gitlet/refs/heads/dev").exists();
+		sut.commitTransaction();
+		
+		//Assert
+		assertEquals("moved", seenBySut);
+		assertTrue(branchesBySut.contains("dev"));
+		assertEquals(Arrays.asList("foo"), stagedBySut);
+		assertFalse(onDiskBefore);
+		assertEquals("moved", getText(".gitlet/refs/heads/dev"));
+		assertEquals(Arrays.asList("foo"), new FileSystemWriter().recoverStaging().getFilesToAdd());
+		assertEquals(head, sut.getCurrentHeadPointer());
+		assertFalse(new File(Journal.FILE).exists());
+	}
+	
+	@Test
+	public void transaction_abortLeavesRepository(){
+		//Arrange
+		new InitCommand().execute();
+		FileSystemWriter sut = new FileSystemWriter();
+		String head = sut.getCurrentHeadPointer();
+		
+		//Act
+		sut.beginTransaction();
+		sut.createFile(".gitlet/refs/heads/master", "moved");
+		sut.deleteBranch("master");
+		sut.abortTransaction();
+		
+		//Assert
+		assertEquals(head, sut.getCurrentHeadPointer());
+		assertEquals(Arrays.asList("master"), Arrays.asList(sut.getAllBranches()));
+	}
+	
+	@Test
+	public void transaction_deleteFileAppliedOnCommit(){
+		//Arrange
+		new InitCommand().execute();
+		createFile(".gitlet/MERGE_HEAD", "other");
+		FileSystemWriter sut = new FileSystemWriter();
+		
+		//Act
+		sut.beginTransaction();
+		sut.deleteFile(".gitlet/MERGE_HEAD");
+		boolean seenBySut = sut.exists(".gitlet/MERGE_HEAD");
+		boolean onDiskBefore = new File(".gitlet/MERGE_HEAD").exists();
+		sut.commitTransaction();
+		
+		//Assert
+		assertFalse(seenBySut);
+		assertTrue(onDiskBefore);
+		assertFalse(new File(".gitlet/MERGE_HEAD").exists());
+	}
+	
+	@Test
+	public void lockRepository_rollsJournalForward() throws IOException{
+		//Arrange
+		new InitCommand().execute();
+		Map<String, byte[]> writes = new LinkedHashMap<String, byte[]>();
+		writes.put(".gitlet/refs/heads/master", "rolled".getBytes());
+		writes.put(".gitlet/refs/heads/gone", null);
+		createFile(".gitlet/refs/heads/gone", "x");
+		Files.write(Paths.get(Journal.FILE), Journal.encode(writes));
+		//the crash happened while master was being replaced
+		createFile(".gitlet/refs/heads/master.lock", "half");
+		FileSystemWriter sut = new FileSystemWriter();
+		
+		//Act
+		sut.lockRepository();
+		sut.unlockRepository();
+		
+		//Assert
+		assertEquals("rolled", sut.getCurrentHeadPointer());
+		assertFalse(new File(".gitlet/refs/heads/gone").exists());
+		assertFalse(new File(".gitlet/refs/heads/master.lock").exists());
+		assertFalse(new File(Journal.FILE).exists());
+	}
+	
+	@Test
+	public void lockRepository_tornJournalRolledBack() throws IOException{
+		//Arrange
+		new InitCommand().execute();
+		FileSystemWriter sut = new FileSystemWriter();
+		String head = sut.getCurrentHeadPointer();
+		Map<String, byte[]> writes = new LinkedHashMap<String, byte[]>();
+		writes.put(".gitlet/refs/heads/master", "rolled".getBytes());
+		byte[] journal = Journal.encode(writes);
+		Files.write(Paths.get(Journal.FILE), Arrays.copyOf(journal, journal.length - 3));
+		
+		//Act
+		sut.lockRepository();
+		sut.unlockRepository();
+		
+		//Assert
+		assertEquals(head, sut.getCurrentHeadPointer());
+		assertFalse(new File(Journal.FILE).exists());
+	}
 }
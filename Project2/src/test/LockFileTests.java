@@ -0,0 +1,92 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import gitlet.LockFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+public class LockFileTests extends BaseTest {
+
+	private Path target = Paths.get(TESTING_DIR + "ref");
+	private Path lock = Paths.get(TESTING_DIR + "ref.lock");
+
+	@Test
+	public void commit_replacesTargetAndReleases() throws IOException{
+		//Arrange
+		createFile(TESTING_DIR + "ref", "old");
+		
+		//Act
+		LockFile.write(target, "new".getBytes(StandardCharsets.UTF_8), 0);
+		
+		//Assert
+		assertEquals("new", getText(TESTING_DIR + "ref"));
+		assertFalse(Files.exists(lock));
+	}
+
+	@Test
+	public void close_withoutCommit_keepsTarget() throws IOException{
+		//Arrange
+		createFile(TESTING_DIR + "ref", "old");
+		
+		//Act
+		try(LockFile held = LockFile.acquire(target, 0)){
+			held.getOutputStream().write("half".getBytes(StandardCharsets.UTF_8));
+			assertTrue(Files.exists(lock));
+		}
+		
+		//Assert
+		assertEquals("old", getText(TESTING_DIR + "ref"));
+		assertFalse(Files.exists(lock));
+	}
+
+	@Test
+	public void acquire_heldElsewhere_timesOut() throws IOException{
+		//Arrange
+		createFile(TESTING_DIR + "ref.lock", "");
+		
+		//Act
+		long start = System.nanoTime();
+		try{
+			LockFile.acquire(target, 50);
+			fail("the lock is held");
+		} catch(IOException ex){
+			//Assert
+			assertTrue(ex.getMessage().contains("ref.lock"));
+		}
+		assertTrue(System.nanoTime() - start >= 50 * 1000000L);
+		assertTrue(Files.exists(lock));
+	}
+
+	@Test
+	public void acquire_waitsForRelease() throws Exception{
+		//Arrange
+		LockFile first = LockFile.acquire(target, 0);
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(30);
+				first.getOutputStream().write("first".getBytes(StandardCharsets.UTF_8));
+				first.commit();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		
+		//Act
+		releaser.start();
+		LockFile.write(target, "second".getBytes(StandardCharsets.UTF_8), 5000);
+		releaser.join();
+		
+		//Assert
+		assertEquals("second", getText(TESTING_DIR + "ref"));
+		assertFalse(Files.exists(lock));
+	}
+}
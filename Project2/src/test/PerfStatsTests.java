@@ -0,0 +1,97 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import gitlet.Commit;
+import gitlet.Hasher;
+import gitlet.InstrumentedFileWriter;
+import gitlet.PerfStats;
+import gitlet.PerfStats.Counter;
+import gitlet.PerfStats.Phase;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PerfStatsTests {
+
+	@After
+	public void unbind() {
+		PerfStats.bind(null);
+	}
+
+	@Test
+	public void enter_timesPhasesExclusively() throws InterruptedException {
+		//Arrange
+		PerfStats sut = new PerfStats("log");
+
+		//Act
+		Phase previous = sut.enter(Phase.DECODE);
+		Thread.sleep(5);
+		Phase decoding = sut.enter(Phase.HASH);
+		Thread.sleep(5);
+		sut.enter(decoding);
+		sut.enter(previous);
+		sut.finish();
+
+		//Assert
+		assertEquals(Phase.COMMAND, previous);
+		assertTrue(sut.getNanos(Phase.HASH) >= 5000000);
+		assertTrue(sut.getNanos(Phase.DECODE) >= 5000000);
+		long phases = 0;
+		for (Phase phase : Phase.values())
+			phases += sut.getNanos(phase);
+		assertEquals("the phases add up to the whole", sut.getTotalNanos(), phases);
+	}
+
+	@Test
+	public void count_isIgnoredWithoutBoundStats() {
+		//Act
+		PerfStats.count(Counter.OBJECTS_READ, 1);
+
+		//Assert
+		assertNull(PerfStats.current());
+		assertNull(PerfStats.begin(Phase.IO));
+	}
+
+	@Test
+	public void hashing_isTimedIntoTheBoundStats() {
+		//Arrange
+		PerfStats sut = new PerfStats("commit");
+		assertNull(PerfStats.bind(sut));
+
+		//Act
+		Hasher.getSha256("wug");
+		sut.finish();
+
+		//Assert
+		assertSame(sut, PerfStats.current());
+		assertTrue(sut.getNanos(Phase.HASH) > 0);
+	}
+
+	@Test
+	public void instrumentedFileWriter_countsCalls() {
+		//Arrange
+		PerfStats stats = new PerfStats("log");
+		TestFileWriter fileWriter = new TestFileWriter();
+		Commit commit = new Commit();
+		fileWriter.saveCommit(commit);
+		InstrumentedFileWriter sut = new InstrumentedFileWriter(fileWriter, stats);
+
+		//Act
+		sut.exists("wug.txt");
+		sut.exists("wug.txt");
+		sut.recoverCommit(commit.getId());
+		sut.sync();
+		stats.finish();
+
+		//Assert
+		assertEquals(2, stats.getCalls("exists"));
+		assertEquals(1, stats.getCalls("recoverCommit"));
+		assertEquals(1, stats.getCalls("sync"));
+		assertTrue(stats.getNanos(Phase.IO) > 0);
+		assertTrue(stats.toSummary(), stats.toSummary().contains("exists 2"));
+		assertTrue(stats.toJson(), stats.toJson().contains("\"exists\":{\"count\":2,"));
+	}
+}
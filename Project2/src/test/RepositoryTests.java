@@ -0,0 +1,254 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import gitlet.BufferedOutputSink;
+import gitlet.CommandResult;
+import gitlet.Commit;
+import gitlet.FileWriterFactory;
+import gitlet.IFileWriter;
+import gitlet.Repository;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class RepositoryTests extends BaseTest {
+
+	private File root = new File(TESTING_DIR + "repo");
+	
+	@Test
+	public void init_createsRepositoryUnderRoot(){
+		//Arrange
+		BufferedOutputSink sink = new BufferedOutputSink();
+		
+		//Act
+		Repository sut = Repository.init(root, sink);
+		
+		//Assert
+		assertTrue(new File(root, ".gitlet/HEAD").exists());
+		assertFalse("nothing is written to the working directory", new File(".gitlet").exists());
+		assertEquals("master", sut.getCurrentBranch());
+		assertEquals("initial commit", sut.log().get(0).getMessage());
+	}
+	
+	@Test
+	public void commit_typedResultAndHistory(){
+		//Arrange
+		Repository sut = Repository.init(root, new BufferedOutputSink());
+		createFile(TESTING_DIR + "repo/foo", "hi");
+		
+		//Act
+		CommandResult added = sut.add("foo");
+		CommandResult committed = sut.commit("say hi");
+		List<Commit> log = sut.log();
+		
+		//Assert
+		assertTrue(added.isSucceeded());
+		assertTrue(committed.isSucceeded());
+		assertEquals(sut.getHead(), committed.getHead());
+		assertEquals(2, log.size());
+		assertEquals("say hi", log.get(0).getMessage());
+		assertEquals(committed.getHead(), log.get(0).getId());
+		assertEquals(Arrays.asList(committed.getHead()), sut.find("say hi"));
+	}
+	
+	@Test
+	public void failure_messagesGoToSink(){
+		//Arrange
+		BufferedOutputSink sink = new BufferedOutputSink();
+		Repository sut = Repository.init(root, sink);
+		sink.clear();
+		
+		//Act
+		CommandResult result = sut.commit("nothing");
+		
+		//Assert
+		assertFalse(result.isSucceeded());
+		assertEquals("No changes added to the commit.", sink.getOutText().trim());
+		assertEquals("No changes added to the commit.", sink.getErrText().trim());
+	}
+	
+	@Test
+	public void checkoutBranch_runsWithoutPrompt(){
+		//Arrange
+		Repository sut = Repository.init(root, new BufferedOutputSink());
+		createFile(TESTING_DIR + "repo/foo", "hi");
+		sut.add("foo");
+		sut.commit("say hi");
+		sut.branch("dev");
+		createFile(TESTING_DIR + "repo/foo", "hello");
+		sut.add("foo");
+		sut.commit("say hello");
+		
+		//Act
+		CommandResult result = sut.checkoutBranch("dev");
+		
+		//Assert
+		assertTrue(result.isSucceeded());
+		assertEquals("dev", sut.getCurrentBranch());
+		assertEquals(Arrays.asList("dev", "master"), sut.getBranches());
+		assertEquals("hi", getText(TESTING_DIR + "repo/foo"));
+	}
+	
+	@Test
+	public void run_commandLineArguments(){
+		//Arrange
+		BufferedOutputSink sink = new BufferedOutputSink();
+		Repository sut = Repository.init(root, sink);
+		sink.clear();
+		
+		//Act
+		CommandResult result = sut.run("log");
+		CommandResult unknown = sut.run("whosyourdaddy");
+		
+		//Assert
+		assertTrue(result.isSucceeded());
+		assertTrue(sink.getOutText().contains("initial commit"));
+		assertFalse(unknown.isSucceeded());
+		assertTrue(sink.getErrText().contains("Unknown command: whosyourdaddy"));
+	}
+	
+	@Test
+	public void batch_fileRelativeToRoot(){
+		//Arrange
+		BufferedOutputSink sink = new BufferedOutputSink();
+		Repository sut = Repository.init(root, sink);
+		createFile(TESTING_DIR + "repo/commands", "branch dev\n");
+		sink.clear();
+		
+		//Act
+		CommandResult result = sut.run("batch", "commands");
+		
+		//Assert
+		assertTrue(result.isSucceeded());
+		assertTrue(sink.getOutText().startsWith("result 1 ok"));
+		assertEquals(Arrays.asList("dev", "master"), sut.getBranches());
+	}
+	
+	@Test
+	public void interactiveRebase_noAnswers_keepsCommits(){
+		//Arrange
+		BufferedOutputSink sink = new BufferedOutputSink();
+		Repository sut = Repository.init(root, sink);
+		createFile(TESTING_DIR + "repo/foo", "hi");
+		sut.add("foo");
+		sut.commit("say hi");
+		sut.branch("dev");
+		createFile(TESTING_DIR + "repo/bar", "yo");
+		sut.add("bar");
+		sut.commit("say yo");
+		sut.checkoutBranch("dev");
+		createFile(TESTING_DIR + "repo/baz", "good morning");
+		sut.add("baz");
+		sut.commit("good morning");
+		sink.clear();
+		
+		//Act
+		CommandResult result = sut.run("i-rebase", "master");
+		
+		//Assert
+		assertTrue(result.isSucceeded());
+		assertTrue(sink.getOutText().contains("Would you like to (c)ontinue"));
+		assertEquals("good morning", sut.log().get(0).getMessage());
+		assertEquals("say yo", sut.log().get(1).getMessage());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void open_notARepository(){
+		Repository.open(root);
+	}
+	
+	@Test
+	public void getBranchHead_missingBranch_null(){
+		//Arrange
+		Repository sut = Repository.init(root, new BufferedOutputSink());
+		
+		//Act & Assert
+		assertNull(sut.getBranchHead("mysterious"));
+		assertNull(sut.getCommit("nope"));
+	}
+	
+	@Test
+	public void getWriter_sameRootSameWriter(){
+		//Act
+		IFileWriter first = FileWriterFactory.getWriter(root);
+		IFileWriter second = FileWriterFactory.getWriter(new File(TESTING_DIR + "./repo/../repo"));
+		
+		//Assert
+		assertSame(first, second);
+		assertFalse(first == FileWriterFactory.getWriter(new File(TESTING_DIR + "other")));
+	}
+	
+	@Test
+	public void bind_onlyAffectsCurrentThread() throws InterruptedException{
+		//Arrange
+		IFileWriter writer = FileWriterFactory.getWriter(root);
+		AtomicReference<IFileWriter> seenByOther = new AtomicReference<IFileWriter>();
+		
+		//Act
+		IFileWriter previous = FileWriterFactory.bind(writer);
+		Thread other = new Thread(() -> seenByOther.set(FileWriterFactory.getWriter()));
+		other.start();
+		other.join();
+		IFileWriter seenHere = FileWriterFactory.getWriter();
+		FileWriterFactory.bind(previous);
+		
+		//Assert
+		assertSame(writer, seenHere);
+		assertFalse(writer == seenByOther.get());
+		assertFalse(writer == FileWriterFactory.getWriter());
+	}
+	
+	@Test
+	public void commit_manyRepositoriesConcurrently() throws InterruptedException{
+		//Arrange
+		final int repositories = 8;
+		final int commits = 5;
+		List<Thread> threads = new ArrayList<Thread>();
+		List<Throwable> failures = new ArrayList<Throwable>();
+		for(int i = 0; i < repositories; i++){
+			final String name = "repo" + i;
+			threads.add(new Thread(() -> {
+				try {
+					Repository repository = Repository.init(new File(TESTING_DIR + name), new BufferedOutputSink());
+					for(int j = 0; j < commits; j++){
+						//createFile isn't thread-safe, test_files is cleaned up anyway
+						Files.write(Paths.get(TESTING_DIR + name, "foo"), (name + " " + j).getBytes());
+						repository.add("foo");
+						repository.commit(name + " " + j);
+					}
+				} catch(Throwable t) {
+					synchronized(failures){
+						failures.add(t);
+					}
+				}
+			}));
+		}
+		
+		//Act
+		for(Thread thread : threads)
+			thread.start();
+		for(Thread thread : threads)
+			thread.join();
+		
+		//Assert
+		assertEquals(new ArrayList<Throwable>(), failures);
+		for(int i = 0; i < repositories; i++){
+			Repository repository = Repository.open(new File(TESTING_DIR + "repo" + i));
+			List<Commit> log = repository.log();
+			assertEquals(commits + 1, log.size());
+			assertEquals("repo" + i + " " + (commits - 1), log.get(0).getMessage());
+			assertEquals("repo" + i + " " + (commits - 1), getText(TESTING_DIR + "repo" + i + "/foo"));
+		}
+	}
+}
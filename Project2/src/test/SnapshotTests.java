@@ -0,0 +1,163 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gitlet.BufferedOutputSink;
+import gitlet.CachingFileWriter;
+import gitlet.FileWriterFactory;
+import gitlet.Repository;
+import gitlet.Snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class SnapshotTests extends BaseTest {
+
+	private File root = new File(TESTING_DIR + "repo");
+
+	private void commit(Repository repository, String file, String message){
+		createFile(TESTING_DIR + "repo/" + file, message);
+		repository.add(file);
+		repository.commit(message);
+	}
+
+	@Test
+	public void snapshot_pinnedWhileCommandsRun(){
+		//Arrange
+		Repository sut = Repository.init(root, new BufferedOutputSink());
+		commit(sut, "foo", "first");
+		createFile(TESTING_DIR + "repo/bar", "bar");
+		sut.add("bar");
+		Snapshot pinned = sut.getSnapshot();
+		
+		//Act
+		sut.commit("second");
+		sut.branch("dev");
+		Snapshot latest = sut.getSnapshot();
+		
+		//Assert
+		assertEquals(Arrays.asList("bar"), pinned.getStaging().getFilesToAdd());
+		assertEquals(Arrays.asList("master"), pinned.getBranches());
+		assertEquals("first", sut.getCommit(pinned.getHead()).getMessage());
+		assertEquals(new ArrayList<String>(), latest.getStaging().getFilesToAdd());
+		assertEquals(Arrays.asList("dev", "master"), latest.getBranches());
+		assertEquals("second", sut.getCommit(latest.getHead()).getMessage());
+		assertTrue(latest.getVersion() > pinned.getVersion());
+	}
+
+	@Test
+	public void writerHoldsLock_readersGetPreviousVersionWithoutWaiting() throws Exception{
+		//Arrange
+		Repository sut = Repository.init(root, new BufferedOutputSink());
+		commit(sut, "foo", "first");
+		String before = sut.getHead();
+		CachingFileWriter writer = FileWriterFactory.getWriter(root);
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		
+		//Act
+		writer.lockRepository();
+		String during;
+		try {
+			//half a command: the ref moved, the staging area not yet
+			Files.write(Paths.get(TESTING_DIR + "repo/.gitlet/refs/heads/master"), "moved".getBytes());
+			Future<String> read = reader.submit(() -> sut.getHead());
+			during = read.get(5, TimeUnit.SECONDS);
+		} finally {
+			writer.unlockRepository();
+			reader.shutdown();
+		}
+		String after = sut.getHead();
+		
+		//Assert
+		assertEquals(before, during);
+		assertEquals("moved", after);
+	}
+
+	@Test
+	public void changedByAnotherProcess_readAgain() throws IOException{
+		//Arrange
+		Repository sut = Repository.init(root, new BufferedOutputSink());
+		Snapshot first = sut.getSnapshot();
+		
+		//Act
+		Files.write(Paths.get(TESTING_DIR + "repo/.gitlet/refs/heads/other"), first.getHead().getBytes());
+		Snapshot second = sut.getSnapshot();
+		
+		//Assert
+		assertEquals(Arrays.asList("master"), first.getBranches());
+		assertEquals(Arrays.asList("master", "other"), second.getBranches());
+		assertEquals(first.getHead(), second.getBranchHead("other"));
+	}
+
+	@Test
+	public void staleRepositoryLock_readersSeeCurrentRefs() throws IOException{
+		//Arrange
+		Repository sut = Repository.init(root, new BufferedOutputSink());
+		String before = sut.getSnapshot().getHead();
+		File lock = new File(TESTING_DIR + "repo/.gitlet/repository.lock");
+		
+		//Act
+		//left behind by a writer that was killed an hour ago
+		lock.createNewFile();
+		Files.write(Paths.get(TESTING_DIR + "repo/.gitlet/refs/heads/master"), "moved".getBytes());
+		String whileFresh = sut.getSnapshot().getHead();
+		lock.setLastModified(System.currentTimeMillis() - 60 * 60 * 1000);
+		String whileStale = sut.getSnapshot().getHead();
+		lock.delete();
+		
+		//Assert
+		assertEquals(before, whileFresh);
+		assertEquals("moved", whileStale);
+	}
+
+	@Test
+	public void concurrentReaders_neverSeeHalfACommit() throws Exception{
+		//Arrange
+		final Repository sut = Repository.init(root, new BufferedOutputSink());
+		final int commits = 15;
+		final List<String> torn = new ArrayList<String>();
+		final AtomicBoolean done = new AtomicBoolean();
+		List<Thread> readers = new ArrayList<Thread>();
+		for(int i = 0; i < 4; i++){
+			readers.add(new Thread(() -> {
+				while(!done.get()){
+					Snapshot snapshot = sut.getSnapshot();
+					String message = sut.getCommit(snapshot.getHead()).getMessage();
+					int number = message.startsWith("c") ? Integer.parseInt(message.substring(1)) : 0;
+					List<String> staged = snapshot.getStaging().getFilesToAdd();
+					//either nothing is staged, or the next file is
+					if(!staged.isEmpty() && !staged.equals(Arrays.asList("f" + (number + 1)))){
+						synchronized(torn){
+							torn.add(message + " " + staged);
+						}
+					}
+				}
+			}));
+		}
+		
+		//Act
+		for(Thread t : readers)
+			t.start();
+		for(int i = 1; i <= commits; i++)
+			commit(sut, "f" + i, "c" + i);
+		done.set(true);
+		for(Thread t : readers)
+			t.join();
+		
+		//Assert
+		assertEquals(new ArrayList<String>(), torn);
+		assertEquals("c" + commits, sut.log().get(0).getMessage());
+	}
+}
@@ -1,16 +1,23 @@
 package test;
 
 import gitlet.Commit;
+import gitlet.CommitGraph;
+import gitlet.CommitObject;
 import gitlet.IFileWriter;
 import gitlet.Staging;
+import gitlet.TimeIndex;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
 public class TestFileWriter implements IFileWriter {
 
 	private HashMap<String, Commit> savedCommits;
+	private CommitGraph commitGraph;
+	private HashMap<String, TimeIndex> timeIndexes;
 	private List<String> createdDirectories;
 	private HashMap<String, String> createdFiles;
 	private HashMap<String, Long> timeStamps;
@@ -18,6 +25,8 @@ public class TestFileWriter implements IFileWriter {
 	private String workingDirectory;
 	private Staging staging;
 	private boolean canWrite;
+	private int lockDepth;
+	private int syncs;
 	
 	public void setWorkingDirectory(String workingDirectory) {
 		this.workingDirectory = workingDirectory;
@@ -25,6 +34,8 @@ public class TestFileWriter implements IFileWriter {
 	
 	public TestFileWriter() {
 		savedCommits = new HashMap<String, Commit>();
+		commitGraph = new CommitGraph();
+		timeIndexes = new HashMap<String, TimeIndex>();
 		createdDirectories = new ArrayList<String>();
 		createdFiles = new HashMap<String, String>();
 		branches = new HashMap<String, String>();
@@ -53,6 +64,17 @@ public class TestFileWriter implements IFileWriter {
 	//	}
 	}
 
+	@Override
+	public String readFile(String fileName) {
+		return createdFiles.get(fileName);
+	}
+
+	@Override
+	public byte[] readBytes(String fileName) {
+		String text = createdFiles.get(fileName);
+		return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+	}
+
 	private void updateTimestamps(String filename){
 		Long time = System.currentTimeMillis();
 		timeStamps.put(filename, time);
@@ -95,6 +117,7 @@ public class TestFileWriter implements IFileWriter {
 	public void saveCommit(Commit commit) {
 		// TODO Auto-generated method stub
 		savedCommits.put(commit.getId(), commit);
+		commitGraph.add(CommitGraph.entryFor(commit));
 
 	}
 
@@ -104,6 +127,27 @@ public class TestFileWriter implements IFileWriter {
 		return savedCommits.get(id);
 	}
 
+	@Override
+	public CommitObject readCommitObject(String id) {
+		Commit commit = savedCommits.get(id);
+		return commit == null ? null : CommitObject.of(commit);
+	}
+
+	@Override
+	public CommitGraph recoverCommitGraph() {
+		return commitGraph;
+	}
+
+	@Override
+	public TimeIndex recoverTimeIndex(String branch) {
+		return timeIndexes.get(branch);
+	}
+
+	@Override
+	public void saveTimeIndex(String branch, TimeIndex index) {
+		timeIndexes.put(branch, index);
+	}
+
 	@Override
 	public String getWorkingDirectory() {
 		// TODO Auto-generated method stub
@@ -188,6 +232,24 @@ public class TestFileWriter implements IFileWriter {
 		return savedCommits.keySet().toArray(new String[0]);
 	}
 
+	@Override
+	public String[] listFiles(String directory) {
+		return listFiles(directory, true);
+	}
+
+	@Override
+	public String[] listFiles(String directory, boolean recursive) {
+		String prefix = ".".equals(directory) ? "" : directory + "/";
+		List<String> files = new ArrayList<String>();
+		for(String name : createdFiles.keySet()){
+			if(name.startsWith(prefix) && !name.startsWith(".gitlet/")
+					&& (recursive || name.indexOf('/', prefix.length()) < 0))
+				files.add(name);
+		}
+		Collections.sort(files);
+		return files.toArray(new String[0]);
+	}
+
 	@Override
 	public void deleteBranch(String branch) {
 		String branchPath = ".gitlet/refs/heads/" + branch;
@@ -195,6 +257,46 @@ public class TestFileWriter implements IFileWriter {
 		createdFiles.remove(branchPath);
 	}
 
+	@Override
+	public void deleteFile(String name) {
+		createdFiles.remove(name);
+	}
+
+	@Override
+	public void lockRepository() {
+		lockDepth++;
+	}
+
+	@Override
+	public void unlockRepository() {
+		lockDepth--;
+	}
+
+	public int getLockDepth() {
+		return lockDepth;
+	}
+
+	@Override
+	public void sync() {
+		syncs++;
+	}
+
+	public int getSyncs() {
+		return syncs;
+	}
+
+	@Override
+	public void beginTransaction() {
+	}
+
+	@Override
+	public void commitTransaction() {
+	}
+
+	@Override
+	public void abortTransaction() {
+	}
+
 
 
 }
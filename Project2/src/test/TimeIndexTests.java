@@ -0,0 +1,81 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import gitlet.TimeIndex;
+
+import java.text.SimpleDateFormat;
+
+import org.junit.Test;
+
+public class TimeIndexTests {
+
+	private TimeIndex getInst(){
+		return new TimeIndex("c", new long[]{ 10L, 20L, 20L, 30L }, 
+				new String[]{ "a", "b1", "b2", "c" });
+	}
+	
+	@Test
+	public void lastAtOrBefore_exactMatch_returnsLastWithThatTime(){
+		assertEquals("b2", getInst().lastAtOrBefore(20L));
+	}
+	
+	@Test
+	public void lastAtOrBefore_betweenCommits_returnsOlder(){
+		assertEquals("b2", getInst().lastAtOrBefore(29L));
+		assertEquals("a", getInst().lastAtOrBefore(19L));
+	}
+	
+	@Test
+	public void lastAtOrBefore_beforeFirstCommit_returnsNull(){
+		assertNull(getInst().lastAtOrBefore(9L));
+	}
+	
+	@Test
+	public void lastAtOrBefore_afterHead_returnsHead(){
+		assertEquals("c", getInst().lastAtOrBefore(1000L));
+	}
+	
+	@Test
+	public void parseTime_logFormat() throws Exception{
+		long expected = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2015-03-01 14:02:30").getTime();
+		assertEquals(expected, TimeIndex.parseTime("2015-03-01 14:02:30").longValue());
+	}
+	
+	@Test
+	public void parseTime_withoutSeconds() throws Exception{
+		long expected = new SimpleDateFormat("yyyy-MM-dd HH:mm").parse("2015-03-01 14:02").getTime();
+		assertEquals(expected, TimeIndex.parseTime("2015-03-01 14:02").longValue());
+	}
+	
+	@Test
+	public void parseTime_millis(){
+		assertEquals(1425218550000L, TimeIndex.parseTime("1425218550000").longValue());
+	}
+	
+	@Test
+	public void parseTime_tenDigits_seconds(){
+		assertEquals(1425218550000L, TimeIndex.parseTime("1425218550").longValue());
+	}
+	
+	@Test
+	public void parseTime_otherDigitCounts_returnsNull(){
+		assertNull(TimeIndex.parseTime("142521855000"));
+		assertNull(TimeIndex.parseTime("14252185500000"));
+	}
+	
+	@Test
+	public void parseTime_garbage_returnsNull(){
+		assertNull(TimeIndex.parseTime("yesterday-ish"));
+		assertNull(TimeIndex.parseTime("2015-03-01 14:02 and more"));
+	}
+	
+	@Test
+	public void isRevision(){
+		assertTrue(TimeIndex.isRevision("master@{2015-03-01 14:02}"));
+		assertTrue(TimeIndex.isRevision("@{14:02}"));
+		assertFalse(TimeIndex.isRevision("master"));
+	}
+}
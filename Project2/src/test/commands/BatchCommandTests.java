@@ -0,0 +1,32 @@
+package test.commands;
+
+import static org.junit.Assert.assertArrayEquals;
+import gitlet.commands.BatchCommand;
+
+import org.junit.Test;
+
+public class BatchCommandTests {
+
+	@Test
+	public void tokenize_splitsOnWhitespace(){
+		//Act
+		String[] result = BatchCommand.tokenize("  add   foo\tbar ");
+		
+		//Assert
+		assertArrayEquals(new String[]{ "add", "foo", "bar" }, result);
+	}
+	
+	@Test
+	public void tokenize_quotesAndEscapes(){
+		//Act
+		String[] result = BatchCommand.tokenize("commit \"it's \\\"done\\\"\" 'a \\ b' c\\ d \"\"");
+		
+		//Assert
+		assertArrayEquals(new String[]{ "commit", "it's \"done\"", "a \\ b", "c d", "" }, result);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void tokenize_unterminatedQuote(){
+		BatchCommand.tokenize("commit 'oops");
+	}
+}
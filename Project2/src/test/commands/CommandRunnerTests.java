@@ -0,0 +1,74 @@
+package test.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gitlet.FileWriterFactory;
+import gitlet.commands.CommandRunner;
+import gitlet.commands.ICommand;
+
+import org.junit.Test;
+
+import test.BaseTest;
+import test.TestFileWriter;
+
+public class CommandRunnerTests extends BaseTest {
+
+	private static class RecordingCommand implements ICommand {
+		private final TestFileWriter fileWriter;
+		private final boolean readOnly;
+		private int lockDepth = -1;
+
+		RecordingCommand(TestFileWriter fileWriter, boolean readOnly) {
+			this.fileWriter = fileWriter;
+			this.readOnly = readOnly;
+		}
+
+		@Override
+		public boolean isDangerous() {
+			return false;
+		}
+
+		@Override
+		public boolean isReadOnly() {
+			return readOnly;
+		}
+
+		@Override
+		public boolean execute() {
+			lockDepth = fileWriter.getLockDepth();
+			return true;
+		}
+	}
+
+	@Test
+	public void execute_writeCommand_runsUnderLock(){
+		//Arrange
+		TestFileWriter fw = new TestFileWriter();
+		FileWriterFactory.setWriter(fw);
+		fw.createDirectory(".gitlet");
+		RecordingCommand command = new RecordingCommand(fw, false);
+		
+		//Act
+		boolean result = CommandRunner.execute(command);
+		
+		//Assert
+		assertTrue(result);
+		assertEquals(1, command.lockDepth);
+		assertEquals(0, fw.getLockDepth());
+	}
+
+	@Test
+	public void execute_readOnlyCommand_doesNotLock(){
+		//Arrange
+		TestFileWriter fw = new TestFileWriter();
+		FileWriterFactory.setWriter(fw);
+		fw.createDirectory(".gitlet");
+		RecordingCommand command = new RecordingCommand(fw, true);
+		
+		//Act
+		CommandRunner.execute(command);
+		
+		//Assert
+		assertEquals(0, command.lockDepth);
+	}
+}
@@ -0,0 +1,49 @@
+package test.commands.factories;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import gitlet.Gitlet;
+import gitlet.commands.factories.CommandRegistry;
+import gitlet.commands.factories.ICommandFactory;
+
+import org.junit.Test;
+
+public class CommandRegistryTests {
+
+	@Test
+	public void get_createsFactoryOnceAndReusesIt(){
+		//Arrange
+		CommandRegistry sut = Gitlet.getCommandRegistry();
+		
+		//Act
+		ICommandFactory first = sut.get("status");
+		ICommandFactory second = sut.get("status");
+		
+		//Assert
+		assertEquals("status", first.getCommandName());
+		assertSame(first, second);
+	}
+	
+	@Test
+	public void get_unknownCommand_returnsNull(){
+		//Arrange
+		CommandRegistry sut = Gitlet.getCommandRegistry();
+		
+		//Act
+		ICommandFactory result = sut.get("whosyourdaddy");
+		
+		//Assert
+		assertNull(result);
+	}
+	
+	@Test
+	public void getCommandRegistry_namesMatchFactories(){
+		//Arrange
+		CommandRegistry sut = Gitlet.getCommandRegistry();
+		
+		//Act & Assert
+		for(String name : sut.getCommandNames())
+			assertEquals(name, sut.get(name).getCommandName());
+	}
+}
@@ -0,0 +1,75 @@
+package test.commands.factories;
+
+import static org.junit.Assert.*;
+import gitlet.BufferedOutputSink;
+import gitlet.OutputSinkFactory;
+import gitlet.commands.ICommand;
+import gitlet.commands.LogCommand;
+import gitlet.commands.NoOpCommand;
+import gitlet.commands.factories.ICommandFactory;
+import gitlet.commands.factories.LogCommandFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogCommandFactoryTests {
+
+	private BufferedOutputSink sink;
+	
+	@Before
+	public void setUp(){
+		sink = new BufferedOutputSink();
+		OutputSinkFactory.bind(sink);
+	}
+	
+	@After
+	public void tearDown(){
+		OutputSinkFactory.bind(null);
+	}
+	
+	@Test
+	public void makeCommand_sinceAndUntil_returnsLogCommand(){
+		//Arrange
+		ICommandFactory sut = new LogCommandFactory();
+		
+		//Act
+		ICommand result = sut.makeCommand(new String[]{ "log", "--since", "2015-03-01", 
+				"--until=2015-04-01", "--", "foo" });
+		
+		//Assert
+		assertTrue(result instanceof LogCommand);
+		assertEquals("", sink.getErrText());
+	}
+	
+	@Test
+	public void makeCommand_optionWithSuffix_printsUsage(){
+		//Arrange
+		ICommandFactory sut = new LogCommandFactory();
+		
+		//Act
+		ICommand result = sut.makeCommand(new String[]{ "log", "--sincefoo", "2015-03-01" });
+		
+		//Assert
+		assertTrue(result instanceof NoOpCommand);
+		assertEquals("Invalid argument: --sincefoo", sink.getOutText().trim());
+		assertTrue(sink.getErrText().startsWith("Usage: java Gitlet log"));
+	}
+	
+	@Test
+	public void makeCommand_unknownArguments_printUsage(){
+		//Arrange
+		ICommandFactory sut = new LogCommandFactory();
+		
+		//Act
+		ICommand foo = sut.makeCommand(new String[]{ "log", "foo" });
+		ICommand bogus = sut.makeCommand(new String[]{ "log", "--bogus" });
+		ICommand noPath = sut.makeCommand(new String[]{ "log", "--" });
+		
+		//Assert
+		assertTrue(foo instanceof NoOpCommand);
+		assertTrue(bogus instanceof NoOpCommand);
+		assertTrue(noPath instanceof NoOpCommand);
+		assertEquals(3, sink.getErrText().split("Usage: java Gitlet log").length - 1);
+	}
+}
@@ -0,0 +1,174 @@
+package test.daemon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import gitlet.daemon.DaemonClient;
+import gitlet.daemon.DaemonProtocol;
+import gitlet.daemon.DaemonServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Test;
+
+import test.BaseTest;
+
+public class DaemonTests extends BaseTest {
+
+	private Path socket = Paths.get(DaemonProtocol.SOCKET);
+	private Thread daemon;
+	private String out;
+	private String err;
+
+	@After
+	@Override
+	public void tearDown(){
+		if(daemon != null){
+			try {
+				DaemonClient.run(socket, new String[]{"daemon", "stop"}, 
+						new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), new ByteArrayOutputStream());
+				daemon.join(5000);
+			} catch (IOException | InterruptedException e) {
+				//already stopped
+			}
+		}
+		super.tearDown();
+		checkAndDelete("foo");
+	}
+
+	private void startDaemon() throws IOException{
+		final DaemonServer server = new DaemonServer(socket);
+		assertTrue(server.bind());
+		daemon = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					server.serve();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		daemon.start();
+	}
+
+	private int remote(String input, String... args) throws IOException{
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		ByteArrayOutputStream errStream = new ByteArrayOutputStream();
+		int status = DaemonClient.run(socket, args, 
+				new ByteArrayInputStream(input.getBytes()), outStream, errStream);
+		out = outStream.toString().trim();
+		err = errStream.toString().trim();
+		return status;
+	}
+
+	@Test
+	public void daemon_runsCommands() throws IOException{
+		//Arrange
+		gitlet("init");
+		startDaemon();
+		createFile("foo", "hi");
+		
+		//Act
+		int addStatus = remote("", "add", "foo");
+		int commitStatus = remote("", "commit", "say hi");
+		remote("", "log");
+		
+		//Assert
+		assertEquals(0, addStatus);
+		assertEquals(0, commitStatus);
+		assertTrue(out.contains("say hi"));
+		assertTrue("the commit is visible without the daemon", gitlet("log").contains("say hi"));
+	}
+
+	@Test
+	public void daemon_forwardsErrorsAndStatus() throws IOException{
+		//Arrange
+		gitlet("init");
+		startDaemon();
+		
+		//Act
+		int status = remote("", "commit", "nothing");
+		
+		//Assert
+		assertEquals(1, status);
+		assertEquals("No changes added to the commit.", out);
+		assertEquals("No changes added to the commit.", err);
+	}
+
+	@Test
+	public void daemon_answersPromptsFromClientInput() throws IOException{
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		gitlet("branch", "dev");
+		createFile("foo", "hello");
+		gitlet("add", "foo");
+		gitlet("commit", "say hello");
+		startDaemon();
+		
+		//Act
+		int declined = remote("no\n", "checkout", "dev");
+		String afterDecline = getText("foo");
+		int accepted = remote("yes\n", "checkout", "dev");
+		
+		//Assert
+		assertEquals(1, declined);
+		assertEquals("hello", afterDecline);
+		assertEquals(0, accepted);
+		assertEquals("hi", getText("foo"));
+	}
+
+	@Test
+	public void daemon_seesChangesMadeWithoutIt() throws IOException{
+		//Arrange
+		gitlet("init");
+		startDaemon();
+		remote("", "branch", "dev");
+		
+		//Act
+		gitlet("branch", "feature");
+		gitlet("checkout", "feature");
+		remote("", "status");
+		
+		//Assert
+		assertTrue(out.contains("*feature"));
+	}
+
+	@Test
+	public void daemon_stop_removesSocket() throws IOException, InterruptedException{
+		//Arrange
+		gitlet("init");
+		startDaemon();
+		
+		//Act
+		int status = remote("", "daemon", "stop");
+		daemon.join(5000);
+		daemon = null;
+		
+		//Assert
+		assertEquals(0, status);
+		assertFalse(Files.exists(socket));
+	}
+
+	@Test
+	public void daemon_secondDaemonRefused() throws IOException{
+		//Arrange
+		gitlet("init");
+		startDaemon();
+		
+		//Act
+		boolean bound = new DaemonServer(socket).bind();
+		
+		//Assert
+		assertFalse(bound);
+	}
+}
@@ -0,0 +1,107 @@
+package test.diff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gitlet.diff.Edit;
+import gitlet.diff.MyersDiff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MyersDiffTests {
+
+	@Test
+	public void diff_identical_noEdits(){
+		List<Edit> result = MyersDiff.diff(lines("a", "b", "c"), lines("a", "b", "c"));
+		
+		assertTrue(result.isEmpty());
+	}
+	
+	@Test
+	public void diff_singleReplacement(){
+		List<Edit> result = MyersDiff.diff(lines("a", "b", "c"), lines("a", "x", "c"));
+		
+		assertEquals(1, result.size());
+		assertEquals(new Edit(1, 2, 1, 2), result.get(0));
+	}
+	
+	@Test
+	public void diff_insertAndDelete(){
+		List<Edit> result = MyersDiff.diff(lines("a", "b", "c", "d"), lines("x", "a", "c", "d", "e"));
+		
+		assertEquals(3, result.size());
+		assertEquals(new Edit(0, 0, 0, 1), result.get(0));
+		assertEquals(new Edit(1, 2, 2, 2), result.get(1));
+		assertEquals(new Edit(4, 4, 4, 5), result.get(2));
+	}
+	
+	@Test
+	public void diff_randomInputs_editsRebuildTarget(){
+		Random random = new Random(61);
+		for(int round = 0; round < 200; round++){
+			List<String> a = randomLines(random);
+			List<String> b = randomLines(random);
+			
+			List<Edit> edits = MyersDiff.diff(a, b);
+			
+			assertEquals(b, apply(a, b, edits));
+			assertEquals(lcsEditCost(a, b), cost(edits));
+		}
+	}
+	
+	@Test
+	public void splitLines_keepsTerminators(){
+		assertEquals(Arrays.asList("a\n", "b\n", "c"), MyersDiff.splitLines("a\nb\nc"));
+		assertEquals(Arrays.asList("a\n"), MyersDiff.splitLines("a\n"));
+		assertTrue(MyersDiff.splitLines("").isEmpty());
+	}
+	
+	private List<String> lines(String... values){
+		return Arrays.asList(values);
+	}
+	
+	private List<String> randomLines(Random random){
+		List<String> result = new ArrayList<String>();
+		int size = random.nextInt(30);
+		for(int i = 0; i < size; i++)
+			result.add(Character.toString((char)('a' + random.nextInt(4))));
+		return result;
+	}
+	
+	private List<String> apply(List<String> a, List<String> b, List<Edit> edits){
+		List<String> result = new ArrayList<String>();
+		int pos = 0;
+		for(Edit edit : edits){
+			result.addAll(a.subList(pos, edit.getBeginA()));
+			result.addAll(b.subList(edit.getBeginB(), edit.getEndB()));
+			pos = edit.getEndA();
+		}
+		result.addAll(a.subList(pos, a.size()));
+		return result;
+	}
+	
+	private int cost(List<Edit> edits){
+		int cost = 0;
+		for(Edit edit : edits)
+			cost += (edit.getEndA() - edit.getBeginA()) + (edit.getEndB() - edit.getBeginB());
+		return cost;
+	}
+	
+	//the shortest edit script deletes and inserts everything outside the LCS
+	private int lcsEditCost(List<String> a, List<String> b){
+		int[][] lcs = new int[a.size() + 1][b.size() + 1];
+		for(int i = a.size() - 1; i >= 0; i--){
+			for(int j = b.size() - 1; j >= 0; j--){
+				if(a.get(i).equals(b.get(j)))
+					lcs[i][j] = lcs[i + 1][j + 1] + 1;
+				else
+					lcs[i][j] = Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+			}
+		}
+		return a.size() + b.size() - 2 * lcs[0][0];
+	}
+}
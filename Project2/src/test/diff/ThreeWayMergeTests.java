@@ -0,0 +1,53 @@
+package test.diff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import gitlet.diff.MergeResult;
+import gitlet.diff.ThreeWayMerge;
+
+import org.junit.Test;
+
+public class ThreeWayMergeTests {
+
+	@Test
+	public void merge_changesOnDifferentLines_clean(){
+		MergeResult result = ThreeWayMerge.merge("a\nb\nc\nd\n", "A\nb\nc\nd\n", "a\nb\nc\nD\n", "ours", "theirs");
+		
+		assertFalse(result.hasConflicts());
+		assertEquals("A\nb\nc\nD\n", result.getText());
+	}
+	
+	@Test
+	public void merge_sameChangeOnBothSides_clean(){
+		MergeResult result = ThreeWayMerge.merge("a\nb\nc\n", "a\nB\nc\n", "a\nB\nc\n", "ours", "theirs");
+		
+		assertFalse(result.hasConflicts());
+		assertEquals("a\nB\nc\n", result.getText());
+	}
+	
+	@Test
+	public void merge_insertionsAndDeletions_clean(){
+		MergeResult result = ThreeWayMerge.merge("a\nb\nc\nd\ne\n", "a\nc\nd\ne\n", "a\nb\nc\nd\ne\nf\n", "ours", "theirs");
+		
+		assertFalse(result.hasConflicts());
+		assertEquals("a\nc\nd\ne\nf\n", result.getText());
+	}
+	
+	@Test
+	public void merge_overlappingChanges_conflict(){
+		MergeResult result = ThreeWayMerge.merge("a\nb\nc\n", "a\nX\nc\n", "a\nY\nc\n", "ours", "theirs");
+		
+		assertTrue(result.hasConflicts());
+		assertEquals(1, result.getConflicts());
+		assertEquals("a\n<<<<<<< ours\nX\n=======\nY\n>>>>>>> theirs\nc\n", result.getText());
+	}
+	
+	@Test
+	public void merge_addedOnBothSides_conflictWithoutBase(){
+		MergeResult result = ThreeWayMerge.merge("", "x", "y", "ours", "theirs");
+		
+		assertTrue(result.hasConflicts());
+		assertEquals("<<<<<<< ours\nx\n=======\ny\n>>>>>>> theirs\n", result.getText());
+	}
+}
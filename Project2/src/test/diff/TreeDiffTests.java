@@ -0,0 +1,100 @@
+package test.diff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gitlet.diff.TreeDiff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TreeDiffTests {
+
+	private static class Recorder implements TreeDiff.Visitor {
+		List<String> changes = new ArrayList<String>();
+
+		@Override
+		public void added(String path, String pointer) {
+			changes.add("+" + path + "@" + pointer);
+		}
+
+		@Override
+		public void removed(String path, String pointer) {
+			changes.add("-" + path + "@" + pointer);
+		}
+
+		@Override
+		public void modified(String path, String oldPointer, String newPointer) {
+			changes.add("~" + path + "@" + oldPointer + ">" + newPointer);
+		}
+	}
+
+	private HashMap<String, String> files(String... pathsAndPointers) {
+		HashMap<String, String> files = new HashMap<String, String>();
+		for (int i = 0; i < pathsAndPointers.length; i += 2)
+			files.put(pathsAndPointers[i], pathsAndPointers[i + 1]);
+		return files;
+	}
+
+	private List<String> diff(HashMap<String, String> from, HashMap<String, String> to) {
+		Recorder recorder = new Recorder();
+		TreeDiff.diff(from, to, recorder);
+		return recorder.changes;
+	}
+
+	@Test
+	public void diff_identical_noChanges() {
+		assertTrue(diff(files("a", "1", "b", "2"), files("b", "2", "a", "1")).isEmpty());
+	}
+
+	@Test
+	public void diff_reportsChangesInPathOrder() {
+		//Arrange
+		HashMap<String, String> from = files("a", "1", "c", "1", "d", "1", "f", "1");
+		HashMap<String, String> to = files("b", "2", "c", "1", "d", "2", "g", "2");
+
+		//Act
+		List<String> result = diff(from, to);
+
+		//Assert
+		assertEquals("[-a@1, +b@2, ~d@1>2, -f@1, +g@2]", result.toString());
+	}
+
+	@Test
+	public void diff_nullIsEmpty() {
+		assertEquals("[+a@1]", diff(null, files("a", "1")).toString());
+		assertEquals("[-a@1]", diff(files("a", "1"), null).toString());
+		assertTrue(diff(null, null).isEmpty());
+	}
+
+	@Test
+	public void diff_matchesMapComparison() {
+		//Arrange
+		Random random = new Random(7);
+		HashMap<String, String> from = new HashMap<String, String>();
+		HashMap<String, String> to = new HashMap<String, String>();
+		for (int i = 0; i < 1000; i++) {
+			String path = "dir" + random.nextInt(10) + "/file" + random.nextInt(500);
+			if (random.nextBoolean())
+				from.put(path, Integer.toString(random.nextInt(3)));
+			if (random.nextBoolean())
+				to.put(path, Integer.toString(random.nextInt(3)));
+		}
+
+		//Act
+		List<String> result = diff(from, to);
+
+		//Assert
+		int expected = 0;
+		for (String path : from.keySet())
+			if (!from.get(path).equals(to.get(path)))
+				expected++;
+		for (String path : to.keySet())
+			if (!from.containsKey(path))
+				expected++;
+		assertEquals(expected, result.size());
+	}
+}
@@ -0,0 +1,182 @@
+package test.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gitlet.BufferedOutputSink;
+import gitlet.CommandResult;
+import gitlet.Repository;
+import gitlet.http.QueryServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.BaseTest;
+
+public class QueryServerTests extends BaseTest {
+
+	private Repository repository;
+	private QueryServer server;
+	private String body;
+	private String etag;
+
+	@Before
+	@Override
+	public void setUp(){
+		super.setUp();
+		repository = Repository.init(new File(TESTING_DIR + "repo"), new BufferedOutputSink());
+	}
+
+	@After
+	@Override
+	public void tearDown(){
+		if(server != null)
+			server.stop();
+		super.tearDown();
+	}
+
+	private void startServer() throws IOException{
+		server = new QueryServer(repository, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		server.start();
+	}
+
+	private String commit(String file, String text, String message){
+		createFile(TESTING_DIR + "repo/" + file, text);
+		repository.add(file);
+		CommandResult result = repository.commit(message);
+		assertTrue(result.isSucceeded());
+		return result.getHead();
+	}
+
+	private int get(String path, String ifNoneMatch) throws IOException{
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" 
+				+ server.getPort() + path).openConnection();
+		if(ifNoneMatch != null)
+			connection.setRequestProperty("If-None-Match", ifNoneMatch);
+		int status = connection.getResponseCode();
+		etag = connection.getHeaderField("ETag");
+		InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		if(in != null){
+			byte[] buffer = new byte[4096];
+			int read;
+			while((read = in.read(buffer)) >= 0)
+				bytes.write(buffer, 0, read);
+			in.close();
+		}
+		body = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		return status;
+	}
+
+	@Test
+	public void log_headHistoryAsJson() throws IOException{
+		//Arrange
+		String first = commit("foo", "hi", "say hi");
+		String second = commit("foo", "hello", "say \"hello\"");
+		startServer();
+		
+		//Act
+		int status = get("/log", null);
+		
+		//Assert
+		assertEquals(200, status);
+		assertEquals("\"" + second + "\"", etag);
+		assertTrue(body.startsWith("{\"head\":\"" + second + "\",\"commits\":[{\"id\":\"" + second 
+				+ "\",\"parents\":[\"" + first + "\"],\"message\":\"say \\\"hello\\\"\""));
+		assertTrue(body.contains("\"message\":\"initial commit\""));
+	}
+
+	@Test
+	public void log_notModifiedUntilHeadMoves() throws IOException{
+		//Arrange
+		commit("foo", "hi", "say hi");
+		startServer();
+		get("/log", null);
+		String firstTag = etag;
+		
+		//Act
+		int unchanged = get("/log", firstTag);
+		String next = commit("foo", "hello", "say hello");
+		int moved = get("/log", firstTag);
+		
+		//Assert
+		assertEquals(304, unchanged);
+		assertEquals(200, moved);
+		assertEquals("\"" + next + "\"", etag);
+		assertTrue(body.contains("say hello"));
+	}
+
+	@Test
+	public void globalLogAndFind() throws IOException{
+		//Arrange
+		repository.branch("dev");
+		String onMaster = commit("foo", "hi", "same");
+		repository.checkoutBranch("dev");
+		String onDev = commit("bar", "bye", "same");
+		startServer();
+		
+		//Act
+		int globalStatus = get("/global-log", null);
+		String globalLog = body;
+		int findStatus = get("/find?message=same", null);
+		
+		//Assert
+		assertEquals(200, globalStatus);
+		assertTrue(globalLog.contains(onMaster));
+		assertTrue(globalLog.contains(onDev));
+		assertTrue(globalLog.contains("initial commit"));
+		assertEquals(200, findStatus);
+		assertTrue(body.contains(onMaster));
+		assertTrue(body.contains(onDev));
+		assertEquals(400, get("/find", null));
+	}
+
+	@Test
+	public void fileAtCommit_immutable() throws IOException{
+		//Arrange
+		String first = commit("foo", "hi\nthere", "say hi");
+		commit("foo", "hello", "say hello");
+		startServer();
+		
+		//Act
+		int status = get("/commits/" + first + "/files/foo", null);
+		String firstBody = body;
+		String firstTag = etag;
+		int notModified = get("/commits/" + first + "/files/foo", firstTag);
+		
+		//Assert
+		assertEquals(200, status);
+		assertEquals("{\"commit\":\"" + first + "\",\"path\":\"foo\",\"content\":\"hi\\nthere\"}", firstBody);
+		assertEquals("\"" + first + "\"", firstTag);
+		assertEquals(304, notModified);
+		assertEquals(404, get("/commits/" + first + "/files/nope", null));
+		assertEquals(404, get("/commits/nope", null));
+		assertEquals(200, get("/commits/" + first, null));
+		assertTrue(body.contains("\"message\":\"say hi\""));
+	}
+
+	@Test
+	public void writeMethods_rejected() throws IOException{
+		//Arrange
+		startServer();
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" 
+				+ server.getPort() + "/log").openConnection();
+		connection.setRequestMethod("DELETE");
+		
+		//Act
+		int status = connection.getResponseCode();
+		
+		//Assert
+		assertEquals(405, status);
+	}
+}
@@ -0,0 +1,81 @@
+package test.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+import test.BaseTest;
+
+public class EventsTests extends BaseTest {
+
+	private List<RecordedEvent> record(String... commands) throws IOException {
+		Path dump = new File(TESTING_DIR + "events.jfr").getAbsoluteFile().toPath();
+		try (Recording recording = new Recording()) {
+			for (String event : new String[] { "Command", "CommitDecode", "ObjectRead",
+					"ObjectWrite", "FileCopy", "Hash" })
+				recording.enable("gitlet." + event);
+			recording.start();
+			for (String command : commands)
+				gitlet(command.split(" "));
+			recording.stop();
+			recording.dump(dump);
+		}
+		return RecordingFile.readAllEvents(dump);
+	}
+
+	private List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+		List<RecordedEvent> matching = new ArrayList<RecordedEvent>();
+		for (RecordedEvent event : events)
+			if (event.getEventType().getName().equals("gitlet." + name))
+				matching.add(event);
+		return matching;
+	}
+
+	@Test
+	public void commands_emitEvents() throws IOException {
+		//Arrange
+		createFile("wug.txt", "wug");
+		gitlet("init");
+
+		//Act
+		List<RecordedEvent> events = record("add wug.txt", "commit wug", "log");
+
+		//Assert
+		List<RecordedEvent> commands = ofType(events, "Command");
+		assertEquals(3, commands.size());
+		assertEquals("add", commands.get(0).getString("command"));
+		assertFalse(commands.get(0).getBoolean("readOnly"));
+		assertTrue(commands.get(1).getBoolean("succeeded"));
+		assertEquals("log", commands.get(2).getString("command"));
+
+		List<RecordedEvent> writes = ofType(events, "ObjectWrite");
+		assertEquals(1, writes.size());
+		assertTrue(writes.get(0).getLong("bytes") > 0);
+		String id = writes.get(0).getString("id");
+
+		assertTrue(ofType(events, "ObjectRead").size() > 0);
+		boolean decoded = false;
+		for (RecordedEvent decode : ofType(events, "CommitDecode"))
+			decoded |= id.equals(decode.getString("id"));
+		assertTrue("log decodes the new commit", decoded);
+
+		List<RecordedEvent> copies = ofType(events, "FileCopy");
+		assertEquals(1, copies.size());
+		assertEquals("wug.txt", copies.get(0).getString("source"));
+		assertEquals(3, copies.get(0).getLong("bytes"));
+
+		assertTrue(ofType(events, "Hash").size() > 0);
+	}
+}
@@ -1,6 +1,8 @@
 package test.main;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 
@@ -97,4 +99,129 @@ public class AddTests extends BaseTest{
 		assertEquals("File has not been modified since the last commit.", result[1]);
 	}
 
+	@Test
+	public void add_directory_stagesFilesBelow(){
+		//Arrange
+		gitlet("init");
+		createDirectory("test_files/sub");
+		createFile("test_files/a.txt", "a");
+		createFile("test_files/sub/b.txt", "b");
+		
+		//Act
+		gitlet("add", "test_files/");
+		String result = gitlet("status");
+		
+		//Assert
+		assertEquals(
+				"=== Branches ==="+
+				"*master"+
+				""+
+				"=== Staged Files ==="+
+				"test_files/a.txt"+
+				"test_files/sub/b.txt"+
+				""+
+				"=== Files Marked for Removal ===", result);
+	}
+
+	@Test
+	public void add_directory_skipsUnchangedFiles(){
+		//Arrange
+		gitlet("init");
+		createFile("test_files/a.txt", "a");
+		createFile("test_files/b.txt", "b");
+		gitlet("add", "test_files");
+		gitlet("commit", "two files");
+		createFile("test_files/b.txt", "changed");
+		
+		//Act
+		gitlet("add", "test_files");
+		String result = gitlet("status");
+		
+		//Assert
+		assertEquals(
+				"=== Branches ==="+
+				"*master"+
+				""+
+				"=== Staged Files ==="+
+				"test_files/b.txt"+
+				""+
+				"=== Files Marked for Removal ===", result);
+	}
+
+	@Test
+	public void add_glob_stagesMatchingFiles(){
+		//Arrange
+		gitlet("init");
+		createFile("test_files/a.txt", "a");
+		createFile("test_files/b.md", "b");
+		createFile("test_files/c.txt", "c");
+		
+		//Act
+		gitlet("add", "test_files/*.txt");
+		String result = gitlet("status");
+		
+		//Assert
+		assertEquals(
+				"=== Branches ==="+
+				"*master"+
+				""+
+				"=== Staged Files ==="+
+				"test_files/a.txt"+
+				"test_files/c.txt"+
+				""+
+				"=== Files Marked for Removal ===", result);
+	}
+
+	@Test
+	public void add_glob_onlyMatchesOneDirectory(){
+		//Arrange
+		gitlet("init");
+		createDirectory("test_files/sub");
+		createFile("test_files/a.txt", "a");
+		createFile("test_files/sub/b.txt", "b");
+		
+		//Act
+		gitlet("add", "test_files/*.txt");
+		String single = gitlet("status");
+		gitlet("add", "test_files/**.txt");
+		String all = gitlet("status");
+		
+		//Assert
+		assertTrue(single.contains("test_files/a.txt"));
+		assertFalse(single.contains("test_files/sub/b.txt"));
+		assertTrue(all.contains("test_files/sub/b.txt"));
+	}
+
+	@Test
+	public void add_fileNamedLikeGlob_addedAsFile(){
+		//Arrange
+		gitlet("init");
+		createFile("test_files/a[1].txt", "a");
+		createFile("test_files/a1.txt", "a1");
+		
+		//Act
+		String[] result = gitletErr("add", "test_files/a[1].txt");
+		String status = gitlet("status");
+		
+		//Assert
+		assertEquals("", result[1]);
+		assertTrue(status.contains("test_files/a[1].txt"));
+		assertFalse(status.contains("test_files/a1.txt"));
+	}
+
+	@Test
+	public void add_globWithoutMatches(){
+		//Arrange
+		gitlet("init");
+		createFile("test_files/a.txt", "a");
+		
+		//Act
+		String result[] = gitletErr("add", "test_files/*.md");
+		
+		//Assert
+		assertEquals("File does not exist.", result[0]);
+		assertEquals("File does not exist: test_files/*.md", result[1]);
+		assertEquals(emptyStatus, gitlet("status"));
+	}
+
 }
@@ -0,0 +1,114 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import test.BaseTest;
+
+public class BatchTests extends BaseTest {
+
+	@Test
+	public void batch_fromFile_runsEveryCommand(){
+		//Arrange
+		this.stripNewLines = false;
+		gitlet("init");
+		createFile("foo", "hi");
+		createFile("bar", "yo");
+		createFile("commands", "add foo\nadd bar\n\n# a comment\ncommit \"two files\"\n");
+		
+		//Act
+		String result = gitlet("batch", "commands");
+		String log = gitlet("log");
+		
+		//Assert
+		assertEquals("result 1 ok 0 0\nresult 2 ok 0 0\nresult 3 ok 0 0\n", result);
+		assertEquals("two files", extractCommitMessages(log)[0]);
+	}
+	
+	@Test
+	public void batch_framesOutputOfEachCommand(){
+		//Arrange
+		this.stripNewLines = false;
+		gitlet("init");
+		createFile("commands", "commit nothing\nfrobnicate\nbranch dev\n");
+		
+		//Act
+		String result = gitlet("batch", "commands");
+		
+		//Assert
+		String noChanges = "No changes added to the commit." + nl;
+		String unknown = "Unknown command: frobnicate" + nl;
+		assertEquals("result 1 fail " + noChanges.length() + " " + noChanges.length() + "\n" 
+				+ noChanges + noChanges 
+				+ "result 2 unknown 0 " + unknown.length() + "\n" + unknown
+				+ "result 3 ok 0 0\n", result);
+	}
+	
+	@Test
+	public void batch_nulDelimited_allowsLineBreaksInArguments(){
+		//Arrange
+		this.stripNewLines = false;
+		gitlet("init");
+		createFile("foo", "hi");
+		createFile("commands", "add foo\0commit 'first line\nsecond line'\0");
+		
+		//Act
+		String result = gitlet("batch", "-z", "commands");
+		String log = gitlet("log");
+		
+		//Assert
+		assertEquals("result 1 ok 0 0\nresult 2 ok 0 0\n", result);
+		assertTrue(log.contains("first line\nsecond line"));
+	}
+	
+	@Test
+	public void batch_dangerousCommandsRunWithoutPrompt(){
+		//Arrange
+		this.stripNewLines = false;
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		gitlet("branch", "dev");
+		createFile("foo", "hello");
+		createFile("commands", "add foo\ncommit 'say hello'\ncheckout dev\n");
+		
+		//Act
+		String result = gitlet("batch", "commands");
+		
+		//Assert
+		assertEquals("result 1 ok 0 0\nresult 2 ok 0 0\nresult 3 ok 0 0\n", result);
+		assertEquals("hi", getText("foo"));
+	}
+	
+	@Test
+	public void batch_fromStdin(){
+		//Arrange
+		this.stripNewLines = false;
+		gitlet("init");
+		setStdinInput(Arrays.asList(new String[]{ "branch dev\nbranch dev\n" }));
+		
+		//Act
+		String result = gitlet("batch");
+		
+		//Assert
+		String exists = "A branch with that name already exists" + nl;
+		assertTrue(result.startsWith("result 1 ok 0 0\nresult 2 fail " + exists.length()));
+	}
+	
+	@Test
+	public void batch_fileNotFound(){
+		//Arrange
+		gitlet("init");
+		
+		//Act
+		String[] result = gitletErr("batch", "missing");
+		
+		//Assert
+		assertEquals("File does not exist.", result[0]);
+	}
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.fail;
 import java.io.File;
 import java.io.IOException;
 
+import org.junit.Assume;
 import org.junit.Test;
 
 import test.BaseTest;
@@ -84,6 +85,11 @@ public class InitTests extends BaseTest {
 		//Arrange
 		File f = new File(System.getProperty("user.dir"));
 		f.setReadOnly();
+		//root writes to read-only directories anyway
+		boolean enforced = !f.canWrite();
+		if(!enforced)
+			f.setWritable(true);
+		Assume.assumeTrue("write permissions aren't enforced for this user", enforced);
 	
 		//Act
 		String[] result = gitletErr("init");
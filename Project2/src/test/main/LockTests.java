@@ -0,0 +1,89 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import gitlet.FileSystemWriter;
+import gitlet.Journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import test.BaseTest;
+
+public class LockTests extends BaseTest {
+
+	@After
+	@Override
+	public void tearDown(){
+		System.clearProperty("gitlet.lockTimeout");
+		super.tearDown();
+		checkAndDelete("foo");
+	}
+
+	@Test
+	public void lockHeld_writesFailReadsRun(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		System.setProperty("gitlet.lockTimeout", "20");
+		createFile(".gitlet/repository.lock", "");
+		
+		//Act
+		String[] add = gitletErr("add", "foo");
+		String log = gitlet("log");
+		String status = gitlet("status");
+		
+		//Assert
+		assertEquals("Another gitlet command is changing this repository.", add[0]);
+		assertTrue(add[1].contains("repository.lock"));
+		assertTrue(log.contains("initial commit"));
+		assertTrue(status.contains("=== Staged Files ==="));
+		assertFalse(status.contains("foo"));
+	}
+
+	@Test
+	public void writes_releaseTheLock(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		
+		//Act
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		
+		//Assert
+		assertFalse(new File(".gitlet/repository.lock").exists());
+		assertFalse(new File(".gitlet/objects/staging.lock").exists());
+		assertTrue(gitlet("log").contains("say hi"));
+	}
+
+	@Test
+	public void interruptedCommit_rolledForwardByNextCommand() throws IOException{
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		String initial = new FileSystemWriter().recoverCommit(getText(".gitlet/refs/heads/master"))
+				.getParent().getId();
+		Map<String, byte[]> writes = new LinkedHashMap<String, byte[]>();
+		writes.put(".gitlet/refs/heads/master", initial.getBytes());
+		Files.write(Paths.get(Journal.FILE), Journal.encode(writes));
+		
+		//Act
+		String log = gitlet("log");
+		
+		//Assert
+		assertFalse(log.contains("say hi"));
+		assertTrue(log.contains("initial commit"));
+		assertFalse(new File(Journal.FILE).exists());
+	}
+}
@@ -169,4 +169,136 @@ public class LogTests extends BaseTest {
 		assertTrue("master log output should contain the initial commit", result2[0].contains("initial commit"));
 	}
 
+
+	@Test
+	public void log_path_onlyCommitsThatChangedFile(){
+		//Arrange
+		this.stripNewLines = false;
+		createFile("aaa", "123");
+		createFile("bbb", "456");
+		gitlet("init");
+		gitlet("add", "aaa");
+		gitlet("commit", "1st");
+		gitlet("add", "bbb");
+		gitlet("commit", "2nd");
+		createFile("aaa", "789");
+		gitlet("add", "aaa");
+		gitlet("commit", "3rd");
+		gitlet("rm", "bbb");
+		gitlet("commit", "4th");
+		
+		//Act
+		String[] resultA = gitletErr("log", "--", "aaa");
+		String[] resultB = gitletErr("log", "--", "bbb");
+		
+		//Assert
+		assertEquals("",resultA[1]);
+		String[] messagesA = extractCommitMessages(resultA[0]);
+		assertEquals("aaa changed in exactly 2 commits", 2, messagesA.length);
+		assertEquals("3rd", messagesA[0]);
+		assertEquals("1st", messagesA[1]);
+		
+		assertEquals("",resultB[1]);
+		String[] messagesB = extractCommitMessages(resultB[0]);
+		assertEquals("bbb changed in exactly 2 commits", 2, messagesB.length);
+		assertEquals("4th", messagesB[0]);
+		assertEquals("2nd", messagesB[1]);
+	}
+	
+	@Test
+	public void log_path_directoryMatchesFilesBelowIt(){
+		//Arrange
+		this.stripNewLines = false;
+		createDirectory("dir1");
+		createDirectory("dir1/dir2");
+		createFile("dir1/dir2/aaa", "123");
+		createFile("bbb", "456");
+		gitlet("init");
+		gitlet("add", "bbb");
+		gitlet("commit", "1st");
+		gitlet("add", "dir1/dir2/aaa");
+		gitlet("commit", "2nd");
+		
+		//Act
+		String[] result = gitletErr("log", "--", "dir1/");
+		
+		//Assert
+		assertEquals("",result[1]);
+		String[] messages = extractCommitMessages(result[0]);
+		assertEquals(1, messages.length);
+		assertEquals("2nd", messages[0]);
+	}
+	
+	@Test
+	public void log_path_untouchedFile_noOutput(){
+		//Arrange
+		createFile("aaa", "123");
+		gitlet("init");
+		gitlet("add", "aaa");
+		gitlet("commit", "1st");
+		
+		//Act
+		String[] result = gitletErr("log", "--", "zzz");
+		
+		//Assert
+		assertEquals("", result[0]);
+		assertEquals("", result[1]);
+	}
+
+	@Test
+	public void log_sinceUntil_onlyCommitsInRange() throws InterruptedException{
+		//Arrange
+		this.stripNewLines = false;
+		createFile("aaa", "123");
+		createFile("bbb", "456");
+		createFile("ccc", "789");
+		gitlet("init");
+		gitlet("add", "aaa");
+		gitlet("commit", "1st");
+		Thread.sleep(10);
+		long afterFirst = System.currentTimeMillis();
+		Thread.sleep(10);
+		gitlet("add", "bbb");
+		gitlet("commit", "2nd");
+		Thread.sleep(10);
+		long afterSecond = System.currentTimeMillis();
+		Thread.sleep(10);
+		gitlet("add", "ccc");
+		gitlet("commit", "3rd");
+		
+		//Act
+		String[] since = gitletErr("log", "--since", Long.toString(afterFirst));
+		String[] until = gitletErr("log", "--until=" + afterSecond);
+		String[] both = gitletErr("log", "--since", Long.toString(afterFirst), "--until", Long.toString(afterSecond));
+		
+		//Assert
+		assertEquals("",since[1]);
+		String[] sinceMessages = extractCommitMessages(since[0]);
+		assertEquals(2, sinceMessages.length);
+		assertEquals("3rd", sinceMessages[0]);
+		assertEquals("2nd", sinceMessages[1]);
+		
+		assertEquals("",until[1]);
+		String[] untilMessages = extractCommitMessages(until[0]);
+		assertEquals(3, untilMessages.length);
+		assertEquals("2nd", untilMessages[0]);
+		
+		assertEquals("",both[1]);
+		String[] bothMessages = extractCommitMessages(both[0]);
+		assertEquals(1, bothMessages.length);
+		assertEquals("2nd", bothMessages[0]);
+	}
+	
+	@Test
+	public void log_invalidDate(){
+		//Arrange
+		gitlet("init");
+		
+		//Act
+		String[] result = gitletErr("log", "--since", "someday");
+		
+		//Assert
+		assertEquals("Invalid date: someday", result[0]);
+	}
+
 }
@@ -1,8 +1,18 @@
 package test.main;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import gitlet.Commit;
+import gitlet.FileSystemWriter;
 
 import org.junit.After;
 import org.junit.Test;
@@ -16,6 +26,8 @@ public class MergeTests extends BaseTest {
 	public void tearDown(){
 		super.tearDown();
 		checkAndDelete("foo.conflicted");
+		checkAndDelete("bar");
+		checkAndDelete("baz");
 	}
 	
 	@Test
@@ -79,7 +91,8 @@ public class MergeTests extends BaseTest {
 		String[] result3 = gitletErr("merge", "master");
 		
 		//Assert
-		assertEquals("file content doesn't match", "hello", getText("foo.conflicted"));
+		assertEquals("file content doesn't match", 
+				"<<<<<<< dev\nhawayu\n=======\nhello\n>>>>>>> master\n", getText("foo.conflicted"));
 		assertEquals("file content doesn't match", "yo", getText("bar"));
 		assertEquals("",result3[1]);
 		checkAndDelete("foo.conflicted");
@@ -155,4 +168,290 @@ public class MergeTests extends BaseTest {
 		assertEquals("extra file(s) detected", baselineFileCount, f.list().length);		
 	}
 
+	@Test
+	public void merge_nonOverlappingChanges_mergedWithoutConflict(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "1\n2\n3\n4\n5\n6\n");
+		gitlet("add", "foo");
+		gitlet("commit", "numbers");
+		gitlet("branch", "dev");
+		createFile("foo", "one\n2\n3\n4\n5\n6\n");
+		gitlet("add", "foo");
+		gitlet("commit", "spell one");
+		gitlet("checkout", "dev");
+		createFile("foo", "1\n2\n3\n4\n5\nsix\n");
+		gitlet("add", "foo");
+		gitlet("commit", "spell six");
+		
+		//Act
+		String[] result = gitletErr("merge", "master");
+		
+		//Assert
+		assertEquals("", result[1]);
+		assertEquals("file content doesn't match", "one\n2\n3\n4\n5\nsix\n", getText("foo"));
+		assertFalse("no conflict expected", new File("foo.conflicted").exists());
+	}
+	
+	@Test
+	public void merge_overlappingChanges_onlyOverlapMarked(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "1\n2\n3\n4\n5\n6\n");
+		gitlet("add", "foo");
+		gitlet("commit", "numbers");
+		gitlet("branch", "dev");
+		createFile("foo", "one\n2\n3\n4\n5\nSIX\n");
+		gitlet("add", "foo");
+		gitlet("commit", "spell one");
+		gitlet("checkout", "dev");
+		createFile("foo", "1\n2\n3\n4\n5\nsix\n");
+		gitlet("add", "foo");
+		gitlet("commit", "spell six");
+		
+		//Act
+		gitletErr("merge", "master");
+		
+		//Assert
+		assertEquals("working file should be untouched", "1\n2\n3\n4\n5\nsix\n", getText("foo"));
+		assertEquals("file content doesn't match", 
+				"one\n2\n3\n4\n5\n<<<<<<< dev\nsix\n=======\nSIX\n>>>>>>> master\n", getText("foo.conflicted"));
+	}
+
+	@Test
+	public void merge_clean_createsMergeCommit(){
+		//Arrange
+		this.stripNewLines = false;
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		gitlet("branch", "dev");
+		createFile("bar", "yo");
+		gitlet("add", "bar");
+		gitlet("commit", "add bar");
+		gitlet("checkout", "dev");
+		createFile("baz", "good morning");
+		gitlet("add", "baz");
+		gitlet("commit", "add baz");
+		
+		//Act
+		String[] result = gitletErr("merge", "master");
+		String[] messages = extractCommitMessages(gitlet("log"));
+		
+		//Assert
+		assertEquals("", result[1]);
+		assertEquals("Merged master into dev.", messages[0]);
+		assertEquals("add baz", messages[1]);
+		assertEquals("yo", getText("bar"));
+	}
+	
+	@Test
+	public void merge_repeated_onlyNewCommitsConsidered(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "1\n2\n3\n");
+		gitlet("add", "foo");
+		gitlet("commit", "numbers");
+		gitlet("branch", "dev");
+		createFile("foo", "one\n2\n3\n");
+		gitlet("add", "foo");
+		gitlet("commit", "spell one");
+		gitlet("checkout", "dev");
+		createFile("foo", "1\n2\nthree\n");
+		gitlet("add", "foo");
+		gitlet("commit", "spell three");
+		gitlet("merge", "master");
+		gitlet("checkout", "master");
+		createFile("bar", "yo");
+		gitlet("add", "bar");
+		gitlet("commit", "add bar");
+		gitlet("checkout", "dev");
+		
+		//Act
+		String[] result = gitletErr("merge", "master");
+		
+		//Assert
+		assertEquals("", result[1]);
+		assertFalse("foo was merged before and must not conflict again", new File("foo.conflicted").exists());
+		assertEquals("one\n2\nthree\n", getText("foo"));
+		assertEquals("yo", getText("bar"));
+	}
+	
+	@Test
+	public void merge_conflict_resolvingCommitHasTwoParents(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		gitlet("branch", "dev");
+		createFile("foo", "hello");
+		gitlet("add", "foo");
+		gitlet("commit", "say hello");
+		String masterId = getLastCommitId(gitlet("log"));
+		gitlet("checkout", "dev");
+		createFile("foo", "hawayu");
+		gitlet("add", "foo");
+		gitlet("commit", "hawayu");
+		
+		//Act
+		String[] result = gitletErr("merge", "master");
+		createFile("foo", "hello hawayu");
+		gitlet("add", "foo");
+		gitlet("commit", "resolved");
+		String resolvedId = getLastCommitId(gitlet("log"));
+		
+		//Assert
+		assertEquals("Encountered a merge conflict.", result[0]);
+		Commit resolved = new FileSystemWriter().recoverCommit(resolvedId);
+		assertEquals(2, resolved.getParents().size());
+		assertEquals(masterId, resolved.getParents().get(1).getId());
+	}
+
+	@Test
+	public void merge_conflict_stagesCleanlyMergedFiles(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		createFile("bar", "yo");
+		gitlet("add", "foo");
+		gitlet("add", "bar");
+		gitlet("commit", "base");
+		gitlet("branch", "dev");
+		createFile("foo", "hello");
+		createFile("bar", "yo yo");
+		gitlet("add", "foo");
+		gitlet("add", "bar");
+		gitlet("commit", "change both");
+		gitlet("checkout", "dev");
+		createFile("foo", "hawayu");
+		gitlet("add", "foo");
+		gitlet("commit", "hawayu");
+		gitlet("merge", "master");
+		createFile("foo", "hello hawayu");
+		gitlet("add", "foo");
+		gitlet("commit", "resolved");
+		String resolvedId = getLastCommitId(gitlet("log"));
+		
+		//Act
+		String[] result = gitletErr("merge", "master");
+		
+		//Assert
+		Commit resolved = new FileSystemWriter().recoverCommit(resolvedId);
+		assertEquals("yo yo", getText("bar"));
+		assertEquals("yo yo", getText(".gitlet/objects/" + resolved.getFilePointers().get("bar") + "/bar"));
+		assertEquals("Given branch is an ancestor of the current branch.", result[0]);
+	}
+	
+	@Test
+	public void merge_notUtf8_treatedAsBinary() throws IOException{
+		//Arrange
+		gitlet("init");
+		writeLatin1("foo", "caf\u00e9\none\ntwo\nthree\nfour\n");
+		gitlet("add", "foo");
+		gitlet("commit", "base");
+		gitlet("branch", "dev");
+		writeLatin1("foo", "caf\u00e9\none\ntwo\nthree\nFOUR\n");
+		gitlet("add", "foo");
+		gitlet("commit", "master change");
+		gitlet("checkout", "dev");
+		writeLatin1("foo", "caf\u00e9\nONE\ntwo\nthree\nfour\n");
+		gitlet("add", "foo");
+		gitlet("commit", "dev change");
+		byte[] ours = Files.readAllBytes(Paths.get("foo"));
+		
+		//Act
+		gitlet("merge", "master");
+		
+		//Assert
+		byte[] theirs = "caf\u00e9\none\ntwo\nthree\nFOUR\n".getBytes(StandardCharsets.ISO_8859_1);
+		assertTrue("other version not kept whole", 
+				Arrays.equals(theirs, Files.readAllBytes(Paths.get("foo.conflicted"))));
+		assertTrue("working file changed", Arrays.equals(ours, Files.readAllBytes(Paths.get("foo"))));
+		checkAndDelete("foo");
+	}
+	
+	private void writeLatin1(String file, String text) throws IOException{
+		Files.write(Paths.get(file), text.getBytes(StandardCharsets.ISO_8859_1));
+	}
+	
+	@Test
+	public void merge_conflictAbandonedByCheckout_notAParentLater(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "base");
+		gitlet("branch", "dev");
+		createFile("foo", "hello");
+		gitlet("add", "foo");
+		gitlet("commit", "hello");
+		gitlet("checkout", "dev");
+		createFile("foo", "hawayu");
+		gitlet("add", "foo");
+		gitlet("commit", "hawayu");
+		gitlet("merge", "master");
+		String[] again = gitletErr("merge", "master");
+		
+		//Act
+		gitlet("checkout", "master");
+		createFile("bar", "yo");
+		gitlet("add", "bar");
+		gitlet("commit", "after");
+		String afterId = getLastCommitId(gitlet("log"));
+		
+		//Assert
+		assertEquals("You have an unfinished merge. Commit the resolution first.", again[0]);
+		assertFalse(new File(".gitlet/MERGE_HEAD").exists());
+		assertEquals(1, new FileSystemWriter().recoverCommit(afterId).getParents().size());
+	}
+	
+	@Test
+	public void merge_fileRemovedOnOtherBranch_deletedFromWorkingDirectory(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		createFile("bar", "yo");
+		gitlet("add", "foo");
+		gitlet("add", "bar");
+		gitlet("commit", "base");
+		gitlet("branch", "dev");
+		gitlet("rm", "bar");
+		gitlet("commit", "remove bar");
+		gitlet("checkout", "dev");
+		createFile("baz", "good morning");
+		gitlet("add", "baz");
+		gitlet("commit", "add baz");
+		
+		//Act
+		gitlet("merge", "master");
+		
+		//Assert
+		assertFalse("bar was removed on master", new File("bar").exists());
+	}
+	
+	@Test
+	public void merge_currentIsSplitPoint_fastForwards(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		gitlet("branch", "dev");
+		createFile("foo", "hello");
+		gitlet("add", "foo");
+		gitlet("commit", "say hello");
+		String masterId = getLastCommitId(gitlet("log"));
+		gitlet("checkout", "dev");
+		
+		//Act
+		String[] result = gitletErr("merge", "master");
+		
+		//Assert
+		assertEquals("Current branch fast-forwarded.", result[0]);
+		assertEquals(masterId, getLastCommitId(gitlet("log")));
+		assertEquals("hello", getText("foo"));
+	}
+
 }
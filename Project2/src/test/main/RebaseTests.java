@@ -254,4 +254,38 @@ public class RebaseTests extends BaseTest {
 		assertEquals("nobody knows the trouble I seen", getText("test"));
 	}
 
+	@Test
+	public void rebase_writesOnlyCommitObjects(){
+		//Arrange
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		gitlet("branch", "dev");
+		createFile("bar", "yo");
+		gitlet("add", "bar");
+		gitlet("commit", "add bar");
+		gitlet("checkout", "dev");
+		createFile("foo", "hello");
+		gitlet("add", "foo");
+		gitlet("commit", "say hello");
+		createFile("baz", "good morning");
+		gitlet("add", "baz");
+		gitlet("commit", "good morning");
+		
+		//Act
+		gitlet("rebase", "master");
+		String log = gitlet("log");
+		String rebasedId = getLastCommitId(log);
+		
+		//Assert
+		assertArrayEquals("file contents are shared with the replayed commits",
+				new String[]{ rebasedId }, new File(".gitlet/objects/" + rebasedId).list());
+		assertEquals("hello", getText("foo"));
+		assertEquals("yo", getText("bar"));
+		assertEquals("good morning", getText("baz"));
+		checkAndDelete("bar");
+		checkAndDelete("baz");
+	}
+
 }
@@ -69,4 +69,61 @@ public class ResetTests extends BaseTest {
 		assertEquals("Commit does not exist", result1[1]);
 	}
 
+
+	@Test
+	public void reset_byDate_lastCommitBeforeDate() throws InterruptedException{
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		String comid1 = getLastCommitId(gitlet("log"));
+		Thread.sleep(10);
+		long afterFirst = System.currentTimeMillis();
+		Thread.sleep(10);
+		createFile("foo", "hello");
+		gitlet("add", "foo");
+		gitlet("commit", "say hello");
+		
+		//Act
+		String[] result = gitletErr("reset", "master@{" + afterFirst + "}");
+		
+		//Assert
+		assertEquals("", result[1]);
+		assertEquals("file content doesn't match", "hi", getText("foo"));
+		assertEquals(comid1, getLastCommitId(gitlet("log")));
+	}
+	
+	@Test
+	public void reset_byDate_beforeFirstCommit(){
+		gitlet("init");
+		
+		//Act
+		String[] result = gitletErr("reset", "master@{1000000000000}");
+		
+		//Assert
+		assertEquals("No commit on that branch at or before that date.", result[0]);
+	}
+	
+	@Test
+	public void checkout_byDate_doesNotMoveBranch() throws InterruptedException{
+		gitlet("init");
+		createFile("foo", "hi");
+		gitlet("add", "foo");
+		gitlet("commit", "say hi");
+		Thread.sleep(10);
+		long afterFirst = System.currentTimeMillis();
+		Thread.sleep(10);
+		createFile("foo", "hello");
+		gitlet("add", "foo");
+		gitlet("commit", "say hello");
+		String comid2 = getLastCommitId(gitlet("log"));
+		
+		//Act
+		String[] result = gitletErr("checkout", "master@{" + afterFirst + "}");
+		
+		//Assert
+		assertEquals("", result[1]);
+		assertEquals("file content doesn't match", "hi", getText("foo"));
+		assertEquals(comid2, getLastCommitId(gitlet("log")));
+	}
 }
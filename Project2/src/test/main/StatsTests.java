@@ -0,0 +1,53 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import test.BaseTest;
+
+public class StatsTests extends BaseTest {
+
+	@Test
+	public void stats_printsSummaryToStderr(){
+		//Arrange
+		this.stripNewLines = false;
+		createFile("wug.txt", "wug");
+		gitlet("init");
+		gitlet("add", "wug.txt");
+		
+		//Act
+		String[] result = gitletErr("--stats", "commit", "wug");
+		
+		//Assert
+		assertEquals("", result[0]);
+		assertTrue(result[1], result[1].startsWith("gitlet commit: "));
+		assertTrue(result[1], result[1].contains("objects: 1 read, 1 written"));
+		assertTrue(result[1], result[1].contains("copyFile 1"));
+	}
+	
+	@Test
+	public void stats_printsJson(){
+		//Arrange
+		gitlet("init");
+		
+		//Act
+		String[] result = gitletErr("--stats=json", "log");
+		
+		//Assert
+		assertTrue(result[0], result[0].contains("initial commit"));
+		assertTrue(result[1], result[1].startsWith("{\"command\":\"log\",\"ms\":"));
+		assertTrue(result[1], result[1].contains("\"objectsRead\":1"));
+	}
+	
+	@Test
+	public void stats_withoutSubcommand(){
+		//Act
+		String[] result = gitletErr("--stats");
+		
+		//Assert
+		assertEquals("", result[0]);
+		assertTrue(result[1], result[1].startsWith("Need a subcommand"));
+	}
+}